@@ -0,0 +1,116 @@
+package com.alejandro.manageprojects.benchmark;
+
+import com.alejandro.manageprojects.domain.entity.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grafos de entidades en memoria (sin base de datos) con la forma que recorren los DTOs:
+ * proyecto -> presupuesto, tareas -> asignado (perfil, roles) y etiquetas, comentarios -> autor, hitos.
+ */
+public final class Fixtures {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private Fixtures() {}
+
+    public static List<Proyecto> proyectos(int proyectos, int tareasPorProyecto) {
+        List<Usuario> usuarios = usuarios(20);
+        List<Etiqueta> etiquetas = etiquetas(10);
+        List<Proyecto> list = new ArrayList<>(proyectos);
+        long tareaId = 1;
+        for (int i = 0; i < proyectos; i++) {
+            Proyecto proyecto = new Proyecto();
+            proyecto.setId((long) i + 1);
+            proyecto.setNombre("Proyecto " + i);
+            proyecto.setDescripcion("Descripción del proyecto " + i);
+            proyecto.setFechaInicio(BASE.plusDays(i));
+            proyecto.setFechaFin(BASE.plusDays(i + 90L));
+
+            Presupuesto presupuesto = new Presupuesto();
+            presupuesto.setId(proyecto.getId());
+            presupuesto.setMontoTotal(BigDecimal.valueOf(10_000 + i));
+            presupuesto.setGastado(BigDecimal.valueOf(2_500));
+            presupuesto.setProyecto(proyecto);
+            proyecto.setPresupuesto(presupuesto);
+
+            for (int j = 0; j < tareasPorProyecto; j++) {
+                Tarea tarea = new Tarea();
+                tarea.setId(tareaId++);
+                tarea.setTitulo("Tarea " + i + "-" + j);
+                tarea.setDescripcion("Descripción de la tarea " + j);
+                tarea.setEstado(Tarea.Estado.values()[j % Tarea.Estado.values().length]);
+                tarea.setFechaLimite(BASE.plusDays(i + j));
+                tarea.setAsignadoA(usuarios.get((i + j) % usuarios.size()));
+                tarea.setProyecto(proyecto);
+                tarea.getEtiquetas().add(etiquetas.get(j % etiquetas.size()));
+                tarea.getEtiquetas().add(etiquetas.get((j + 3) % etiquetas.size()));
+                proyecto.getTareas().add(tarea);
+            }
+            for (int j = 0; j < 3; j++) {
+                Comentario comentario = new Comentario();
+                comentario.setId((long) i * 3 + j + 1);
+                comentario.setContenido("Comentario " + j + " del proyecto " + i);
+                comentario.setCreadoEn(BASE.plusHours(j));
+                comentario.setAutor(usuarios.get(j % usuarios.size()));
+                comentario.setProyecto(proyecto);
+                proyecto.getComentarios().add(comentario);
+
+                Hito hito = new Hito();
+                hito.setId((long) i * 3 + j + 1);
+                hito.setNombre("Hito " + j);
+                hito.setFechaObjetivo(BASE.plusDays(30L * j));
+                hito.setProyecto(proyecto);
+                proyecto.getHitos().add(hito);
+            }
+            list.add(proyecto);
+        }
+        return list;
+    }
+
+    public static List<Tarea> tareas(List<Proyecto> proyectos) {
+        return proyectos.stream().flatMap(p -> p.getTareas().stream()).toList();
+    }
+
+    private static List<Usuario> usuarios(int n) {
+        Rol admin = new Rol();
+        admin.setId(1L);
+        admin.setNombre("ADMIN");
+        Rol dev = new Rol();
+        dev.setId(2L);
+        dev.setNombre("DEV");
+        List<Usuario> usuarios = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setId((long) i + 1);
+            usuario.setEmail("usuario" + i + "@example.com");
+            usuario.setNombre("Nombre" + i);
+            usuario.setApellido("Apellido" + i);
+            usuario.getRoles().add(dev);
+            if (i % 5 == 0) {
+                usuario.getRoles().add(admin);
+            }
+            Perfil perfil = new Perfil();
+            perfil.setId(usuario.getId());
+            perfil.setTelefono("600000" + i);
+            perfil.setUsuario(usuario);
+            usuario.setPerfil(perfil);
+            usuarios.add(usuario);
+        }
+        return usuarios;
+    }
+
+    private static List<Etiqueta> etiquetas(int n) {
+        List<Etiqueta> etiquetas = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Etiqueta etiqueta = new Etiqueta();
+            etiqueta.setId((long) i + 1);
+            etiqueta.setNombre("etiqueta-" + i);
+            etiquetas.add(etiqueta);
+        }
+        return etiquetas;
+    }
+}
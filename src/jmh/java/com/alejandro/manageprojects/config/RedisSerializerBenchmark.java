@@ -0,0 +1,77 @@
+package com.alejandro.manageprojects.config;
+
+import com.alejandro.manageprojects.benchmark.Fixtures;
+import com.alejandro.manageprojects.config.cache.CacheValueSerializer;
+import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.mapper.ProyectoMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Ida y vuelta por el serializador de valores de la caché Redis con la lista cacheada de getAll (proyectos_all).
+ * generic-json es el GenericJackson2JsonRedisSerializer usado antes de CacheValueSerializer; el tamaño serializado
+ * de cada variante se imprime al preparar el estado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"50", "500"})
+    int proyectos;
+
+    @Param({"generic-json", "json", "smile", "json-lz4", "smile-lz4"})
+    String codec;
+
+    private RedisSerializer<Object> serializer;
+    private List<ProyectoDto> dtos;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = switch (codec) {
+            case "generic-json" -> new GenericJackson2JsonRedisSerializer().configure(mapper -> mapper
+                    .registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+            case "json" -> new CacheValueSerializer(CacheValueSerializer.Format.JSON, null);
+            case "smile" -> new CacheValueSerializer(CacheValueSerializer.Format.SMILE, null);
+            case "json-lz4" -> new CacheValueSerializer(CacheValueSerializer.Format.JSON, DataSize.ofBytes(0));
+            case "smile-lz4" -> new CacheValueSerializer(CacheValueSerializer.Format.SMILE, DataSize.ofBytes(0));
+            default -> throw new IllegalArgumentException(codec);
+        };
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ProyectoMapper.class.getPackageName())) {
+            ProyectoMapper mapper = context.getBean(ProyectoMapper.class);
+            // Mismo tipo de lista que cachea ProyectoServiceImpl.getAll
+            dtos = Fixtures.proyectos(proyectos, 5).stream().map(mapper::toDto).collect(Collectors.toList());
+        }
+        bytes = serializer.serialize(dtos);
+        System.out.printf("%n[%s, %d proyectos] %d bytes%n", codec, proyectos, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(dtos);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(dtos));
+    }
+}
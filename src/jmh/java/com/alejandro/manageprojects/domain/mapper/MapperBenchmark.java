@@ -0,0 +1,62 @@
+package com.alejandro.manageprojects.domain.mapper;
+
+import com.alejandro.manageprojects.benchmark.Fixtures;
+import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo entidad -> DTO de una página de proyectos (con su grafo) y de sus tareas.
+ * Los mappers de MapStruct se obtienen de un contexto Spring mínimo para que las dependencias entre mappers queden inyectadas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    // Tamaño de página de los endpoints paginados y tareas por proyecto
+    @Param({"50"})
+    int proyectos;
+
+    @Param({"5", "50"})
+    int tareasPorProyecto;
+
+    private AnnotationConfigApplicationContext context;
+    private ProyectoMapper proyectoMapper;
+    private TareaMapper tareaMapper;
+    private List<Proyecto> pagina;
+    private List<Tarea> tareas;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ProyectoMapper.class.getPackageName());
+        proyectoMapper = context.getBean(ProyectoMapper.class);
+        tareaMapper = context.getBean(TareaMapper.class);
+        pagina = Fixtures.proyectos(proyectos, tareasPorProyecto);
+        tareas = Fixtures.tareas(pagina);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProyectoDto> proyectoToDto() {
+        return pagina.stream().map(proyectoMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<TareaDto> tareaToDto() {
+        return tareas.stream().map(tareaMapper::toDto).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.benchmark.Fixtures;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplanado por reflexión de las instantáneas de Envers (AuditService.toFlatMap), tal como lo hace getBetween
+ * con una lista de revisiones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditFlattenBenchmark {
+
+    // Revisiones devueltas por una consulta de historial
+    @Param({"20"})
+    int revisiones;
+
+    private AuditService auditService;
+    private List<Proyecto> proyectos;
+    private List<Tarea> tareas;
+
+    @Setup
+    public void setUp() {
+        auditService = new AuditService(null);
+        proyectos = Fixtures.proyectos(revisiones, 20);
+        tareas = Fixtures.tareas(proyectos).subList(0, revisiones);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> proyectoToFlatMap() {
+        List<Map<String, Object>> list = new ArrayList<>(proyectos.size());
+        for (Proyecto p : proyectos) {
+            list.add(auditService.toFlatMap(p));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> tareaToFlatMap() {
+        List<Map<String, Object>> list = new ArrayList<>(tareas.size());
+        for (Tarea t : tareas) {
+            list.add(auditService.toFlatMap(t));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,60 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import com.alejandro.manageprojects.domain.query.CompiledQueryRegistry;
+import com.alejandro.manageprojects.domain.query.FilterShape;
+import com.querydsl.core.types.Predicate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición del filtro dinámico de getProyectos: forma del filtro (ruta compilada), predicado en caché con
+ * valores sustituidos (cursor, total opcional, resumen) y construcción completa del árbol QueryDSL (fallo de caché).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterPredicateBenchmark {
+
+    private ProyectoServiceImpl service;
+    private ProyectoFilter filter;
+
+    @Setup
+    public void setUp() {
+        CompiledQueryRegistry registry = new CompiledQueryRegistry(null, new SimpleMeterRegistry(), 500);
+        service = new ProyectoServiceImpl(null, null, null, null, registry, null, null, null, null, null, null);
+        ReflectionTestUtils.setField(service, "indexedSearch", true);
+
+        filter = new ProyectoFilter();
+        filter.setNombre("proyecto");
+        filter.setFechaInicioDesde(LocalDateTime.of(2025, 1, 1, 0, 0));
+        filter.setPresupuestoMin(BigDecimal.valueOf(1_000));
+        filter.setMinTareas(3);
+        filter.setMiembroEmail("@example.com");
+        filter.setSearchText("informe");
+    }
+
+    @Benchmark
+    public FilterShape forma() {
+        return service.shapeOf(filter);
+    }
+
+    @Benchmark
+    public Predicate predicadoEnCache() {
+        return service.buildPredicate(filter);
+    }
+
+    @Benchmark
+    public Predicate predicadoCompleto() {
+        FilterShape shape = service.shapeOf(filter);
+        return shape.bound(service.predicateFor(shape));
+    }
+}
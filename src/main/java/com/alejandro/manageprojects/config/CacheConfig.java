@@ -0,0 +1,106 @@
+package com.alejandro.manageprojects.config;
+
+import com.alejandro.manageprojects.config.cache.CacheDependencies;
+import com.alejandro.manageprojects.config.cache.CacheInvalidationBus;
+import com.alejandro.manageprojects.config.cache.CacheInvalidator;
+import com.alejandro.manageprojects.config.cache.CacheMetrics;
+import com.alejandro.manageprojects.config.cache.CacheRefresher;
+import com.alejandro.manageprojects.config.cache.CacheSettings;
+import com.alejandro.manageprojects.config.cache.CacheStatsEndpoint;
+import com.alejandro.manageprojects.config.cache.CacheValueSerializer;
+import com.alejandro.manageprojects.config.cache.CacheWarmUp;
+import com.alejandro.manageprojects.config.cache.QueryResultCache;
+import com.alejandro.manageprojects.config.cache.RedisCacheStore;
+import com.alejandro.manageprojects.config.cache.RedisCircuitBreaker;
+import com.alejandro.manageprojects.config.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Caché de dos niveles (Caffeine delante de Redis) y sus piezas: circuit breaker de Redis, bus de invalidación
+ * entre instancias, dependencias entre cachés, refresco en segundo plano, caché de resultados de consultas y
+ * precarga. La configuración por caché está en app.cache (CacheSettings).
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheSettings.class)
+public class CacheConfig {
+
+    @Bean
+    public RedisCircuitBreaker redisCircuitBreaker(RedisConnectionFactory connectionFactory, CacheSettings settings, MeterRegistry registry) {
+        return new RedisCircuitBreaker(connectionFactory, settings, registry);
+    }
+
+    @Bean
+    public RedisCacheStore redisCacheStore(RedisConnectionFactory connectionFactory, RedisCircuitBreaker circuitBreaker) {
+        return new RedisCacheStore(connectionFactory, circuitBreaker);
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(RedisCacheStore store, CacheSettings settings) {
+        return new CacheInvalidationBus(store, settings.getInvalidationChannel());
+    }
+
+    @Bean
+    public CacheDependencies cacheDependencies() {
+        return new CacheDependencies();
+    }
+
+    @Bean
+    public CacheRefresher cacheRefresher(PlatformTransactionManager transactionManager, CacheSettings settings) {
+        return new CacheRefresher(transactionManager, settings);
+    }
+
+    // Caché local acotada por peso delante de Redis; TTL, tamaño y serializador por caché en app.cache
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisCacheStore store, CacheSettings settings, CacheInvalidationBus invalidationBus,
+                                             CacheRefresher refresher, MeterRegistry meterRegistry, CacheDependencies dependencies) {
+        return new TwoLevelCacheManager(store,
+                name -> new CacheValueSerializer(settings.serializer(name), settings.compressThreshold(name)),
+                settings, invalidationBus, refresher, new CacheMetrics(meterRegistry), dependencies);
+    }
+
+    @Bean
+    public CacheWarmUp cacheWarmUp(TwoLevelCacheManager cacheManager, RedisCacheStore store, CacheRefresher refresher,
+                                   CacheSettings settings) {
+        return new CacheWarmUp(cacheManager, store, refresher, settings);
+    }
+
+    @Bean
+    public CacheStatsEndpoint cacheStatsEndpoint(TwoLevelCacheManager cacheManager, RedisCacheStore store, CacheRefresher refresher) {
+        return new CacheStatsEndpoint(cacheManager, store, refresher);
+    }
+
+    @Bean
+    public CacheInvalidator cacheInvalidator(TwoLevelCacheManager cacheManager, RedisCircuitBreaker circuitBreaker) {
+        return new CacheInvalidator(cacheManager, circuitBreaker);
+    }
+
+    @Bean
+    public QueryResultCache queryResultCache(TwoLevelCacheManager cacheManager, RedisCacheStore store) {
+        return new QueryResultCache(cacheManager, store);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory, CacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(invalidationBus.getChannel()));
+        return container;
+    }
+
+    @Bean
+    public CacheErrorHandler cacheErrorHandler() {
+        // Evita que errores de cache fallen la petición: se registran y la operación sigue sin caché
+        return new LoggingCacheErrorHandler();
+    }
+}
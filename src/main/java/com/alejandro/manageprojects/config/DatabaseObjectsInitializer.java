@@ -0,0 +1,60 @@
+package com.alejandro.manageprojects.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instala objetos de base de datos que Hibernate (ddl-auto: update) no gestiona: extensiones,
+ * funciones, triggers e índices especiales. Los scripts son idempotentes y se ejecutan en cada arranque,
+ * después de crear el EntityManagerFactory (esquema ya actualizado) y antes de aceptar peticiones.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class DatabaseObjectsInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> scripts = new ArrayList<>();
+
+    public DatabaseObjectsInitializer(JdbcTemplate jdbcTemplate,
+                                      @Value("${app.search.indexed:true}") boolean indexedSearch) {
+        this.jdbcTemplate = jdbcTemplate;
+        scripts.add("db/id-sequences.sql");
+        scripts.add("db/entity-versions.sql");
+        scripts.add("db/foreign-key-indexes.sql");
+        scripts.add("db/proyecto-counters.sql");
+        scripts.add("db/keyset-indexes.sql");
+        if (indexedSearch) {
+            scripts.add("db/search-index.sql");
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String script : scripts) {
+            log.info("[DatabaseObjectsInitializer] Ejecutando {}", script);
+            // El driver de PostgreSQL admite varias sentencias (incluidos bloques $$ ... $$) en un solo execute
+            jdbcTemplate.execute(read(script));
+        }
+    }
+
+    private static String read(String path) {
+        try {
+            return StreamUtils.copyToString(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + path, e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.alejandro.manageprojects.config.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Grafo de los DTO cacheados: qué tipos corresponden a una entidad con id y qué otros DTO contienen.
+ * Los servicios registran sus tipos; al escribir una entrada se extraen las entidades que lleva dentro
+ * para guardarla en el índice de dependencias (cachedeps:&lt;entidad&gt;:&lt;id&gt;) y, al cambiar una
+ * de esas entidades, evictar exactamente las entradas que la contienen. Las listas completas (*_all) contienen
+ * todas las filas: se indexan una vez por tipo de entidad (cachedeps:&lt;entidad&gt;), no por cada id.
+ */
+public class CacheDependencies {
+
+    private static final String PREFIX = "cachedeps:";
+
+    private record Node(String entity, Function<Object, Object> id, Function<Object, Collection<?>> children) {}
+
+    private final Map<Class<?>, Node> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Tipo de una entidad: sus apariciones dentro de otras entradas se indexan por id.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void track(Class<T> type, String entity, Function<T, ?> id, Function<T, Collection<?>> children) {
+        nodes.put(type, new Node(entity, (Function<Object, Object>) id, (Function<Object, Collection<?>>) children));
+    }
+
+    /**
+     * Tipo que no se indexa pero puede contener entidades (p. ej. el autor de un comentario).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void traverse(Class<T> type, Function<T, Collection<?>> children) {
+        nodes.put(type, new Node(null, null, (Function<Object, Collection<?>>) children));
+    }
+
+    /**
+     * Ids por entidad contenidos en un valor. El propio valor no cuenta: la entrada "tarea::5" ya se evicta
+     * por su clave, solo interesan las entidades anidadas (o los elementos, si el valor es una lista).
+     */
+    List<byte[]> keysOf(Object value) {
+        List<byte[]> keys = new ArrayList<>();
+        extract(value).forEach((entity, ids) -> ids.forEach(id -> keys.add(key(entity, id))));
+        return keys;
+    }
+
+    /**
+     * Tipos de entidad contenidos en un valor, para las listas completas: cualquier cambio de uno de ellos las evicta.
+     */
+    List<byte[]> typeKeysOf(Object value) {
+        return extract(value).keySet().stream().map(CacheDependencies::typeKey).toList();
+    }
+
+    static byte[] key(String entity, Object id) {
+        return (PREFIX + entity + ":" + id).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] typeKey(String entity) {
+        return (PREFIX + entity).getBytes(StandardCharsets.UTF_8);
+    }
+
+    Map<String, Set<String>> extract(Object value) {
+        Map<String, Set<String>> deps = new HashMap<>();
+        walk(value, true, deps, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return deps;
+    }
+
+    private void walk(Object node, boolean root, Map<String, Set<String>> deps, Set<Object> visited) {
+        if (node == null || !visited.add(node)) {
+            return;
+        }
+        if (node instanceof Collection<?> collection) {
+            collection.forEach(e -> walk(e, false, deps, visited));
+            return;
+        }
+        Node type = nodes.get(node.getClass());
+        if (type == null) {
+            return;
+        }
+        if (type.entity() != null && !root) {
+            Object id = type.id().apply(node);
+            if (id != null) {
+                deps.computeIfAbsent(type.entity(), e -> new HashSet<>()).add(String.valueOf(id));
+            }
+        }
+        Collection<?> children = type.children().apply(node);
+        if (children != null) {
+            children.forEach(c -> walk(c, false, deps, visited));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.alejandro.manageprojects.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Avisos de invalidación de la caché local entre nodos por Redis pub/sub.
+ * Mensaje: nodo, caché y claves separados por U+001F; sin claves significa vaciar la caché.
+ * Cada nodo ignora sus propios mensajes (ya ha actualizado su copia local).
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final String SEP = "\u001F";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisCacheStore store;
+    private final String channel;
+    private volatile BiConsumer<String, List<String>> handler = (cache, keys) -> {};
+
+    public CacheInvalidationBus(RedisCacheStore store, String channel) {
+        this.store = store;
+        this.channel = channel;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    // keys == null: vaciar la caché completa
+    void onInvalidation(BiConsumer<String, List<String>> handler) {
+        this.handler = handler;
+    }
+
+    public void publish(String cache, Collection<String> keys) {
+        store.publish(channel, encode(cache, keys));
+    }
+
+    byte[] encode(String cache, Collection<String> keys) {
+        StringBuilder sb = new StringBuilder(nodeId).append(SEP).append(cache);
+        if (keys != null) {
+            keys.forEach(k -> sb.append(SEP).append(k));
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEP, -1);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        List<String> keys = parts.length == 2 ? null : Arrays.asList(parts).subList(2, parts.length);
+        log.debug("[CacheInvalidationBus] onMessage - Invalidación remota en {}: {}", parts[1], keys == null ? "todas" : keys);
+        handler.accept(parts[1], keys);
+    }
+}
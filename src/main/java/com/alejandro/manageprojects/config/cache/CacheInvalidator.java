@@ -0,0 +1,87 @@
+package com.alejandro.manageprojects.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evicción dirigida por claves para las operaciones en bloque, que no pasan por @CacheEvict por entidad.
+ * Dentro de una transacción la evicción se aplaza al commit: evictar antes dejaría que una lectura
+ * concurrente volviese a cachear el estado anterior, y tras un rollback no hay nada que invalidar.
+ * Las evicciones por dependencias que fallan se reintentan cuando RedisCircuitBreaker da Redis por recuperado.
+ */
+@Slf4j
+public class CacheInvalidator {
+
+    private record Dependent(String entity, Object id) {}
+
+    private final TwoLevelCacheManager cacheManager;
+    private final Set<Dependent> pendingDependents = ConcurrentHashMap.newKeySet();
+
+    public CacheInvalidator(TwoLevelCacheManager cacheManager, RedisCircuitBreaker circuitBreaker) {
+        this.cacheManager = cacheManager;
+        circuitBreaker.addRecoveryAction(reconnected -> retryDependents());
+    }
+
+    public void evictAfterCommit(Map<String, ? extends Collection<?>> keysByCache) {
+        if (keysByCache.values().stream().allMatch(Collection::isEmpty)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(keysByCache);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(keysByCache);
+            }
+        });
+    }
+
+    /**
+     * Tras el commit, evicta las entradas cacheadas que contienen alguna de las entidades (índice de dependencias).
+     */
+    public void evictDependentsAfterCommit(String entity, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictDependents(entity, ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictDependents(entity, ids);
+            }
+        });
+    }
+
+    private void evictDependents(String entity, Collection<?> ids) {
+        try {
+            cacheManager.evictDependents(entity, ids);
+        } catch (RuntimeException e) {
+            // El índice sigue en Redis: se reintenta al recuperarse, hasta entonces las entradas siguen visibles en otros nodos
+            ids.forEach(id -> pendingDependents.add(new Dependent(entity, id)));
+            log.error("[CacheInvalidator] evictDependents - No se pudieron evictar las dependencias de {} {}: {}", entity, ids, e.getMessage());
+        }
+    }
+
+    private void retryDependents() {
+        for (Dependent dependent : Set.copyOf(pendingDependents)) {
+            cacheManager.evictDependents(dependent.entity(), Set.of(dependent.id()));
+            pendingDependents.remove(dependent);
+        }
+    }
+
+    private void evict(Map<String, ? extends Collection<?>> keysByCache) {
+        log.debug("[CacheInvalidator] evict - Claves: {}", keysByCache);
+        cacheManager.evictAll(keysByCache);
+    }
+}
@@ -0,0 +1,122 @@
+package com.alejandro.manageprojects.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Medidores Micrometer por caché, con la etiqueta cache=&lt;nombre&gt;:
+ * <ul>
+ *   <li>app.cache.gets (result=hit|miss, tier=local|redis|none): lecturas de la aplicación</li>
+ *   <li>app.cache.puts y app.cache.evictions: escrituras y claves eliminadas</li>
+ *   <li>app.cache.load: tiempo de las cargas tras un fallo y de las recargas en segundo plano</li>
+ *   <li>app.cache.value.size: tamaño serializado de los valores escritos, en bytes</li>
+ *   <li>app.cache.redis.errors (operation=get|put|evict|clear|lease): fallos de Redis</li>
+ *   <li>app.cache.local.size y app.cache.local.weight: entradas y bytes en el primer nivel</li>
+ * </ul>
+ */
+public class CacheMetrics {
+
+    private final MeterRegistry registry;
+
+    public CacheMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Meters forCache(String cache) {
+        return new Meters(registry, cache);
+    }
+
+    public static final class Meters {
+
+        private final MeterRegistry registry;
+        private final String cache;
+        private final Counter localHits;
+        private final Counter redisHits;
+        private final Counter misses;
+        private final Counter puts;
+        private final Counter evictions;
+        private final Timer load;
+        private final DistributionSummary valueSize;
+        private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+        private Meters(MeterRegistry registry, String cache) {
+            this.registry = registry;
+            this.cache = cache;
+            this.localHits = gets("hit", "local");
+            this.redisHits = gets("hit", "redis");
+            this.misses = gets("miss", "none");
+            this.puts = Counter.builder("app.cache.puts").tag("cache", cache).register(registry);
+            this.evictions = Counter.builder("app.cache.evictions").tag("cache", cache).register(registry);
+            this.load = Timer.builder("app.cache.load").tag("cache", cache).register(registry);
+            this.valueSize = DistributionSummary.builder("app.cache.value.size").baseUnit("bytes").tag("cache", cache).register(registry);
+        }
+
+        private Counter gets(String result, String tier) {
+            return Counter.builder("app.cache.gets").tag("cache", cache).tag("result", result).tag("tier", tier).register(registry);
+        }
+
+        void local(com.github.benmanes.caffeine.cache.Cache<?, ?> local) {
+            Gauge.builder("app.cache.local.size", local, c -> c.estimatedSize()).tag("cache", cache).register(registry);
+            Gauge.builder("app.cache.local.weight", local, c -> c.policy().eviction()
+                            .map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                    .baseUnit("bytes").tag("cache", cache).register(registry);
+        }
+
+        void localHit() {
+            localHits.increment();
+        }
+
+        void redisHit() {
+            redisHits.increment();
+        }
+
+        void miss() {
+            misses.increment();
+        }
+
+        void put(int bytes) {
+            puts.increment();
+            valueSize.record(bytes);
+        }
+
+        void evictions(int keys) {
+            evictions.increment(keys);
+        }
+
+        Timer load() {
+            return load;
+        }
+
+        void redisError(String operation) {
+            errors.computeIfAbsent(operation, op -> Counter.builder("app.cache.redis.errors")
+                    .tag("cache", cache).tag("operation", op).register(registry)).increment();
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(
+                    (long) localHits.count(),
+                    (long) redisHits.count(),
+                    (long) misses.count(),
+                    (long) puts.count(),
+                    (long) evictions.count(),
+                    load.count(),
+                    load.mean(TimeUnit.MILLISECONDS),
+                    load.max(TimeUnit.MILLISECONDS),
+                    valueSize.mean(),
+                    valueSize.max(),
+                    (long) errors.values().stream().mapToDouble(Counter::count).sum());
+        }
+    }
+
+    // Valores acumulados desde el arranque del nodo, para el endpoint cachestats
+    public record Snapshot(long localHits, long redisHits, long misses, long puts, long evictions,
+                           long loads, double loadMeanMs, double loadMaxMs,
+                           double valueSizeMean, double valueSizeMax, long redisErrors) {}
+}
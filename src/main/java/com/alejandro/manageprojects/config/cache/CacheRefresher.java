@@ -0,0 +1,100 @@
+package com.alejandro.manageprojects.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Cargas sin caché por nombre de caché, registradas por los servicios, para recargar una entrada fuera de la
+ * petición que la lee: refresco anticipado de claves calientes antes de que caduquen y precalentamiento al arrancar.
+ * Cada carga se ejecuta en una transacción de solo lectura; una carga que devuelve null elimina la entrada.
+ */
+@Slf4j
+public class CacheRefresher implements DisposableBean {
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private final Map<String, Function<String, Object>> loaders = new ConcurrentHashMap<>();
+    // Recargas en curso o en cola ("cache::clave"): una sola por clave
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final TransactionTemplate readOnly;
+    private final ThreadPoolExecutor executor;
+
+    public CacheRefresher(PlatformTransactionManager transactionManager, CacheSettings settings) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        int threads = settings.getRefresh().getThreads();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "cache-refresh-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Registra la carga de las entradas de una caché a partir de su clave (ya normalizada a String).
+     */
+    public void register(String cache, Function<String, Object> loader) {
+        loaders.put(cache, loader);
+    }
+
+    public boolean hasLoader(String cache) {
+        return loaders.containsKey(cache);
+    }
+
+    public Set<String> cacheNames() {
+        return loaders.keySet();
+    }
+
+    // Recarga en segundo plano; si la cola está llena se descarta (la entrada caducará y se cargará al leerla)
+    void refreshAsync(TwoLevelCache cache, String key) {
+        String id = cache.getName() + "::" + key;
+        if (!pending.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    reload(cache, key);
+                } catch (RuntimeException e) {
+                    log.warn("[CacheRefresher] refreshAsync - No se pudo recargar {}: {}", id, e.getMessage());
+                } finally {
+                    pending.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(id);
+        }
+    }
+
+    void reload(TwoLevelCache cache, String key) {
+        Function<String, Object> loader = loaders.get(cache.getName());
+        if (loader == null) {
+            return;
+        }
+        Object value = cache.metrics().load().record(() -> readOnly.execute(status -> loader.apply(key)));
+        if (value == null) {
+            cache.evict(key);
+        } else {
+            cache.put(key, value);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.alejandro.manageprojects.config.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de la caché en dos niveles (app.cache): valores por defecto y ajustes por nombre de caché.
+ * Un ajuste no informado en app.cache.caches.&lt;nombre&gt; hereda el valor por defecto.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSettings {
+
+    // TTL de las entradas en Redis
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // Canal pub/sub por el que los nodos se avisan de invalidaciones de la caché local
+    private String invalidationChannel = "cache:invalidation";
+
+    // Formato de los valores en Redis y tamaño a partir del cual se comprimen con LZ4 (negativo: nunca)
+    private CacheValueSerializer.Format serializer = CacheValueSerializer.Format.SMILE;
+    private DataSize compressThreshold = DataSize.ofKilobytes(4);
+
+    private Local local = new Local();
+
+    private Map<String, Spec> caches = new HashMap<>();
+
+    private Refresh refresh = new Refresh();
+
+    private WarmUp warmUp = new WarmUp();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Data
+    public static class Local {
+        private boolean enabled = true;
+        // Peso máximo por caché: suma de los tamaños serializados de sus valores
+        private DataSize maxWeight = DataSize.ofMegabytes(32);
+        // Acota la obsolescencia si se pierde un mensaje de invalidación
+        private Duration ttl = Duration.ofMinutes(2);
+    }
+
+    // Refresco anticipado de las entradas leídas con frecuencia, para las cachés con carga registrada en CacheRefresher
+    @Data
+    public static class Refresh {
+        private boolean enabled = true;
+        // Tramo final del TTL en Redis en el que una entrada caliente se recarga en segundo plano
+        private double aheadRatio = 0.2;
+        // Lecturas locales desde la última escritura a partir de las cuales la entrada es caliente
+        private int minHits = 3;
+        private int threads = 2;
+    }
+
+    // Precarga al arrancar de las claves más leídas según los contadores de acceso guardados en Redis
+    @Data
+    public static class WarmUp {
+        private boolean enabled = true;
+        private int topKeys = 100;
+        // Tiempo máximo de la precarga; la instancia no se declara lista hasta que termina
+        private Duration timeout = Duration.ofSeconds(30);
+        private Duration statsFlush = Duration.ofMinutes(1);
+        private Duration statsTtl = Duration.ofDays(7);
+    }
+
+    // Circuito ante fallos de Redis (RedisCircuitBreaker)
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        // Fallos seguidos que abren el circuito
+        private int failureThreshold = 5;
+        // Cada cuánto se comprueba Redis con el circuito abierto (y se reintentan las invalidaciones pendientes)
+        private Duration probeInterval = Duration.ofSeconds(5);
+        // Con el circuito abierto se sigue usando el nivel local; si no, la caché se salta por completo
+        private boolean localFallback = true;
+    }
+
+    @Data
+    public static class Spec {
+        private Duration ttl;
+        private CacheValueSerializer.Format serializer;
+        private DataSize compressThreshold;
+        private Boolean localEnabled;
+        private DataSize localMaxWeight;
+        private Duration localTtl;
+        // Lease en Redis para que un solo nodo recalcule la clave tras un fallo; sin valor no hay lease
+        private Duration lease;
+    }
+
+    public Duration ttl(String cache) {
+        Spec spec = caches.get(cache);
+        return spec != null && spec.getTtl() != null ? spec.getTtl() : ttl;
+    }
+
+    public CacheValueSerializer.Format serializer(String cache) {
+        Spec spec = caches.get(cache);
+        return spec != null && spec.getSerializer() != null ? spec.getSerializer() : serializer;
+    }
+
+    public DataSize compressThreshold(String cache) {
+        Spec spec = caches.get(cache);
+        return spec != null && spec.getCompressThreshold() != null ? spec.getCompressThreshold() : compressThreshold;
+    }
+
+    public boolean localEnabled(String cache) {
+        Spec spec = caches.get(cache);
+        return spec != null && spec.getLocalEnabled() != null ? spec.getLocalEnabled() : local.isEnabled();
+    }
+
+    public DataSize localMaxWeight(String cache) {
+        Spec spec = caches.get(cache);
+        return spec != null && spec.getLocalMaxWeight() != null ? spec.getLocalMaxWeight() : local.getMaxWeight();
+    }
+
+    public Duration localTtl(String cache) {
+        Spec spec = caches.get(cache);
+        return spec != null && spec.getLocalTtl() != null ? spec.getLocalTtl() : local.getTtl();
+    }
+
+    public Duration lease(String cache) {
+        Spec spec = caches.get(cache);
+        return spec != null ? spec.getLease() : null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.alejandro.manageprojects.config.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * /actuator/cachestats: contadores de cada caché en este nodo y sus claves principales.
+ * topBySize y topByLocalHits salen del primer nivel local; topByAccess son los accesos acumulados por todos los nodos
+ * en cachestats:&lt;caché&gt; (solo las cachés con carga registrada, las que se precargan).
+ */
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    private static final int DEFAULT_TOP = 20;
+
+    private final TwoLevelCacheManager cacheManager;
+    private final RedisCacheStore store;
+    private final CacheRefresher refresher;
+
+    public CacheStatsEndpoint(TwoLevelCacheManager cacheManager, RedisCacheStore store, CacheRefresher refresher) {
+        this.cacheManager = cacheManager;
+        this.store = store;
+        this.refresher = refresher;
+    }
+
+    @ReadOperation
+    public Map<String, CacheMetrics.Snapshot> caches() {
+        Map<String, CacheMetrics.Snapshot> result = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            result.put(name, ((TwoLevelCache) cacheManager.getCache(name)).metrics().snapshot());
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public CacheDetail cache(@Selector String name, @Nullable Integer top) {
+        if (!cacheManager.getCacheNames().contains(name)) {
+            return null;
+        }
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(name);
+        int count = top == null || top <= 0 ? DEFAULT_TOP : top;
+        Map<String, Long> topByAccess;
+        try {
+            topByAccess = refresher.hasLoader(name) ? store.topMembers(CacheWarmUp.statsKey(name), count) : Map.of();
+        } catch (RuntimeException e) {
+            topByAccess = Map.of();
+        }
+        return new CacheDetail(name, cache.metrics().snapshot(), cache.topLocalBySize(count), cache.topLocalByHits(count), topByAccess);
+    }
+
+    public record CacheDetail(String name, CacheMetrics.Snapshot stats,
+                              Map<String, Integer> topBySize,
+                              Map<String, Integer> topByLocalHits,
+                              Map<String, Long> topByAccess) {}
+}
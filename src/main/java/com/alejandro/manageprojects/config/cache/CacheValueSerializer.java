@@ -0,0 +1,132 @@
+package com.alejandro.manageprojects.config.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serializador de valores de caché con formato seleccionable (JSON o Smile) y compresión LZ4 por encima de un umbral.
+ * Ambos formatos llevan la misma información de tipo que GenericJackson2JsonRedisSerializer (propiedad @class).
+ * La lectura reconoce el formato por los primeros bytes: las entradas escritas con otro formato o sin comprimir
+ * siguen siendo legibles al cambiar la configuración de una caché.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    public enum Format { JSON, SMILE }
+
+    // Cabecera de un valor comprimido: marca y longitud sin comprimir. Un documento JSON o Smile nunca empieza por 0xF4
+    private static final byte LZ4_MAGIC = (byte) 0xF4;
+    private static final int LZ4_HEADER = 1 + Integer.BYTES;
+
+    private static final ObjectMapper JSON = typedMapper(new ObjectMapper());
+    // Smile con cabecera (":)\n") para reconocerlo y con valores cortos compartidos: los nombres de clase de @class
+    // se escriben una vez por documento y después como referencia
+    private static final ObjectMapper SMILE = typedMapper(new SmileMapper(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.WRITE_HEADER)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build()));
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final Format format;
+    private final ObjectMapper writer;
+    private final int compressThreshold;
+
+    /**
+     * @param compressThreshold tamaño a partir del cual se comprime; null o negativo desactiva la compresión
+     */
+    public CacheValueSerializer(Format format, DataSize compressThreshold) {
+        this.format = format;
+        this.writer = format == Format.SMILE ? SMILE : JSON;
+        this.compressThreshold = compressThreshold == null || compressThreshold.isNegative()
+                ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, compressThreshold.toBytes());
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes;
+        try {
+            bytes = writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo serializar el valor de caché", e);
+        }
+        return bytes.length >= compressThreshold ? compress(bytes) : bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte[] raw = bytes[0] == LZ4_MAGIC ? decompress(bytes) : bytes;
+        try {
+            // Lectura directa con tipado por defecto, sin el árbol previo que GenericJackson2JsonRedisSerializer
+            // construye para localizar @class
+            return (isSmile(raw) ? SMILE : JSON).readValue(raw, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo deserializar el valor de caché", e);
+        }
+    }
+
+    // Solo se guarda comprimido si ocupa menos
+    private static byte[] compress(byte[] bytes) {
+        byte[] out = new byte[LZ4_HEADER + COMPRESSOR.maxCompressedLength(bytes.length)];
+        int length = COMPRESSOR.compress(bytes, 0, bytes.length, out, LZ4_HEADER);
+        if (LZ4_HEADER + length >= bytes.length) {
+            return bytes;
+        }
+        ByteBuffer.wrap(out).put(LZ4_MAGIC).putInt(bytes.length);
+        byte[] result = new byte[LZ4_HEADER + length];
+        System.arraycopy(out, 0, result, 0, result.length);
+        return result;
+    }
+
+    private static byte[] decompress(byte[] bytes) {
+        int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+        byte[] out = new byte[length];
+        int written = DECOMPRESSOR.decompress(bytes, LZ4_HEADER, bytes.length - LZ4_HEADER, out, 0, length);
+        if (written != length) {
+            throw new SerializationException("Valor LZ4 truncado: " + written + " de " + length + " bytes");
+        }
+        return out;
+    }
+
+    private static boolean isSmile(byte[] bytes) {
+        return bytes.length >= 3 && bytes[0] == ':' && bytes[1] == ')' && bytes[2] == '\n';
+    }
+
+    // Mismo tipado que GenericJackson2JsonRedisSerializer, que lo registra sobre el mapper que recibe
+    private static ObjectMapper typedMapper(ObjectMapper mapper) {
+        AtomicReference<ObjectMapper> configured = new AtomicReference<>();
+        GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(mapper)
+                .defaultTyping(true)
+                .build()
+                .configure(m -> configured.set(m
+                        .registerModule(new JavaTimeModule())
+                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)));
+        return configured.get();
+    }
+}
@@ -0,0 +1,105 @@
+package com.alejandro.manageprojects.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estadísticas de acceso por clave y precalentamiento al arrancar.
+ * Los accesos de las cachés con carga registrada se vuelcan periódicamente a un ZSET por caché (cachestats:&lt;caché&gt;)
+ * compartido por todos los nodos. Al arrancar se cargan las claves más leídas que no estén ya en Redis; como se hace
+ * en un ApplicationRunner, la instancia no pasa a lista (readiness) hasta terminar o agotar el tiempo máximo.
+ */
+@Slf4j
+public class CacheWarmUp implements ApplicationRunner, DisposableBean {
+
+    private static final String STATS_PREFIX = "cachestats:";
+
+    private final TwoLevelCacheManager cacheManager;
+    private final RedisCacheStore store;
+    private final CacheRefresher refresher;
+    private final CacheSettings.WarmUp settings;
+    private final ScheduledExecutorService flusher;
+
+    public CacheWarmUp(TwoLevelCacheManager cacheManager, RedisCacheStore store, CacheRefresher refresher, CacheSettings settings) {
+        this.cacheManager = cacheManager;
+        this.store = store;
+        this.refresher = refresher;
+        this.settings = settings.getWarmUp();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-stats-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = this.settings.getStatsFlush().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushStats, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + settings.getTimeout().toMillis();
+        int loaded = 0;
+        for (String name : refresher.cacheNames()) {
+            TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(name);
+            Collection<String> keys;
+            try {
+                keys = store.topMembers(statsKey(name), settings.getTopKeys()).keySet();
+            } catch (RuntimeException e) {
+                log.warn("[CacheWarmUp] run - Sin estadísticas de {}: {}", name, e.getMessage());
+                continue;
+            }
+            for (String key : keys) {
+                if (System.currentTimeMillis() > deadline) {
+                    log.warn("[CacheWarmUp] run - Tiempo agotado tras precargar {} entradas", loaded);
+                    return;
+                }
+                try {
+                    // Las entradas que ya están en Redis solo pasan al nivel local
+                    if (cache.lookup(key) == null) {
+                        refresher.reload(cache, key);
+                    }
+                    loaded++;
+                } catch (RuntimeException e) {
+                    log.warn("[CacheWarmUp] run - No se pudo precargar {}::{}: {}", name, key, e.getMessage());
+                }
+            }
+        }
+        log.info("[CacheWarmUp] run - {} entradas precargadas en {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    void flushStats() {
+        for (String name : cacheManager.getCacheNames()) {
+            Map<String, Long> counts = ((TwoLevelCache) cacheManager.getCache(name)).drainAccessCounts();
+            if (counts.isEmpty()) {
+                continue;
+            }
+            try {
+                store.incrementScores(statsKey(name), counts, settings.getStatsTtl());
+            } catch (RuntimeException e) {
+                log.warn("[CacheWarmUp] flushStats - No se pudieron guardar los accesos de {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdownNow();
+        flushStats();
+    }
+
+    static byte[] statsKey(String cache) {
+        return (STATS_PREFIX + cache).getBytes(StandardCharsets.UTF_8);
+    }
+}
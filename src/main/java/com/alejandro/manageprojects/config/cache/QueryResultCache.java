@@ -0,0 +1,140 @@
+package com.alejandro.manageprojects.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados de consultas filtradas con espacios de nombres versionados.
+ * Cada entidad tiene un contador de generación en Redis (cachegen:&lt;entidad&gt;) que las escrituras incrementan
+ * con INCR tras el commit. La clave de un resultado lleva las generaciones de las entidades de las que depende,
+ * así que una escritura deja inalcanzables los resultados anteriores sin recorrer claves: caducan por TTL.
+ * Los INCR que fallan se reintentan cuando RedisCircuitBreaker da Redis por recuperado.
+ */
+@Slf4j
+public class QueryResultCache {
+
+    private static final String GENERATION_PREFIX = "cachegen:";
+    private static final String SEP = "\u001F";
+
+    private final TwoLevelCacheManager cacheManager;
+    private final RedisCacheStore store;
+    private final Set<String> pendingBumps = ConcurrentHashMap.newKeySet();
+
+    public QueryResultCache(TwoLevelCacheManager cacheManager, RedisCacheStore store) {
+        this.cacheManager = cacheManager;
+        this.store = store;
+        store.getCircuitBreaker().addRecoveryAction(reconnected -> retryBumps());
+    }
+
+    /**
+     * Huella de los parámetros de una consulta (forma del filtro, valores, página, orden...).
+     * Los valores se toman por su toString, que es canónico para los tipos de los filtros.
+     */
+    public static String keyOf(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts) {
+            sb.append(part instanceof Object[] arr ? Arrays.deepToString(arr) : String.valueOf(part)).append(SEP);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Devuelve el resultado cacheado para la clave en la generación actual de las entidades o lo calcula con el loader.
+     * Si Redis falla se ejecuta la consulta sin caché.
+     *
+     * @param entities entidades de las que depende el resultado
+     * @param value    el valor cacheado debe poder leerse de vuelta de JSON (listas mutables, sin PageImpl)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, List<String> entities, String key, Supplier<T> loader) {
+        String versionedKey;
+        Cache.ValueWrapper cached;
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(cacheName);
+        try {
+            versionedKey = generations(entities) + ":" + key;
+            cached = cache.get(versionedKey);
+        } catch (RuntimeException e) {
+            log.warn("[QueryResultCache] get - Caché {} no disponible, se consulta sin caché: {}", cacheName, e.getMessage());
+            return loader.get();
+        }
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value = loader.get();
+        try {
+            cache.putImmutable(versionedKey, value);
+        } catch (RuntimeException e) {
+            log.warn("[QueryResultCache] get - No se pudo guardar en {}: {}", cacheName, e.getMessage());
+        }
+        return value;
+    }
+
+    /**
+     * Incrementa la generación de las entidades al confirmar la transacción en curso (o en el acto si no hay).
+     * Antes del commit una lectura concurrente podría guardar el estado anterior bajo la generación nueva.
+     */
+    public void invalidateAfterCommit(String... entities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(entities);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(entities);
+            }
+        });
+    }
+
+    private void bump(String... entities) {
+        try {
+            store.incr(Arrays.stream(entities).map(QueryResultCache::generationKey).toList());
+        } catch (RuntimeException e) {
+            // Sin el INCR los resultados anteriores seguirían visibles: se reintenta al recuperarse Redis
+            pendingBumps.addAll(Arrays.asList(entities));
+            log.error("[QueryResultCache] bump - No se pudo incrementar la generación de {}: {}", Arrays.toString(entities), e.getMessage());
+        }
+    }
+
+    private void retryBumps() {
+        if (pendingBumps.isEmpty()) {
+            return;
+        }
+        List<String> entities = List.copyOf(pendingBumps);
+        store.incr(entities.stream().map(QueryResultCache::generationKey).toList());
+        entities.forEach(pendingBumps::remove);
+        log.info("[QueryResultCache] retryBumps - Generaciones incrementadas tras el fallo de Redis: {}", entities);
+    }
+
+    // "3.17.0": generaciones en el orden de entities, 0 si el contador aún no existe
+    private String generations(List<String> entities) {
+        List<byte[]> values = store.mget(entities.stream().map(QueryResultCache::generationKey).toList());
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < entities.size(); i++) {
+            byte[] v = values == null ? null : values.get(i);
+            sb.append(i == 0 ? "" : ".").append(v == null ? "0" : new String(v, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] generationKey(String entity) {
+        return (GENERATION_PREFIX + entity).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,222 @@
+package com.alejandro.manageprojects.config.cache;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Segundo nivel de la caché: operaciones sobre Redis con valores ya serializados.
+ * Las claves siguen el formato de RedisCacheManager ("nombre::clave"), compatible con las entradas existentes.
+ * Todas las operaciones pasan por el RedisCircuitBreaker: con el circuito abierto fallan en el acto con
+ * RedisUnavailableException, sin esperar al timeout de Redis.
+ */
+public class RedisCacheStore {
+
+    private static final int SCAN_BATCH = 500;
+    private static final byte[] RELEASE_LEASE = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end"
+            .getBytes(StandardCharsets.UTF_8);
+    // SADD al índice de dependencias alargando su TTL, nunca acortándolo: lo comparten cachés con TTL distintos
+    // (PEXPIRE GT requiere Redis 7)
+    private static final byte[] ADD_DEPENDENCY = ("redis.call('sadd', KEYS[1], ARGV[1]) "
+            + "if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then redis.call('pexpire', KEYS[1], ARGV[2]) end return 0")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public RedisCacheStore(RedisConnectionFactory connectionFactory, RedisCircuitBreaker circuitBreaker) {
+        this.connectionFactory = connectionFactory;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public static byte[] key(String cache, String key) {
+        return (cache + "::" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public RedisCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public byte[] get(byte[] key) {
+        return execute(connection -> connection.stringCommands().get(key));
+    }
+
+    // Valor y milisegundos de vida restantes (-1 sin caducidad), en una sola ida y vuelta
+    public record Stored(byte[] value, long ttlMillis) {}
+
+    public Stored getWithTtl(byte[] key) {
+        return execute(connection -> {
+            connection.openPipeline();
+            connection.stringCommands().get(key);
+            connection.keyCommands().pTtl(key);
+            List<Object> results = connection.closePipeline();
+            byte[] value = (byte[]) results.get(0);
+            return value == null ? null : new Stored(value, (Long) results.get(1));
+        });
+    }
+
+    public List<byte[]> mget(List<byte[]> keys) {
+        return execute(connection -> connection.stringCommands().mGet(keys.toArray(byte[][]::new)));
+    }
+
+    // INCR de varios contadores en un único pipeline
+    public void incr(Collection<byte[]> keys) {
+        pipelined(connection -> keys.forEach(k -> connection.stringCommands().incr(k)));
+    }
+
+    public void put(byte[] key, byte[] value, Duration ttl) {
+        execute(connection -> connection.stringCommands().set(key, value, Expiration.from(ttl), RedisStringCommands.SetOption.upsert()));
+    }
+
+    // SET del valor y, en el mismo pipeline, SADD de la clave en cada conjunto del índice de dependencias con al menos dependencyTtl
+    public void put(byte[] key, byte[] value, Duration ttl, Collection<byte[]> dependencyKeys, Duration dependencyTtl) {
+        if (dependencyKeys.isEmpty()) {
+            put(key, value, ttl);
+            return;
+        }
+        pipelined(connection -> {
+            connection.stringCommands().set(key, value, Expiration.from(ttl), RedisStringCommands.SetOption.upsert());
+            for (byte[] dependencyKey : dependencyKeys) {
+                connection.scriptingCommands().eval(ADD_DEPENDENCY, ReturnType.INTEGER, 1, dependencyKey, key,
+                        Long.toString(dependencyTtl.toMillis()).getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    // SMEMBERS y DEL de cada conjunto en un único pipeline: devuelve la unión de los miembros
+    public Set<String> popMembers(Collection<byte[]> keys) {
+        if (keys.isEmpty()) return Set.of();
+        List<Object> results = execute(connection -> {
+            connection.openPipeline();
+            keys.forEach(k -> connection.setCommands().sMembers(k));
+            connection.keyCommands().del(keys.toArray(byte[][]::new));
+            return connection.closePipeline();
+        });
+        Set<String> members = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (results.get(i) instanceof Set<?> set) {
+                set.forEach(m -> members.add(new String((byte[]) m, StandardCharsets.UTF_8)));
+            }
+        }
+        return members;
+    }
+
+    // Un único DEL con todas las claves
+    public long delete(Collection<byte[]> keys) {
+        if (keys.isEmpty()) return 0;
+        return execute(connection -> {
+            Long deleted = connection.keyCommands().del(keys.toArray(byte[][]::new));
+            return deleted == null ? 0L : deleted;
+        });
+    }
+
+    // Borra las claves de una caché recorriendo con SCAN (sin KEYS, que bloquea el servidor)
+    public long clear(String cache) {
+        return execute(connection -> {
+            long deleted = 0;
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(ScanOptions.scanOptions().match(cache + "::*").count(SCAN_BATCH).build())) {
+                List<byte[]> batch = new ArrayList<>(SCAN_BATCH);
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() == SCAN_BATCH) {
+                        deleted += connection.keyCommands().del(batch.toArray(byte[][]::new));
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    deleted += connection.keyCommands().del(batch.toArray(byte[][]::new));
+                }
+            }
+            return deleted;
+        });
+    }
+
+    // DEL de claves de varias cachés y sus avisos de invalidación en un único pipeline
+    public void deleteAndPublish(Collection<byte[]> keys, String channel, List<byte[]> messages) {
+        byte[] ch = channel.getBytes(StandardCharsets.UTF_8);
+        pipelined(connection -> {
+            if (!keys.isEmpty()) {
+                connection.keyCommands().del(keys.toArray(byte[][]::new));
+            }
+            messages.forEach(m -> connection.publish(ch, m));
+        });
+    }
+
+    // SET NX PX: true si el lease estaba libre y ahora es nuestro
+    public boolean tryLease(byte[] key, byte[] token, Duration ttl) {
+        return execute(connection -> Boolean.TRUE.equals(
+                connection.stringCommands().set(key, token, Expiration.from(ttl), RedisStringCommands.SetOption.ifAbsent())));
+    }
+
+    // Libera el lease solo si sigue siendo nuestro (pudo caducar y tomarlo otro nodo)
+    public void releaseLease(byte[] key, byte[] token) {
+        execute(connection -> connection.scriptingCommands().eval(RELEASE_LEASE, ReturnType.INTEGER, 1, key, token));
+    }
+
+    // ZINCRBY de varios miembros y renovación del TTL del conjunto en un único pipeline
+    public void incrementScores(byte[] key, Map<String, Long> deltas, Duration ttl) {
+        pipelined(connection -> {
+            deltas.forEach((member, delta) -> connection.zSetCommands().zIncrBy(key, delta, member.getBytes(StandardCharsets.UTF_8)));
+            connection.keyCommands().pExpire(key, ttl.toMillis());
+        });
+    }
+
+    // Miembros y puntuaciones de mayor a menor
+    public Map<String, Long> topMembers(byte[] key, int count) {
+        return execute(connection -> {
+            Set<Tuple> members = connection.zSetCommands().zRevRangeWithScores(key, 0, count - 1);
+            Map<String, Long> top = new LinkedHashMap<>();
+            if (members != null) {
+                members.forEach(m -> top.put(new String(m.getValue(), StandardCharsets.UTF_8), m.getScore().longValue()));
+            }
+            return top;
+        });
+    }
+
+    public void publish(String channel, byte[] message) {
+        execute(connection -> connection.publish(channel.getBytes(StandardCharsets.UTF_8), message));
+    }
+
+    private void pipelined(Consumer<RedisConnection> commands) {
+        execute(connection -> {
+            connection.openPipeline();
+            try {
+                commands.accept(connection);
+            } finally {
+                connection.closePipeline();
+            }
+            return null;
+        });
+    }
+
+    // Solo los errores de acceso a Redis (conexión, timeout, comando) cuentan como fallo del circuito
+    private <T> T execute(Function<RedisConnection, T> action) {
+        circuitBreaker.acquire();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            T result = action.apply(connection);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (DataAccessException e) {
+            circuitBreaker.onFailure(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.alejandro.manageprojects.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Estado de Redis visto por la caché. Tras failure-threshold fallos seguidos el circuito se abre y las operaciones
+ * fallan en el acto (RedisUnavailableException) en lugar de esperar el timeout de cada llamada. Mientras está abierto,
+ * un hilo en segundo plano hace PING cada probe-interval; cuando responde, el circuito pasa a HALF_OPEN, se ejecuta
+ * la recuperación registrada (invalidar lo que cambió durante el corte) y, si va bien, se cierra.
+ * Con el circuito cerrado la misma sonda reintenta las invalidaciones que fallaron por errores sueltos.
+ * El estado se publica en app.cache.redis.circuit.state (0 CLOSED, 1 OPEN, 2 HALF_OPEN) y cada cambio en
+ * app.cache.redis.circuit.transitions (tags from y to).
+ */
+@Slf4j
+public class RedisCircuitBreaker implements DisposableBean {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheSettings.CircuitBreaker settings;
+    private final MeterRegistry registry;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final Counter rejected;
+    private final ScheduledExecutorService prober;
+    private final List<RecoveryAction> recoveryActions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Trabajo que quedó pendiente por un fallo de Redis (evicciones, generaciones...). Se reintenta en cada
+     * sonda con el circuito cerrado y, tras un corte, antes de cerrarlo (reconnected = true).
+     */
+    public interface RecoveryAction {
+        void recover(boolean reconnected);
+    }
+
+    public RedisCircuitBreaker(RedisConnectionFactory connectionFactory, CacheSettings settings, MeterRegistry registry) {
+        this.connectionFactory = connectionFactory;
+        this.settings = settings.getCircuitBreaker();
+        this.registry = registry;
+        Gauge.builder("app.cache.redis.circuit.state", state, s -> s.get().ordinal()).register(registry);
+        this.rejected = Counter.builder("app.cache.redis.circuit.rejected").register(registry);
+        this.prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redis-circuit-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = this.settings.getProbeInterval().toMillis();
+        prober.scheduleWithFixedDelay(this::probe, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public void addRecoveryAction(RecoveryAction action) {
+        recoveryActions.add(action);
+    }
+
+    void acquire() {
+        if (settings.isEnabled() && state.get() == State.OPEN) {
+            rejected.increment();
+            throw new RedisUnavailableException();
+        }
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    void onFailure(Exception e) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (state.get() == State.HALF_OPEN) {
+            transition(State.HALF_OPEN, State.OPEN, e);
+        } else if (consecutiveFailures.incrementAndGet() >= settings.getFailureThreshold()) {
+            transition(State.CLOSED, State.OPEN, e);
+        }
+    }
+
+    private void probe() {
+        if (state.get() == State.CLOSED) {
+            try {
+                recover(false);
+            } catch (RuntimeException e) {
+                log.debug("[RedisCircuitBreaker] probe - Quedan invalidaciones pendientes: {}", e.getMessage());
+            }
+            return;
+        }
+        if (state.get() != State.OPEN) {
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.ping();
+        } catch (RuntimeException e) {
+            log.debug("[RedisCircuitBreaker] probe - Redis sigue sin responder: {}", e.getMessage());
+            return;
+        }
+        if (!transition(State.OPEN, State.HALF_OPEN, null)) {
+            return;
+        }
+        try {
+            recover(true);
+            consecutiveFailures.set(0);
+            transition(State.HALF_OPEN, State.CLOSED, null);
+        } catch (RuntimeException e) {
+            transition(State.HALF_OPEN, State.OPEN, e);
+        }
+    }
+
+    private void recover(boolean reconnected) {
+        for (RecoveryAction action : recoveryActions) {
+            action.recover(reconnected);
+        }
+    }
+
+    private boolean transition(State from, State to, Exception cause) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        if (to == State.OPEN) {
+            log.warn("[RedisCircuitBreaker] transition - {} -> OPEN, la caché trabaja sin Redis: {}", from, cause == null ? "-" : cause.getMessage());
+        } else {
+            log.info("[RedisCircuitBreaker] transition - {} -> {}", from, to);
+        }
+        Counter.builder("app.cache.redis.circuit.transitions")
+                .tag("from", from.name()).tag("to", to.name())
+                .register(registry)
+                .increment();
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        prober.shutdownNow();
+    }
+}
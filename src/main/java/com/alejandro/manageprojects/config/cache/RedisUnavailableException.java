@@ -0,0 +1,13 @@
+package com.alejandro.manageprojects.config.cache;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Operación de caché rechazada sin llegar a Redis porque el circuito está abierto.
+ */
+public class RedisUnavailableException extends DataAccessResourceFailureException {
+
+    public RedisUnavailableException() {
+        super("Redis no disponible: circuito abierto");
+    }
+}
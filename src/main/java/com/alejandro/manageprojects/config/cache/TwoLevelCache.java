@@ -0,0 +1,504 @@
+package com.alejandro.manageprojects.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessException;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Caché en dos niveles: una caché local acotada por peso (Caffeine, W-TinyLFU) delante de Redis.
+ * Las lecturas resuelven primero en local; las escrituras van a Redis y avisan al resto de nodos para que
+ * descarten su copia local. Las claves se normalizan a String para que un id Long y su texto coincidan
+ * en local igual que en Redis.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final String LEASE_PREFIX = "lease:";
+    private static final Duration LEASE_POLL = Duration.ofMillis(50);
+
+    // Claves distintas con contador de acceso entre dos volcados a Redis (CacheWarmUp)
+    private static final int MAX_TRACKED_KEYS = 10_000;
+    // Evicciones pendientes de aplicar en Redis; por encima se vacía la caché entera al recuperarse
+    private static final int MAX_PENDING_EVICTIONS = 10_000;
+    // Listas completas: se indexan por tipo de entidad, no por cada id (CacheDependencies)
+    private static final String ALL_SUFFIX = "_all";
+
+    // Valor local junto con su tamaño serializado (peso para Caffeine), la caducidad de la entrada en Redis
+    // (epoch en ms) y las lecturas locales desde que se escribió, para el refresco anticipado y cachestats
+    private record LocalEntry(Object value, int weight, long expiresAt, AtomicInteger hits) {
+        LocalEntry(Object value, int weight, long expiresAt) {
+            this(value, weight, expiresAt, new AtomicInteger());
+        }
+    }
+
+    private final String name;
+    private final RedisCacheStore store;
+    private final RedisSerializer<Object> serializer;
+    private final Duration ttl;
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local;
+    private final CacheInvalidationBus invalidationBus;
+    private final Duration lease;
+    private final CacheRefresher refresher;
+    private final boolean refreshEnabled;
+    private final long refreshWindowMillis;
+    private final int refreshMinHits;
+    private final CacheMetrics.Meters meters;
+    private final CacheDependencies dependencies;
+    private final boolean indexByType;
+    private final Duration dependencyTtl;
+    private final boolean localFallback;
+    // Claves cuya escritura o evicción no llegó a Redis ni a los demás nodos (RedisCircuitBreaker)
+    private final Set<String> pendingEvictions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingClear = new AtomicBoolean();
+    private final Map<String, LongAdder> accessCounts = new ConcurrentHashMap<>();
+    // Cargas en curso por clave en este nodo (single-flight)
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String name,
+                         RedisCacheStore store,
+                         RedisSerializer<Object> serializer,
+                         CacheSettings settings,
+                         CacheInvalidationBus invalidationBus,
+                         CacheRefresher refresher,
+                         CacheMetrics.Meters meters,
+                         CacheDependencies dependencies) {
+        this.name = name;
+        this.store = store;
+        this.serializer = serializer;
+        this.ttl = settings.ttl(name);
+        this.invalidationBus = invalidationBus;
+        this.lease = settings.lease(name);
+        this.refresher = refresher;
+        this.refreshEnabled = settings.getRefresh().isEnabled() && settings.localEnabled(name);
+        this.refreshWindowMillis = (long) (ttl.toMillis() * settings.getRefresh().getAheadRatio());
+        this.refreshMinHits = settings.getRefresh().getMinHits();
+        this.meters = meters;
+        this.dependencies = dependencies;
+        this.indexByType = name.endsWith(ALL_SUFFIX);
+        this.dependencyTtl = ttl;
+        this.localFallback = settings.getCircuitBreaker().isLocalFallback();
+        this.local = settings.localEnabled(name)
+                ? Caffeine.newBuilder()
+                        .maximumWeight(settings.localMaxWeight(name).toBytes())
+                        .weigher((String k, LocalEntry e) -> e.weight())
+                        .expireAfterWrite(settings.localTtl(name))
+                        .build()
+                : null;
+        if (local != null) {
+            meters.local(local);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String k = String.valueOf(key);
+        recordAccess(k);
+        return read(k, true);
+    }
+
+    // Lectura sin contar el acceso ni el acierto
+    ValueWrapper lookup(String key) {
+        return read(key, false);
+    }
+
+    private ValueWrapper read(String key, boolean record) {
+        if (localUsable()) {
+            LocalEntry entry = local.getIfPresent(key);
+            if (entry != null) {
+                if (record) {
+                    meters.localHit();
+                }
+                refreshIfHot(key, entry, entry.hits().incrementAndGet());
+                return new SimpleValueWrapper(entry.value());
+            }
+        }
+        byte[] redisKey = RedisCacheStore.key(name, key);
+        RedisCacheStore.Stored stored;
+        try {
+            if (refreshEnabled && refresher.hasLoader(name)) {
+                stored = store.getWithTtl(redisKey);
+            } else {
+                byte[] bytes = store.get(redisKey);
+                stored = bytes == null ? null : new RedisCacheStore.Stored(bytes, -1);
+            }
+        } catch (DataAccessException e) {
+            // Sin Redis la lectura cuenta como fallo de caché y se carga de la base de datos
+            redisFailed("get", e);
+            stored = null;
+        }
+        if (stored == null) {
+            if (record) {
+                meters.miss();
+            }
+            return null;
+        }
+        if (record) {
+            meters.redisHit();
+        }
+        Object value = serializer.deserialize(stored.value());
+        if (localUsable()) {
+            long expiresAt = stored.ttlMillis() > 0 ? System.currentTimeMillis() + stored.ttlMillis() : Long.MAX_VALUE;
+            local.put(key, new LocalEntry(value, stored.value().length, expiresAt));
+        }
+        return new SimpleValueWrapper(value);
+    }
+
+    // Entrada leída con frecuencia en el tramo final de su TTL: se recarga en segundo plano antes de que caduque
+    private void refreshIfHot(String key, LocalEntry entry, int hits) {
+        if (!refreshEnabled || !refresher.hasLoader(name)) {
+            return;
+        }
+        if (hits >= refreshMinHits && entry.expiresAt() - System.currentTimeMillis() < refreshWindowMillis) {
+            refresher.refreshAsync(this, key);
+        }
+    }
+
+    // Solo se cuentan los accesos de las cachés que se pueden precargar
+    private void recordAccess(String key) {
+        if (!refresher.hasLoader(name)) {
+            return;
+        }
+        LongAdder counter = accessCounts.get(key);
+        if (counter == null) {
+            if (accessCounts.size() >= MAX_TRACKED_KEYS) {
+                return;
+            }
+            counter = accessCounts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    // Accesos por clave desde la última llamada
+    Map<String, Long> drainAccessCounts() {
+        Map<String, Long> drained = new HashMap<>();
+        for (String key : accessCounts.keySet()) {
+            LongAdder counter = accessCounts.remove(key);
+            if (counter != null) {
+                drained.put(key, counter.sum());
+            }
+        }
+        return drained;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("El valor cacheado no es del tipo " + type.getName() + ": " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Lectura con carga en caso de fallo (@Cacheable(sync = true)). Las peticiones concurrentes a la misma clave
+     * en este nodo esperan a una única carga; con lease configurado, además, un solo nodo recalcula la clave
+     * y el resto espera a encontrarla en Redis.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String k = String.valueOf(key);
+        ValueWrapper wrapper = get(k);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(k, load);
+        if (running != null) {
+            return (T) await(running);
+        }
+        try {
+            // Otra carga pudo terminar entre la primera lectura y el registro de esta
+            wrapper = lookup(k);
+            Object value = wrapper != null ? wrapper.get() : (lease != null ? loadWithLease(k, valueLoader) : load(k, valueLoader));
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(k, load);
+        }
+    }
+
+    private <T> T load(String key, Callable<T> valueLoader) {
+        T value;
+        long start = System.nanoTime();
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            meters.load().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        put(key, value);
+        return value;
+    }
+
+    private Object loadWithLease(String key, Callable<?> valueLoader) {
+        byte[] leaseKey = RedisCacheStore.key(LEASE_PREFIX + name, key);
+        byte[] token = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        long deadline = System.nanoTime() + lease.toNanos();
+        boolean acquired = false;
+        try {
+            while (!(acquired = store.tryLease(leaseKey, token, lease))) {
+                // Otro nodo está cargando: se espera a que publique el valor, como mucho lo que dura su lease
+                ValueWrapper wrapper = lookup(key);
+                if (wrapper != null) {
+                    return wrapper.get();
+                }
+                if (System.nanoTime() > deadline || !sleep(LEASE_POLL)) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            // Sin Redis no hay lease: este nodo carga por su cuenta
+            redisFailed("lease", e);
+        }
+        try {
+            return load(key, valueLoader);
+        } finally {
+            if (acquired) {
+                tryRedis("lease", () -> store.releaseLease(leaseKey, token));
+            }
+        }
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Las esperas reciben el mismo valor o la misma excepción que la carga en curso
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // Sin valores null, como la configuración anterior (disableCachingNullValues).
+    // La clave se añade al índice de dependencias de las entidades anidadas en el valor (de sus tipos, en las *_all)
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        String k = String.valueOf(key);
+        byte[] bytes = serializer.serialize(value);
+        List<byte[]> dependencyKeys = indexByType ? dependencies.typeKeysOf(value) : dependencies.keysOf(value);
+        boolean stored = tryRedis("put", () -> store.put(RedisCacheStore.key(name, k), bytes, ttl, dependencyKeys, dependencyTtl));
+        meters.put(bytes.length);
+        if (localUsable()) {
+            local.put(k, new LocalEntry(value, bytes.length, System.currentTimeMillis() + ttl.toMillis()));
+        }
+        // Si no llega a Redis, la copia anterior en Redis y en los demás nodos se invalida al recuperarse
+        if (!stored || !tryRedis("put", () -> invalidationBus.publish(name, List.of(k)))) {
+            markPending(List.of(k));
+        }
+    }
+
+    /**
+     * Escritura de un valor que nunca cambia para su clave (claves versionadas de QueryResultCache):
+     * ningún nodo puede tener otra copia, así que no se publica invalidación.
+     */
+    public void putImmutable(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        String k = String.valueOf(key);
+        byte[] bytes = serializer.serialize(value);
+        tryRedis("put", () -> store.put(RedisCacheStore.key(name, k), bytes, ttl));
+        meters.put(bytes.length);
+        if (localUsable()) {
+            local.put(k, new LocalEntry(value, bytes.length, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictAll(List.of(key));
+    }
+
+    /**
+     * Elimina varias claves con un único DEL en Redis y un único aviso a los demás nodos.
+     */
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) return;
+        List<String> ks = normalize(keys);
+        boolean deleted = tryRedis("evict", () -> store.delete(redisKeys(ks)));
+        evictLocal(ks);
+        meters.evictions(ks.size());
+        if (!deleted || !tryRedis("evict", () -> invalidationBus.publish(name, ks))) {
+            markPending(ks);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long deleted = 0;
+        boolean cleared;
+        try {
+            deleted = store.clear(name);
+            cleared = true;
+        } catch (DataAccessException e) {
+            redisFailed("clear", e);
+            cleared = false;
+        }
+        clearLocal();
+        meters.evictions((int) deleted);
+        if (!cleared || !tryRedis("clear", () -> invalidationBus.publish(name, null))) {
+            pendingClear.set(true);
+        }
+    }
+
+    void markPending(Collection<String> keys) {
+        if (pendingEvictions.size() + keys.size() > MAX_PENDING_EVICTIONS) {
+            pendingClear.set(true);
+        } else {
+            pendingEvictions.addAll(keys);
+        }
+    }
+
+    /**
+     * Aplica en Redis y en los demás nodos las evicciones que fallaron. Tras un corte (reconnected) se vacía además
+     * el nivel local, que pudo perder avisos de invalidación mientras Redis no estaba disponible.
+     */
+    void recover(boolean reconnected) {
+        if (reconnected) {
+            clearLocal();
+        }
+        if (pendingClear.getAndSet(false)) {
+            try {
+                store.clear(name);
+                invalidationBus.publish(name, null);
+                pendingEvictions.clear();
+            } catch (DataAccessException e) {
+                pendingClear.set(true);
+                throw e;
+            }
+            return;
+        }
+        if (pendingEvictions.isEmpty()) {
+            return;
+        }
+        List<String> keys = List.copyOf(pendingEvictions);
+        store.delete(redisKeys(keys));
+        invalidationBus.publish(name, keys);
+        keys.forEach(pendingEvictions::remove);
+    }
+
+    static List<String> normalize(Collection<?> keys) {
+        return keys.stream().map(String::valueOf).distinct().toList();
+    }
+
+    List<byte[]> redisKeys(Collection<String> keys) {
+        return keys.stream().map(k -> RedisCacheStore.key(name, k)).toList();
+    }
+
+    // Invalidaciones recibidas de otros nodos: solo afectan al primer nivel
+    void evictLocal(Collection<String> keys) {
+        if (local != null) {
+            local.invalidateAll(keys);
+        }
+    }
+
+    void clearLocal() {
+        if (local != null) {
+            local.invalidateAll();
+        }
+    }
+
+    CacheMetrics.Meters metrics() {
+        return meters;
+    }
+
+    // Claves locales con mayor tamaño serializado
+    Map<String, Integer> topLocalBySize(int count) {
+        return topLocal(count, LocalEntry::weight);
+    }
+
+    // Claves locales más leídas desde su última escritura
+    Map<String, Integer> topLocalByHits(int count) {
+        return topLocal(count, e -> e.hits().get());
+    }
+
+    private Map<String, Integer> topLocal(int count, ToIntFunction<LocalEntry> score) {
+        Map<String, Integer> top = new LinkedHashMap<>();
+        if (local != null) {
+            local.asMap().entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, LocalEntry> e) -> score.applyAsInt(e.getValue())).reversed())
+                    .limit(count)
+                    .forEach(e -> top.put(e.getKey(), score.applyAsInt(e.getValue())));
+        }
+        return top;
+    }
+
+    // Con el circuito abierto el nivel local solo se usa si local-fallback está activo
+    private boolean localUsable() {
+        return local != null && (localFallback || store.getCircuitBreaker().getState() == RedisCircuitBreaker.State.CLOSED);
+    }
+
+    // Operación en Redis que no debe fallar la petición: el error se cuenta y la caché sigue con el nivel local
+    private boolean tryRedis(String operation, Runnable call) {
+        try {
+            call.run();
+            return true;
+        } catch (DataAccessException e) {
+            redisFailed(operation, e);
+            return false;
+        }
+    }
+
+    // Las operaciones rechazadas con el circuito abierto no son errores de Redis (se cuentan en el circuito)
+    private void redisFailed(String operation, DataAccessException e) {
+        if (!(e instanceof RedisUnavailableException)) {
+            meters.redisError(operation);
+        }
+    }
+}
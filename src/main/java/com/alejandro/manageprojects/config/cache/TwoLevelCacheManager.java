@@ -0,0 +1,130 @@
+package com.alejandro.manageprojects.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * CacheManager de la caché en dos niveles. Las cachés se crean al primer uso con los ajustes de
+ * app.cache.caches.&lt;nombre&gt; y el serializador que devuelve la función para su nombre, y reciben las invalidaciones remotas del CacheInvalidationBus.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final RedisCacheStore store;
+    private final Function<String, RedisSerializer<Object>> serializers;
+    private final CacheSettings settings;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheRefresher refresher;
+    private final CacheMetrics metrics;
+    private final CacheDependencies dependencies;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheStore store,
+                                Function<String, RedisSerializer<Object>> serializers,
+                                CacheSettings settings,
+                                CacheInvalidationBus invalidationBus,
+                                CacheRefresher refresher,
+                                CacheMetrics metrics,
+                                CacheDependencies dependencies) {
+        this.store = store;
+        this.serializers = serializers;
+        this.settings = settings;
+        this.invalidationBus = invalidationBus;
+        this.refresher = refresher;
+        this.metrics = metrics;
+        this.dependencies = dependencies;
+        invalidationBus.onInvalidation(this::onRemoteInvalidation);
+        store.getCircuitBreaker().addRecoveryAction(this::recover);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(n, store, serializers.apply(n), settings, invalidationBus, refresher,
+                metrics.forCache(n), dependencies));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Evicción dirigida en varias cachés a la vez: un único DEL y los avisos a los demás nodos
+     * viajan en el mismo pipeline de Redis. Si Redis falla, las claves quedan pendientes en cada caché
+     * y se aplican al recuperarse.
+     */
+    public void evictAll(Map<String, ? extends Collection<?>> keysByCache) {
+        List<byte[]> redisKeys = new ArrayList<>();
+        List<byte[]> messages = new ArrayList<>();
+        keysByCache.forEach((name, keys) -> {
+            if (keys.isEmpty()) return;
+            TwoLevelCache cache = (TwoLevelCache) getCache(name);
+            List<String> ks = TwoLevelCache.normalize(keys);
+            cache.evictLocal(ks);
+            cache.metrics().evictions(ks.size());
+            redisKeys.addAll(cache.redisKeys(ks));
+            messages.add(invalidationBus.encode(name, ks));
+        });
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            store.deleteAndPublish(redisKeys, invalidationBus.getChannel(), messages);
+        } catch (DataAccessException e) {
+            keysByCache.forEach((name, keys) -> {
+                if (keys.isEmpty()) return;
+                TwoLevelCache cache = (TwoLevelCache) getCache(name);
+                cache.markPending(TwoLevelCache.normalize(keys));
+                if (!(e instanceof RedisUnavailableException)) {
+                    cache.metrics().redisError("evict");
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicta las entradas que contienen alguna de las entidades según el índice de dependencias (y las listas
+     * *_all que contienen ese tipo), y vacía esos índices: las entradas que se vuelvan a cachear se indexan de nuevo.
+     */
+    public void evictDependents(String entity, Collection<?> ids) {
+        List<byte[]> keys = new ArrayList<>();
+        ids.forEach(id -> keys.add(CacheDependencies.key(entity, id)));
+        keys.add(CacheDependencies.typeKey(entity));
+        Set<String> members = store.popMembers(keys);
+        Map<String, List<String>> keysByCache = new HashMap<>();
+        for (String member : members) {
+            int sep = member.indexOf("::");
+            if (sep > 0) {
+                keysByCache.computeIfAbsent(member.substring(0, sep), c -> new ArrayList<>()).add(member.substring(sep + 2));
+            }
+        }
+        evictAll(keysByCache);
+    }
+
+    private void recover(boolean reconnected) {
+        caches.values().forEach(cache -> cache.recover(reconnected));
+    }
+
+    private void onRemoteInvalidation(String cache, List<String> keys) {
+        TwoLevelCache target = caches.get(cache);
+        if (target == null) {
+            return;
+        }
+        if (keys == null) {
+            target.clearLocal();
+        } else {
+            target.evictLocal(keys);
+        }
+    }
+}
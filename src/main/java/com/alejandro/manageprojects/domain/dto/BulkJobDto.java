@@ -0,0 +1,28 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado y progreso de una operación masiva en segundo plano (/api/v1/jobs/{id}).
+ * total son las filas que cumplían el filtro al empezar; procesados, las afectadas por los bloques ya confirmados.
+ */
+@Data
+public class BulkJobDto {
+
+    public enum Estado { EN_COLA, EN_CURSO, COMPLETADO, CANCELADO, FALLIDO }
+
+    private String id;
+    private String tipo;
+    private Estado estado;
+    private Long total;
+    private long procesados;
+    private long bloques;
+    // Último id confirmado: los bloques avanzan por rangos de id ascendentes
+    private Long ultimoId;
+    private LocalDateTime creado;
+    private LocalDateTime iniciado;
+    private LocalDateTime terminado;
+    private String error;
+}
@@ -0,0 +1,30 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.alejandro.manageprojects.view.View;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Respuesta tipo Slice para paginación por cursor (keyset): no incluye total de elementos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    @JsonView({View.Get.class})
+    private List<T> content;
+
+    @JsonView({View.Get.class})
+    private int size;
+
+    @JsonView({View.Get.class})
+    private boolean hasNext;
+
+    // Token opaco para pedir la siguiente página (null si no hay más)
+    @JsonView({View.Get.class})
+    private String nextCursor;
+}
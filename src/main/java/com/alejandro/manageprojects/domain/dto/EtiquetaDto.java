@@ -1,12 +1,16 @@
 package com.alejandro.manageprojects.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import lombok.Data;
 import jakarta.validation.constraints.NotBlank;
 import com.alejandro.manageprojects.view.View;
 
 @Data
 public class EtiquetaDto {
+    @JsonView({View.Get.class})
     private Long id;
+
+    @JsonView({View.Post.class, View.Put.class, View.Get.class})
     @NotBlank(groups = {View.Post.class, View.Put.class}, message = "Debe ingresar el nombre de la etiqueta.")
     private String nombre;
 }
@@ -0,0 +1,32 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación: registros leídos, proyectos/tareas/hitos creados y errores por registro.
+ * errores se corta en app.import.max-errors; fallidos sigue contando todos.
+ */
+@Data
+public class ImportResultDto {
+    private long procesados;
+    private long importados;
+    private long tareas;
+    private long hitos;
+    private long etiquetasCreadas;
+    private long fallidos;
+    private List<RowError> errores = new ArrayList<>();
+
+    // linea: primera línea del registro en el cuerpo (la cabecera CSV es la línea 1)
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long linea;
+        private String mensaje;
+    }
+}
@@ -0,0 +1,37 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.alejandro.manageprojects.view.View;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Página serializable bajo @JsonView (PageImpl no declara vistas y se serializaría vacía).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDto<T> {
+    @JsonView({View.Get.class, View.Summary.class})
+    private List<T> content;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private int page;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private int size;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private long totalElements;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private int totalPages;
+
+    public static <T> PageDto<T> of(Page<T> page) {
+        return new PageDto<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+}
@@ -0,0 +1,40 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.alejandro.manageprojects.view.View;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página con total opcional según el modo pedido (TotalMode). totalElements es null con total=none;
+ * totalExact indica si el total es exacto o una cota inferior/estimación.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResultDto<T> {
+    @JsonView({View.Get.class, View.Summary.class})
+    private List<T> content;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private int page;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private int size;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private boolean hasNext;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private Long totalElements;
+
+    @JsonView({View.Get.class, View.Summary.class})
+    private boolean totalExact;
+
+    // Modo con el que se calculó el total (puede diferir del pedido: ESTIMATE con filtros se resuelve como CAPPED)
+    @JsonView({View.Get.class, View.Summary.class})
+    private String totalMode;
+}
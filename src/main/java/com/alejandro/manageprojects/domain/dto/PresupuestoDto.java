@@ -12,6 +12,9 @@ public class PresupuestoDto {
     @JsonView({View.Get.class})
     private Long id;
 
+    @JsonView({View.Get.class})
+    private Long version;
+
     @JsonView({View.Post.class, View.Put.class, View.Get.class})
     @NotNull(groups = {View.Post.class, View.Put.class}, message = "Debe ingresar el monto total del presupuesto.")
     private BigDecimal montoTotal;
@@ -13,6 +13,9 @@ public class ProyectoDto {
     @JsonView({View.Get.class})
     private Long id;
 
+    @JsonView({View.Get.class})
+    private Long version;
+
     @JsonView({View.Post.class, View.Put.class, View.Get.class})
     @NotBlank(groups = {View.Post.class, View.Put.class}, message = "Debe ingresar el nombre del proyecto.")
     private String nombre;
@@ -0,0 +1,51 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro de la importación masiva (/proyectos/import): un proyecto con su presupuesto, hitos y tareas.
+ * Las referencias van por clave natural: usuarios por email y etiquetas por nombre.
+ */
+@Data
+public class ProyectoImportDto {
+    private String nombre;
+    private String descripcion;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+    private Presupuesto presupuesto;
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<Hito> hitos = new ArrayList<>();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<Tarea> tareas = new ArrayList<>();
+
+    @Data
+    public static class Presupuesto {
+        private BigDecimal montoTotal;
+        private BigDecimal gastado;
+    }
+
+    @Data
+    public static class Hito {
+        private String nombre;
+        private String descripcion;
+        private LocalDateTime fechaObjetivo;
+    }
+
+    @Data
+    public static class Tarea {
+        private String titulo;
+        private String descripcion;
+        private String estado;
+        private LocalDateTime fechaLimite;
+        private String asignadoEmail;
+        @JsonSetter(nulls = Nulls.AS_EMPTY)
+        private List<String> etiquetas = new ArrayList<>();
+    }
+}
@@ -0,0 +1,58 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.alejandro.manageprojects.view.View;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vista resumen de proyecto para listados (View.Summary): solo columnas escalares y contadores de hijos.
+ * Se construye directamente desde la consulta (Projections.constructor), sin hidratar entidades ni recorrer el grafo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProyectoResumenDto {
+    @JsonView({View.Summary.class})
+    private Long id;
+
+    @JsonView({View.Summary.class})
+    private String nombre;
+
+    @JsonView({View.Summary.class})
+    private String descripcion;
+
+    @JsonView({View.Summary.class})
+    private LocalDateTime fechaInicio;
+
+    @JsonView({View.Summary.class})
+    private LocalDateTime fechaFin;
+
+    @JsonView({View.Summary.class})
+    private BigDecimal montoTotal;
+
+    @JsonView({View.Summary.class})
+    private BigDecimal gastado;
+
+    @JsonView({View.Summary.class})
+    private Integer totalTareas;
+
+    @JsonView({View.Summary.class})
+    private Integer tareasPendientes;
+
+    @JsonView({View.Summary.class})
+    private Integer tareasEnProgreso;
+
+    @JsonView({View.Summary.class})
+    private Integer tareasCompletadas;
+
+    @JsonView({View.Summary.class})
+    private Integer totalHitos;
+
+    @JsonView({View.Summary.class})
+    private Integer totalComentarios;
+}
@@ -14,6 +14,9 @@ public class TareaDto {
     @JsonView({View.Get.class})
     private Long id;
 
+    @JsonView({View.Get.class})
+    private Long version;
+
     @JsonView({View.Post.class, View.Put.class, View.Get.class})
     @NotBlank(groups = {View.Post.class, View.Put.class}, message = "Debe ingresar el título de la tarea.")
     private String titulo;
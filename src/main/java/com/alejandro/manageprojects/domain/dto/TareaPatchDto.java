@@ -0,0 +1,27 @@
+package com.alejandro.manageprojects.domain.dto;
+
+import com.alejandro.manageprojects.view.View;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Cambio parcial de una tarea (PATCH /tareas/batch). Un campo ausente en el JSON queda a null y no se toca;
+ * un campo presente con null llega como Optional vacío y borra el valor (solo descripcion y fechaLimite lo admiten).
+ */
+@Data
+public class TareaPatchDto {
+    @NotNull(groups = View.Patch.class, message = "Debe ingresar el id de la tarea.")
+    private Long id;
+
+    private Optional<@NotBlank(groups = View.Patch.class, message = "El título de la tarea no puede quedar vacío.") String> titulo;
+
+    private Optional<String> descripcion;
+
+    private Optional<@NotBlank(groups = View.Patch.class, message = "El estado de la tarea no puede quedar vacío.") String> estado;
+
+    private Optional<LocalDateTime> fechaLimite;
+}
@@ -16,9 +16,14 @@ import java.time.LocalDateTime;
 @Audited
 public class Comentario {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comentarios_seq")
+    @SequenceGenerator(name = "comentarios_seq", sequenceName = "comentarios_seq", allocationSize = 50)
     private Long id;
 
+    // Versión para bloqueo optimista: entra en el ETag del proyecto que lo contiene
+    @Version
+    private Long version;
+
     @Column(nullable = false, length = 2000)
     private String contenido;
 
@@ -17,7 +17,8 @@ import java.util.Set;
 @Audited
 public class Etiqueta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "etiquetas_seq")
+    @SequenceGenerator(name = "etiquetas_seq", sequenceName = "etiquetas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -16,9 +16,14 @@ import java.time.LocalDateTime;
 @Audited
 public class Hito {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hitos_seq")
+    @SequenceGenerator(name = "hitos_seq", sequenceName = "hitos_seq", allocationSize = 50)
     private Long id;
 
+    // Versión para bloqueo optimista: entra en el ETag del proyecto que lo contiene
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private String nombre;
 
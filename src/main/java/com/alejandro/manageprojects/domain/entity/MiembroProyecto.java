@@ -16,7 +16,8 @@ import org.hibernate.envers.Audited;
 @Audited
 public class MiembroProyecto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "miembros_proyecto_seq")
+    @SequenceGenerator(name = "miembros_proyecto_seq", sequenceName = "miembros_proyecto_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
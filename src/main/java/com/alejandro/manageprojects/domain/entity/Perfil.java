@@ -14,7 +14,8 @@ import org.hibernate.envers.Audited;
 @Audited
 public class Perfil {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "perfiles_seq")
+    @SequenceGenerator(name = "perfiles_seq", sequenceName = "perfiles_seq", allocationSize = 50)
     private Long id;
 
     private String telefono;
@@ -16,9 +16,14 @@ import java.math.BigDecimal;
 @Audited
 public class Presupuesto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "presupuestos_seq")
+    @SequenceGenerator(name = "presupuestos_seq", sequenceName = "presupuestos_seq", allocationSize = 50)
     private Long id;
 
+    // Versión para bloqueo optimista: entra en el ETag del proyecto que lo contiene
+    @Version
+    private Long version;
+
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal montoTotal;
 
@@ -3,6 +3,7 @@ package com.alejandro.manageprojects.domain.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -10,6 +11,21 @@ import java.util.Set;
 
 @Entity
 @Table(name = "proyectos")
+// Planes de carga: el resto del grafo del DTO (colecciones, asignados, etiquetas...) se resuelve por lotes
+// con hibernate.default_batch_fetch_size, de modo que una página cuesta un número acotado de consultas
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Proyecto.GRAPH_LISTADO,
+                attributeNodes = @NamedAttributeNode("presupuesto")),
+        @NamedEntityGraph(name = Proyecto.GRAPH_DETALLE,
+                attributeNodes = {
+                        @NamedAttributeNode("presupuesto"),
+                        @NamedAttributeNode(value = "tareas", subgraph = "tareas")
+                },
+                subgraphs = {
+                        @NamedSubgraph(name = "tareas", attributeNodes = @NamedAttributeNode(value = "asignadoA", subgraph = "asignadoA")),
+                        @NamedSubgraph(name = "asignadoA", attributeNodes = @NamedAttributeNode("perfil"))
+                })
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,10 +33,19 @@ import java.util.Set;
 @Builder
 @Audited
 public class Proyecto {
+    public static final String GRAPH_LISTADO = "Proyecto.listado";
+    public static final String GRAPH_DETALLE = "Proyecto.detalle";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con optimizador pooled: los inserts se agrupan en lotes JDBC (db/id-sequences.sql la ajusta a los datos existentes)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyectos_seq")
+    @SequenceGenerator(name = "proyectos_seq", sequenceName = "proyectos_seq", allocationSize = 50)
     private Long id;
 
+    // Versión para bloqueo optimista; las actualizaciones masivas la incrementan a mano. Base del ETag del recurso
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private String nombre;
 
@@ -29,6 +54,31 @@ public class Proyecto {
     private LocalDateTime fechaInicio;
     private LocalDateTime fechaFin;
 
+    // Documento de búsqueda libre mantenido por triggers (db/search-index.sql); solo lectura desde JPA
+    @NotAudited
+    @Column(name = "search_text", columnDefinition = "text", insertable = false, updatable = false)
+    private String searchText;
+
+    // Contadores de hijos mantenidos por triggers (db/proyecto-counters.sql); solo lectura desde JPA
+    @NotAudited
+    @Column(name = "total_tareas", insertable = false, updatable = false)
+    private Integer totalTareas;
+    @NotAudited
+    @Column(name = "tareas_pendientes", insertable = false, updatable = false)
+    private Integer tareasPendientes;
+    @NotAudited
+    @Column(name = "tareas_en_progreso", insertable = false, updatable = false)
+    private Integer tareasEnProgreso;
+    @NotAudited
+    @Column(name = "tareas_completadas", insertable = false, updatable = false)
+    private Integer tareasCompletadas;
+    @NotAudited
+    @Column(name = "total_hitos", insertable = false, updatable = false)
+    private Integer totalHitos;
+    @NotAudited
+    @Column(name = "total_comentarios", insertable = false, updatable = false)
+    private Integer totalComentarios;
+
     @OneToOne(mappedBy = "proyecto", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Presupuesto presupuesto;
 
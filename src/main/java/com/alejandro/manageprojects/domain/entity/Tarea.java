@@ -3,6 +3,7 @@ package com.alejandro.manageprojects.domain.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -10,6 +11,10 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tareas")
+// Plan de carga de listados y detalle: asignado y su perfil en la misma consulta; etiquetas y roles por lotes
+@NamedEntityGraph(name = Tarea.GRAPH_DETALLE,
+        attributeNodes = @NamedAttributeNode(value = "asignadoA", subgraph = "asignadoA"),
+        subgraphs = @NamedSubgraph(name = "asignadoA", attributeNodes = @NamedAttributeNode("perfil")))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,10 +22,17 @@ import java.util.Set;
 @Builder
 @Audited
 public class Tarea {
+    public static final String GRAPH_DETALLE = "Tarea.detalle";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tareas_seq")
+    @SequenceGenerator(name = "tareas_seq", sequenceName = "tareas_seq", allocationSize = 50)
     private Long id;
 
+    // Versión para bloqueo optimista; las actualizaciones masivas la incrementan a mano. Base del ETag del recurso
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private String titulo;
 
@@ -32,6 +44,11 @@ public class Tarea {
 
     private LocalDateTime fechaLimite;
 
+    // Documento de búsqueda libre mantenido por triggers (db/search-index.sql); solo lectura desde JPA
+    @NotAudited
+    @Column(name = "search_text", columnDefinition = "text", insertable = false, updatable = false)
+    private String searchText;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_asignado_id")
     private Usuario asignadoA;
@@ -2,6 +2,8 @@ package com.alejandro.manageprojects.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.envers.Audited;
 
 import java.time.LocalDateTime;
@@ -18,9 +20,14 @@ import java.util.Set;
 @Table(name = "usuarios")
 public class Usuario {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
+    // Versión para bloqueo optimista: entra en el ETag de las tareas y proyectos que lo contienen
+    @Version
+    private Long version;
+
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -30,7 +37,10 @@ public class Usuario {
     @Column(nullable = false)
     private String apellido;
 
+    // Lado inverso: Hibernate no puede hacerlo perezoso sin enhancement; JOIN evita una consulta por usuario
+    // cuando los usuarios se cargan por lotes (asignados de tareas)
     @OneToOne(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.JOIN)
     private Perfil perfil;
 
     @OneToMany(mappedBy = "asignadoA", cascade = CascadeType.ALL, orphanRemoval = false)
@@ -0,0 +1,39 @@
+package com.alejandro.manageprojects.domain.filter;
+
+import com.alejandro.manageprojects.web.error.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación keyset: propiedad de orden, último valor de esa propiedad y último id devuelto.
+ * Se serializa como Base64 URL-safe; el contenido no forma parte del contrato público.
+ */
+public record KeysetCursor(String property, String value, long id) {
+
+    private static final String SEP = "\u001F";
+    private static final String NULL_VALUE = "\u0000";
+
+    public String encode() {
+        String raw = property + SEP + (value == null ? NULL_VALUE : value) + SEP + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente. Devuelve null si viene vacío (primera página).
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEP, -1);
+            if (parts.length != 3) {
+                throw new BadRequestException("Cursor inválido");
+            }
+            String value = NULL_VALUE.equals(parts[1]) ? null : parts[1];
+            return new KeysetCursor(parts[0], value, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor inválido", e);
+        }
+    }
+}
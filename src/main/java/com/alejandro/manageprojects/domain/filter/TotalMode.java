@@ -0,0 +1,28 @@
+package com.alejandro.manageprojects.domain.filter;
+
+import com.alejandro.manageprojects.web.error.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Cómo calcular el total de una página (parámetro total de /page).
+ */
+public enum TotalMode {
+    // COUNT exacto con el mismo predicado que la consulta de datos
+    EXACT,
+    // Sin total: solo hasNext (Slice)
+    NONE,
+    // COUNT exacto hasta un umbral; por encima se informa "al menos umbral"
+    CAPPED,
+    // Estimación del planificador de PostgreSQL (pg_class.reltuples) sin filtros; con filtros se comporta como CAPPED
+    ESTIMATE;
+
+    public static TotalMode from(String value) {
+        if (value == null || value.isBlank()) return EXACT;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Modo de total no soportado: " + value + " (exact, none, capped, estimate)", e);
+        }
+    }
+}
@@ -17,7 +17,8 @@ public interface ComentarioMapper {
     ComentarioDto toDto(Comentario entity);
 
     @Mappings({
-            @Mapping(target = "proyecto", ignore = true)
+            @Mapping(target = "proyecto", ignore = true),
+            @Mapping(target = "version", ignore = true)
     })
     Comentario toEntity(ComentarioDto dto);
 }
@@ -17,7 +17,8 @@ package com.alejandro.manageprojects.domain.mapper;
     HitoDto toDto(Hito entity);
 
     @Mappings({
-            @Mapping(target = "proyecto", ignore = true)
+            @Mapping(target = "proyecto", ignore = true),
+            @Mapping(target = "version", ignore = true)
     })
     Hito toEntity(HitoDto dto);
  }
@@ -18,7 +18,8 @@ public interface PresupuestoMapper {
 
     // Al crear/actualizar desde DTO, la asociación proyecto debe establecerse en el servicio
     @Mappings({
-            @Mapping(target = "proyecto", ignore = true)
+            @Mapping(target = "proyecto", ignore = true),
+            @Mapping(target = "version", ignore = true)
     })
     Presupuesto toEntity(PresupuestoDto dto);
 }
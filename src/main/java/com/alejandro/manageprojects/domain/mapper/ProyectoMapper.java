@@ -12,7 +12,15 @@ public interface ProyectoMapper {
     ProyectoDto toDto(Proyecto entity);
 
     @Mappings({
-            @Mapping(target = "miembros", ignore = true)
+            @Mapping(target = "miembros", ignore = true),
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "searchText", ignore = true),
+            @Mapping(target = "totalTareas", ignore = true),
+            @Mapping(target = "tareasPendientes", ignore = true),
+            @Mapping(target = "tareasEnProgreso", ignore = true),
+            @Mapping(target = "tareasCompletadas", ignore = true),
+            @Mapping(target = "totalHitos", ignore = true),
+            @Mapping(target = "totalComentarios", ignore = true)
     })
     Proyecto toEntity(ProyectoDto dto);
 }
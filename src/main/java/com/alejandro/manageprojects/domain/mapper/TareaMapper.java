@@ -20,7 +20,9 @@ public interface TareaMapper {
     @Mappings({
             @Mapping(target = "estado", expression = "java(toEstado(dto.getEstado()))"),
             // La asociación se establecerá en la capa de servicio si es necesaria
-            @Mapping(target = "proyecto", ignore = true)
+            @Mapping(target = "proyecto", ignore = true),
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "searchText", ignore = true)
     })
     Tarea toEntity(TareaDto dto);
 
@@ -13,6 +13,7 @@ public interface UsuarioMapper {
 
     @Mappings({
             @Mapping(target = "tareasAsignadas", ignore = true),
+            @Mapping(target = "version", ignore = true),
             @Mapping(target = "proyectos", ignore = true),
             @Mapping(target = "creadoEn", ignore = true)
     })
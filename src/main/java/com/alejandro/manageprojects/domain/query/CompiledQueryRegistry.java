@@ -0,0 +1,106 @@
+package com.alejandro.manageprojects.domain.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Caché de consultas QueryDSL compiladas por forma de filtro.
+ * La primera petición de cada forma construye el árbol de expresiones con Param y lo serializa a JPQL;
+ * las siguientes solo crean la TypedQuery con ese JPQL (que Hibernate encuentra en su caché de planes) y enlazan valores.
+ * Las formas retenidas están acotadas (Caffeine, W-TinyLFU): una forma nueva y frecuente desplaza a las que ya no se usan.
+ */
+@Slf4j
+@Component
+public class CompiledQueryRegistry {
+
+    private record CompiledQuery(String jpql, List<Object> constants) {}
+
+    private final EntityManager entityManager;
+    private final Cache<String, CompiledQuery> queries;
+    private final Cache<String, Optional<Predicate>> predicates;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param maxShapes límite de formas retenidas por caché: el orden forma parte de la clave y lo elige el cliente
+     */
+    public CompiledQueryRegistry(EntityManager entityManager, MeterRegistry meterRegistry,
+                                 @Value("${app.query.compiled.max-shapes:500}") int maxShapes) {
+        this.entityManager = entityManager;
+        this.queries = Caffeine.newBuilder().maximumSize(maxShapes).build();
+        this.predicates = Caffeine.newBuilder().maximumSize(maxShapes).build();
+        this.hits = Counter.builder("app.query.compiled.requests").tag("result", "hit")
+                .description("Consultas del registro (hit: forma ya compilada, miss: construida y serializada)").register(meterRegistry);
+        this.misses = Counter.builder("app.query.compiled.requests").tag("result", "miss")
+                .description("Consultas del registro (hit: forma ya compilada, miss: construida y serializada)").register(meterRegistry);
+        Gauge.builder("app.query.compiled.shapes", queries, Cache::estimatedSize)
+                .description("Formas de filtro compiladas en caché").register(meterRegistry);
+        Gauge.builder("app.query.compiled.hit.ratio", this, CompiledQueryRegistry::hitRatio)
+                .description("Proporción de aciertos de la caché de consultas compiladas").register(meterRegistry);
+    }
+
+    /**
+     * Devuelve la consulta de la forma indicada con sus parámetros enlazados.
+     *
+     * @param name    nombre lógico de la consulta (p. ej. "proyecto.page")
+     * @param variant parte de la clave que no depende del filtro (orden); cadena vacía si no aplica
+     * @param builder construye la consulta con los Param de la forma; solo se invoca en un fallo de caché
+     */
+    public <T> TypedQuery<T> query(String name, FilterShape shape, String variant, Class<T> type,
+                                   Supplier<? extends JPQLQuery<?>> builder) {
+        String key = name + '|' + shape.key() + '|' + variant;
+        CompiledQuery compiled = queries.getIfPresent(key);
+        if (compiled != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            compiled = queries.get(key, k -> compile(builder.get()));
+            log.debug("[CompiledQueryRegistry] query - Forma compilada: {}", key);
+        }
+        TypedQuery<T> query = entityManager.createQuery(compiled.jpql(), type);
+        JPAUtil.setConstants(query, compiled.constants(), shape.bindings());
+        return query;
+    }
+
+    /**
+     * Predicado con Param de la forma indicada, construido una sola vez; para las rutas que no ejecutan
+     * la consulta desde el registro (se combinan con FilterShape#bound). Puede ser null si la forma está vacía.
+     */
+    public Predicate predicate(String name, FilterShape shape, Supplier<Predicate> builder) {
+        String key = name + '|' + shape.key();
+        return predicates.get(key, k -> Optional.ofNullable(builder.get())).orElse(null);
+    }
+
+    public long shapeCount() {
+        return queries.estimatedSize();
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private CompiledQuery compile(JPQLQuery<?> query) {
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(entityManager), entityManager);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new CompiledQuery(serializer.toString(), new ArrayList<>(serializer.getConstants()));
+    }
+}
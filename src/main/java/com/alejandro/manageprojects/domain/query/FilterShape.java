@@ -0,0 +1,85 @@
+package com.alejandro.manageprojects.domain.query;
+
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Forma de un filtro dinámico: qué parámetros están presentes y con qué valor.
+ * La clave identifica la forma (no los valores) y sirve para reutilizar la consulta compilada en CompiledQueryRegistry;
+ * el predicado se construye una vez por forma con Param en lugar de constantes.
+ */
+public final class FilterShape {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private final Map<ParamExpression<?>, Object> bindings = new LinkedHashMap<>();
+
+    public <T> FilterShape bind(Param<T> param, T value) {
+        bindings.put(param, value);
+        return this;
+    }
+
+    // Equivalente a containsIgnoreCase: el valor se enlaza ya convertido en patrón LIKE
+    public FilterShape bindContains(Param<String> param, String value) {
+        return bind(param, likePattern(value));
+    }
+
+    public boolean has(ParamExpression<?> param) {
+        return bindings.containsKey(param);
+    }
+
+    /**
+     * Clave de la forma: nombres de los parámetros presentes, en el orden en que el filtro los registra.
+     */
+    public String key() {
+        return bindings.isEmpty() ? "-" : String.join(",", bindings.keySet().stream().map(ParamExpression::getName).toList());
+    }
+
+    public Map<ParamExpression<?>, Object> bindings() {
+        return Collections.unmodifiableMap(bindings);
+    }
+
+    /**
+     * Sustituye los Param del predicado por sus valores, para las consultas que no pasan por el registro
+     * (keyset, resumen, totales) y reciben un Predicate con constantes.
+     */
+    public Predicate bound(Predicate predicate) {
+        if (predicate == null) return null;
+        return (Predicate) predicate.accept(new ReplaceVisitor<Void>() {
+            @Override
+            public Expression<?> visit(ParamExpression<?> expr, Void context) {
+                return bindings.containsKey(expr) ? ConstantImpl.create(bindings.get(expr)) : expr;
+            }
+        }, null);
+    }
+
+    /**
+     * lower(path) like :patrón escape '!' — misma semántica que containsIgnoreCase con el valor como parámetro.
+     */
+    public static BooleanExpression containsIgnoreCase(Expression<String> path, Param<String> pattern) {
+        return Expressions.booleanTemplate("lower({0}) like {1} escape '" + LIKE_ESCAPE + "'", path, pattern);
+    }
+
+    static String likePattern(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length() + 2).append('%');
+        for (char c : lower.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.append('%').toString();
+    }
+}
@@ -1,8 +1,31 @@
 package com.alejandro.manageprojects.domain.repository;
 
 import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface ProyectoRepository extends JpaRepository<Proyecto, Long>, QuerydslPredicateExecutor<Proyecto> {
+
+    @Override
+    @EntityGraph(Proyecto.GRAPH_DETALLE)
+    Optional<Proyecto> findById(Long id);
+
+    @Override
+    @EntityGraph(Proyecto.GRAPH_LISTADO)
+    List<Proyecto> findAll();
+
+    @Override
+    @EntityGraph(Proyecto.GRAPH_LISTADO)
+    Iterable<Proyecto> findAll(Predicate predicate);
+
+    @Override
+    @EntityGraph(Proyecto.GRAPH_LISTADO)
+    Page<Proyecto> findAll(Predicate predicate, Pageable pageable);
 }
@@ -1,8 +1,31 @@
 package com.alejandro.manageprojects.domain.repository;
 
 import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface TareaRepository extends JpaRepository<Tarea, Long>, QuerydslPredicateExecutor<Tarea> {
+
+    @Override
+    @EntityGraph(Tarea.GRAPH_DETALLE)
+    Optional<Tarea> findById(Long id);
+
+    @Override
+    @EntityGraph(Tarea.GRAPH_DETALLE)
+    List<Tarea> findAll();
+
+    @Override
+    @EntityGraph(Tarea.GRAPH_DETALLE)
+    Iterable<Tarea> findAll(Predicate predicate);
+
+    @Override
+    @EntityGraph(Tarea.GRAPH_DETALLE)
+    Page<Tarea> findAll(Predicate predicate, Pageable pageable);
 }
@@ -84,7 +84,8 @@ public class AuditService {
     }
 
     // --- Helpers para aplanar entidades en estructuras seguras para JSON ---
-    private Map<String, Object> toFlatMap(Object entity) {
+    // Visibilidad de paquete para los benchmarks (src/jmh)
+    Map<String, Object> toFlatMap(Object entity) {
         if (entity == null) return null;
         Map<String, Object> map = new LinkedHashMap<>();
         Class<?> type = entity.getClass();
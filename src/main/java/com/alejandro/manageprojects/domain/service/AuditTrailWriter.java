@@ -0,0 +1,109 @@
+package com.alejandro.manageprojects.domain.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.envers.boot.internal.EnversService;
+import org.hibernate.event.spi.EventSource;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historial de auditoría (Envers) para escrituras que no pasan por entidades: las actualizaciones masivas
+ * JPQL/QueryDSL no disparan los listeners de Envers. Copia el estado actual de las filas a la tabla _aud en la
+ * revisión de la transacción en curso, con un solo INSERT ... SELECT por tabla. Los borrados masivos se registran
+ * igual, antes de borrar, como revisiones de tipo borrado.
+ */
+@Slf4j
+@Component
+public class AuditTrailWriter {
+
+    // Revisión Envers de tipo modificación
+    private static final int REVTYPE_MOD = 1;
+    // Revisión Envers de tipo borrado
+    private static final int REVTYPE_DEL = 2;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Columnas auditadas por tabla: las comunes a la tabla y a su _aud, sin las de revisión
+    private final Map<String, String> auditedColumns = new ConcurrentHashMap<>();
+
+    /**
+     * Registra como modificadas las filas indicadas, con sus valores ya actualizados.
+     * Se llama después de la actualización y dentro de la misma transacción.
+     */
+    public void recordModified(String table, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String columns = auditedColumns.computeIfAbsent(table, this::loadColumns);
+        Number revision = currentRevision();
+        int rows = entityManager.createNativeQuery(
+                        "INSERT INTO " + table + "_aud (" + columns + ", rev, revtype) "
+                                + "SELECT " + columns + ", :rev, :revtype FROM " + table + " WHERE id IN (:ids)")
+                .setParameter("rev", revision)
+                .setParameter("revtype", REVTYPE_MOD)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        log.debug("[AuditTrailWriter] recordModified - {} filas de {} en la revisión {}", rows, table, revision);
+    }
+
+    /**
+     * Registra como borradas las filas de la tabla que cumplen la condición (SQL con el parámetro :ids).
+     * Se llama antes del borrado y dentro de la misma transacción. Como Envers sin store_data_at_delete, las
+     * entidades solo guardan el id; las tablas de asociación (sin id) guardan la fila entera, que es su clave.
+     */
+    public void recordDeleted(String table, String condition, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String columns = auditedColumns.computeIfAbsent(table, this::loadColumns);
+        if (List.of(columns.split(", ")).contains("id")) {
+            columns = "id";
+        }
+        Number revision = currentRevision();
+        int rows = entityManager.createNativeQuery(
+                        "INSERT INTO " + table + "_aud (" + columns + ", rev, revtype) "
+                                + "SELECT " + columns + ", :rev, :revtype FROM " + table + " WHERE " + condition)
+                .setParameter("rev", revision)
+                .setParameter("revtype", REVTYPE_DEL)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        log.debug("[AuditTrailWriter] recordDeleted - {} filas de {} en la revisión {}", rows, table, revision);
+    }
+
+    /**
+     * Número de la revisión de la transacción en curso, la misma que usa Envers para las entidades de esta
+     * transacción. AuditReader#getCurrentRevision está obsoleto sin sustituto público: se pide al proceso de
+     * auditoría de la sesión y el número se lee con el lector de la entidad de revisión configurada. La revisión
+     * se persiste ya; el flush automático previo a la consulta nativa la inserta en revinfo.
+     */
+    private Number currentRevision() {
+        EventSource session = entityManager.unwrap(EventSource.class);
+        EnversService envers = session.getFactory().getServiceRegistry().requireService(EnversService.class);
+        Object revisionData = envers.getAuditProcessManager().get(session).getCurrentRevisionData(session, true);
+        return envers.getRevisionInfoNumberReader().getRevisionNumber(revisionData);
+    }
+
+    private String loadColumns(String table) {
+        @SuppressWarnings("unchecked")
+        List<String> columns = entityManager.createNativeQuery(
+                        "SELECT a.column_name FROM information_schema.columns a "
+                                + "JOIN information_schema.columns t ON t.table_schema = a.table_schema "
+                                + "AND t.table_name = :table AND t.column_name = a.column_name "
+                                + "WHERE a.table_schema = current_schema() AND a.table_name = :audTable "
+                                + "AND a.column_name NOT IN ('rev', 'revtype') ORDER BY a.ordinal_position")
+                .setParameter("table", table)
+                .setParameter("audTable", table + "_aud")
+                .getResultList();
+        if (columns.isEmpty()) {
+            throw new IllegalStateException("Tabla sin auditoría: " + table);
+        }
+        return String.join(", ", columns);
+    }
+}
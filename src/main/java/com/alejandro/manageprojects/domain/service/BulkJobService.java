@@ -0,0 +1,27 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.BulkJobDto;
+
+public interface BulkJobService {
+
+    /**
+     * Operación masiva divisible en bloques por rango de id. Cada llamada se ejecuta en su propia transacción.
+     */
+    interface ChunkedOperation {
+        // Filas afectadas al empezar, para el progreso
+        long total();
+
+        // Procesa hasta chunkSize filas con id > afterId; last null cuando ya no quedan filas
+        Chunk process(long afterId, int chunkSize);
+    }
+
+    record Chunk(Long last, long affected) {}
+
+    // Encola la operación y devuelve el job en estado EN_COLA
+    BulkJobDto submit(String tipo, ChunkedOperation operation);
+
+    BulkJobDto get(String id);
+
+    // Pide la cancelación: el job se detiene antes del siguiente bloque; lo ya confirmado se mantiene
+    BulkJobDto cancel(String id);
+}
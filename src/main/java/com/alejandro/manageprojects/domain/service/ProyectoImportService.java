@@ -0,0 +1,14 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.ImportResultDto;
+
+import java.io.InputStream;
+
+public interface ProyectoImportService {
+
+    enum Format { NDJSON, CSV }
+
+    // Importa proyectos con presupuesto, hitos y tareas leyendo el cuerpo en streaming. Confirma por bloques
+    // de registros y devuelve los errores de cada registro sin abortar el resto de la carga
+    ImportResultDto importProyectos(InputStream body, Format format);
+}
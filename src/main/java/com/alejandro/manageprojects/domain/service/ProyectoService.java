@@ -1,24 +1,50 @@
 package com.alejandro.manageprojects.domain.service;
 
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
 import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.dto.ProyectoResumenDto;
 import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProyectoService {
     ProyectoDto create(ProyectoDto dto);
+
+    // Alta en lote en una sola transacción; los inserts (y su presupuesto) se envían en lotes JDBC
+    List<ProyectoDto> createAll(List<ProyectoDto> dtos);
+
     ProyectoDto update(Long id, ProyectoDto dto);
+
+    // Actualización condicionada (If-Match): un solo UPDATE ... WHERE id = ? AND version = ? AND <alguna columna cambia>,
+    // sin lectura previa. Con 0 filas se lee la versión: NotFoundException, ConflictException o sin cambios.
+    // Devuelve el estado persistido
+    ProyectoDto update(Long id, long expectedVersion, ProyectoDto dto);
     ProyectoDto getById(Long id);
+
+    // ETag fuerte del proyecto con una sola consulta de versiones (el suyo y los de sus anidados), sin cargar el grafo
+    String getETag(Long id);
     List<ProyectoDto> getAll();
+
+    // Recorre todos los registros en streaming (fetch size fijo) entregando cada DTO al consumidor; devuelve el total
+    long streamAll(Consumer<ProyectoDto> consumer);
     void delete(Long id);
 
     List<ProyectoDto> findActivosEnRango(LocalDateTime desde, LocalDateTime hasta);
 
     Page<ProyectoDto> getProyectos(Pageable page, ProyectoFilter filter);
 
+    // Paginación por cursor (keyset): sin OFFSET ni COUNT, devuelve el cursor de la siguiente página
+    CursorPageDto<ProyectoDto> getProyectosKeyset(String cursor, Pageable page, ProyectoFilter filter);
+
+    // Paginación con total configurable por llamada: exacto, sin total, exacto hasta un umbral o estimado
+    PageResultDto<ProyectoDto> getProyectos(Pageable page, ProyectoFilter filter, TotalMode totalMode);
+
     // Proyectos filtrados por condiciones de Tarea (Q-classes)
     List<ProyectoDto> findByTareasConEstadoYRangoQ(
             String estado,
@@ -40,7 +66,7 @@ public interface ProyectoService {
     // Q-class bulk update: cerrar proyectos con todas las tareas completadas
     long cerrarProyectosConTareasCompletadas(LocalDateTime fechaFin);
 
-    // Q-class bulk delete: eliminar proyectos sin tareas dentro de un rango de fechas
+    // Purga por bloques (con dependientes y auditoría): eliminar proyectos sin tareas dentro de un rango de fechas
     long eliminarProyectosSinTareasEntreFechas(LocalDateTime desde, LocalDateTime hasta);
 
     // Q-class paginada: proyectos por rol de miembro y email del usuario
@@ -58,6 +84,25 @@ public interface ProyectoService {
     // Q-class consulta: proyectos sin comentarios pero con un miembro por rol
     List<ProyectoDto> findSinComentariosConMiembroRol(String rolEnProyecto);
 
-    // Q-class bulk delete: eliminar proyectos con presupuesto gastado > montoTotal
+    // Purga por bloques (con dependientes y auditoría): eliminar proyectos con presupuesto gastado > montoTotal
     long eliminarProyectosConPresupuestoInconsistente();
+
+    // Variantes resumen (View.Summary) de los listados: proyección escalar con contadores de hijos, sin hidratar entidades
+    List<ProyectoResumenDto> getAllResumen();
+
+    List<ProyectoResumenDto> findActivosEnRangoResumen(LocalDateTime desde, LocalDateTime hasta);
+
+    Page<ProyectoResumenDto> getProyectosResumen(Pageable page, ProyectoFilter filter);
+
+    List<ProyectoResumenDto> findByTareasConEstadoYRangoResumen(
+            String estado,
+            LocalDateTime fechaInicioDesde,
+            LocalDateTime fechaFinHasta,
+            String tituloContiene,
+            String asignadoEmail,
+            String etiquetaNombre);
+
+    Page<ProyectoResumenDto> getProyectosPorMiembrosResumen(Pageable page, String rolEnProyecto, String emailLike);
+
+    List<ProyectoResumenDto> findConMinTareasPorEstadoResumen(String estado, long minTareas, String etiquetaNombre);
 }
@@ -1,30 +1,66 @@
 package com.alejandro.manageprojects.domain.service;
 
+import com.alejandro.manageprojects.domain.dto.BulkJobDto;
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
 import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.dto.TareaPatchDto;
 import com.alejandro.manageprojects.domain.filter.TareaFilter;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TareaService {
     TareaDto create(TareaDto dto);
+
+    // Alta en lote en una sola transacción; los inserts se envían en lotes JDBC. Cada DTO lleva el id de su proyecto
+    List<TareaDto> createAll(List<TareaDto> dtos);
+
     TareaDto update(Long id, TareaDto dto);
+
+    // Actualización condicionada (If-Match): un solo UPDATE ... WHERE id = ? AND version = ? AND <alguna columna cambia>,
+    // sin lectura previa. Con 0 filas se lee la versión: NotFoundException, ConflictException o sin cambios.
+    // Devuelve el estado persistido
+    TareaDto update(Long id, long expectedVersion, TareaDto dto);
+
+    // Cambios parciales en lote: un UPDATE por forma de cambio (campos presentes), no uno por tarea
+    List<TareaDto> patchAll(List<TareaPatchDto> changes);
+
     TareaDto getById(Long id);
+
+    // ETag fuerte de la tarea con una sola consulta de versiones (la suya, su asignado y sus etiquetas), sin cargar el grafo
+    String getETag(Long id);
     List<TareaDto> getAll();
+
+    // Recorre todos los registros en streaming (fetch size fijo) entregando cada DTO al consumidor; devuelve el total
+    long streamAll(Consumer<TareaDto> consumer);
     void delete(Long id);
 
     List<TareaDto> search(String estado, Long etiquetaId, Long asignadoId, Long proyectoId);
 
     Page<TareaDto> getTareas(Pageable page, TareaFilter filter);
 
+    // Paginación por cursor (keyset): sin OFFSET ni COUNT, devuelve el cursor de la siguiente página
+    CursorPageDto<TareaDto> getTareasKeyset(String cursor, Pageable page, TareaFilter filter);
+
+    // Paginación con total configurable por llamada: exacto, sin total, exacto hasta un umbral o estimado
+    PageResultDto<TareaDto> getTareas(Pageable page, TareaFilter filter, TotalMode totalMode);
+
     // Q-class bulk update: actualizar estado por proyecto y fecha límite antes de una fecha
     long actualizarEstadoPorProyectoYFecha(String estadoOrigen, String estadoDestino, Long proyectoId, LocalDateTime fechaLimiteAntes);
 
     // Q-class bulk delete: eliminar por estado y fecha límite antes de una fecha
     long eliminarPorEstadoYFechaLimiteAntes(String estado, LocalDateTime fechaLimiteAntes);
 
+    // Mismas operaciones en segundo plano: bloques por rango de id, cada uno en su transacción (progreso en /jobs/{id})
+    BulkJobDto actualizarEstadoEnSegundoPlano(String estadoOrigen, String estadoDestino, Long proyectoId, LocalDateTime fechaLimiteAntes);
+
+    BulkJobDto eliminarPorEstadoYFechaLimiteAntesEnSegundoPlano(String estado, LocalDateTime fechaLimiteAntes);
+
     // Q-class bulk update: reasignar tareas de un usuario a otro (opcionalmente filtrando por proyecto y estado)
     long reasignarTareasDeUsuario(Long fromUsuarioId, Long toUsuarioId, Long proyectoId, String estado);
 }
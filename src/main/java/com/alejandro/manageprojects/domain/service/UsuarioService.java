@@ -4,12 +4,24 @@ import com.alejandro.manageprojects.domain.dto.UsuarioDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UsuarioService {
     UsuarioDto create(UsuarioDto dto);
     UsuarioDto update(Long id, UsuarioDto dto);
+
+    // Actualización condicionada (If-Match): un solo UPDATE ... WHERE id = ? AND version = ? AND <alguna columna cambia>,
+    // sin lectura previa. Con 0 filas se lee la versión: NotFoundException, ConflictException o sin cambios.
+    // Devuelve el estado persistido
+    UsuarioDto update(Long id, long expectedVersion, UsuarioDto dto);
     UsuarioDto getById(Long id);
+
+    // ETag fuerte del usuario con una sola consulta (su versión, su perfil y sus roles), sin cargar la entidad
+    String getETag(Long id);
     List<UsuarioDto> getAll();
+
+    // Recorre todos los registros en streaming (fetch size fijo) entregando cada DTO al consumidor; devuelve el total
+    long streamAll(Consumer<UsuarioDto> consumer);
     void delete(Long id);
 
     // QueryDSL example: by role name and created date range
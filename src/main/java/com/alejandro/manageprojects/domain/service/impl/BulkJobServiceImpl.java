@@ -0,0 +1,289 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.domain.dto.BulkJobDto;
+import com.alejandro.manageprojects.domain.service.BulkJobService;
+import com.alejandro.manageprojects.web.error.NotFoundException;
+import com.alejandro.manageprojects.web.error.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor de operaciones masivas en segundo plano. Cada job recorre las filas por rangos de id ascendentes y
+ * confirma cada bloque en su propia transacción, con una pausa entre bloques: los bloqueos de fila duran lo que
+ * un bloque y el resto de escrituras puede intercalarse. La cancelación se atiende entre bloques.
+ * El job corre en la instancia que lo recibió; su estado se copia en Redis (bulkjob:&lt;id&gt;) en cada cambio para
+ * que cualquier instancia lo consulte, y una cancelación pedida en otra instancia se deja en bulkjob:&lt;id&gt;:cancel.
+ * Ambas claves caducan pasado app.jobs.retention. Sin Redis, el job solo se ve desde su instancia.
+ */
+@Slf4j
+@Service
+public class BulkJobServiceImpl implements BulkJobService, DisposableBean {
+
+    private static final int QUEUE_CAPACITY = 100;
+    private static final String KEY_PREFIX = "bulkjob:";
+    private static final String CANCEL_SUFFIX = ":cancel";
+
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // Filas por bloque (y por transacción)
+    @Value("${app.jobs.chunk-size:1000}")
+    private int chunkSize;
+
+    // Pausa entre bloques para no acaparar la base de datos
+    @Value("${app.jobs.pause:50ms}")
+    private Duration pause;
+
+    // Tiempo que se conserva el estado de un job terminado (en memoria y en Redis)
+    @Value("${app.jobs.retention:1h}")
+    private Duration retention;
+
+    public BulkJobServiceImpl(PlatformTransactionManager transactionManager,
+                              StringRedisTemplate redis,
+                              ObjectMapper objectMapper,
+                              @Value("${app.jobs.threads:2}") int threads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "bulk-job-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    private static final class Job {
+        final BulkJobDto state = new BulkJobDto();
+        final ChunkedOperation operation;
+        volatile boolean cancelRequested;
+
+        Job(String tipo, ChunkedOperation operation) {
+            this.operation = operation;
+            state.setId(UUID.randomUUID().toString());
+            state.setTipo(tipo);
+            state.setEstado(BulkJobDto.Estado.EN_COLA);
+            state.setCreado(LocalDateTime.now());
+        }
+
+        // Copia coherente para la respuesta: el hilo del job escribe bajo el mismo monitor
+        synchronized BulkJobDto snapshot() {
+            BulkJobDto copy = new BulkJobDto();
+            copy.setId(state.getId());
+            copy.setTipo(state.getTipo());
+            copy.setEstado(state.getEstado());
+            copy.setTotal(state.getTotal());
+            copy.setProcesados(state.getProcesados());
+            copy.setBloques(state.getBloques());
+            copy.setUltimoId(state.getUltimoId());
+            copy.setCreado(state.getCreado());
+            copy.setIniciado(state.getIniciado());
+            copy.setTerminado(state.getTerminado());
+            copy.setError(state.getError());
+            return copy;
+        }
+
+        synchronized void finish(BulkJobDto.Estado estado, String error) {
+            state.setEstado(estado);
+            state.setError(error);
+            state.setTerminado(LocalDateTime.now());
+        }
+    }
+
+    @Override
+    public BulkJobDto submit(String tipo, ChunkedOperation operation) {
+        purgeFinished();
+        Job job = new Job(tipo, operation);
+        jobs.put(job.state.getId(), job);
+        save(job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.state.getId());
+            forget(job.state.getId());
+            throw new ServiceUnavailableException("Demasiadas operaciones masivas en cola; reintente más tarde");
+        }
+        log.info("[BulkJobService] submit - Job {} ({}) en cola: bloques de {} filas, pausa {} ms.",
+                job.state.getId(), tipo, chunkSize, pause.toMillis());
+        return job.snapshot();
+    }
+
+    @Override
+    public BulkJobDto get(String id) {
+        Job job = jobs.get(id);
+        return job != null ? job.snapshot() : stored(id);
+    }
+
+    @Override
+    public BulkJobDto cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return cancelRemote(id);
+        }
+        job.cancelRequested = true;
+        synchronized (job) {
+            // Aún en cola: no llegará a ejecutar ningún bloque
+            if (job.state.getEstado() == BulkJobDto.Estado.EN_COLA) {
+                job.finish(BulkJobDto.Estado.CANCELADO, null);
+                save(job);
+            }
+        }
+        log.info("[BulkJobService] cancel - Cancelación pedida para el job {}", id);
+        return job.snapshot();
+    }
+
+    // Job de otra instancia: se deja la marca en Redis y su instancia para antes del siguiente bloque
+    private BulkJobDto cancelRemote(String id) {
+        BulkJobDto state = stored(id);
+        if (state.getEstado() == BulkJobDto.Estado.EN_COLA || state.getEstado() == BulkJobDto.Estado.EN_CURSO) {
+            redis.opsForValue().set(key(id) + CANCEL_SUFFIX, "1", retention);
+            log.info("[BulkJobService] cancelRemote - Cancelación pedida para el job {} de otra instancia", id);
+        }
+        return state;
+    }
+
+    // Último estado guardado en Redis; 404 si no existe, ya caducó o Redis no responde
+    private BulkJobDto stored(String id) {
+        try {
+            return Optional.ofNullable(redis.opsForValue().get(key(id)))
+                    .map(this::readState)
+                    .orElseThrow(() -> notFound(id));
+        } catch (NotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("[BulkJobService] stored - No se pudo leer el job {} de Redis: {}", id, e.getMessage());
+            throw notFound(id);
+        }
+    }
+
+    private NotFoundException notFound(String id) {
+        return new NotFoundException("Job no encontrado: " + id + " (no existe o terminó hace más de " + retention + ")");
+    }
+
+    // Copia el estado en Redis; si falla, el job sigue y solo se ve desde esta instancia
+    private void save(Job job) {
+        BulkJobDto state = job.snapshot();
+        try {
+            redis.opsForValue().set(key(state.getId()), objectMapper.writeValueAsString(state), retention);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("[BulkJobService] save - No se pudo guardar el job {} en Redis: {}", state.getId(), e.getMessage());
+        }
+    }
+
+    private void forget(String id) {
+        try {
+            redis.delete(key(id));
+        } catch (RuntimeException e) {
+            log.warn("[BulkJobService] forget - No se pudo borrar el job {} de Redis: {}", id, e.getMessage());
+        }
+    }
+
+    private BulkJobDto readState(String json) {
+        try {
+            return objectMapper.readValue(json, BulkJobDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Cancelación pedida en esta instancia o, vía Redis, en otra
+    private boolean cancelRequested(Job job) {
+        if (job.cancelRequested) {
+            return true;
+        }
+        try {
+            job.cancelRequested = Boolean.TRUE.equals(redis.hasKey(key(job.state.getId()) + CANCEL_SUFFIX));
+        } catch (RuntimeException e) {
+            log.warn("[BulkJobService] cancelRequested - No se pudo consultar Redis para el job {}: {}", job.state.getId(), e.getMessage());
+        }
+        return job.cancelRequested;
+    }
+
+    private static String key(String id) {
+        return KEY_PREFIX + id;
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.state.getEstado() != BulkJobDto.Estado.EN_COLA) {
+                return;
+            }
+            job.state.setEstado(BulkJobDto.Estado.EN_CURSO);
+            job.state.setIniciado(LocalDateTime.now());
+        }
+        String id = job.state.getId();
+        try {
+            long total = transactionTemplate.execute(status -> job.operation.total());
+            synchronized (job) {
+                job.state.setTotal(total);
+            }
+            save(job);
+            long after = 0;
+            while (!cancelRequested(job)) {
+                long from = after;
+                Chunk chunk = transactionTemplate.execute(status -> job.operation.process(from, chunkSize));
+                if (chunk.last() == null) {
+                    break;
+                }
+                synchronized (job) {
+                    job.state.setProcesados(job.state.getProcesados() + chunk.affected());
+                    job.state.setBloques(job.state.getBloques() + 1);
+                    job.state.setUltimoId(chunk.last());
+                }
+                save(job);
+                after = chunk.last();
+                log.debug("[BulkJobService] run - Job {}: bloque hasta id {} con {} filas", id, after, chunk.affected());
+                if (!pause.isZero()) {
+                    Thread.sleep(pause.toMillis());
+                }
+            }
+            job.finish(job.cancelRequested ? BulkJobDto.Estado.CANCELADO : BulkJobDto.Estado.COMPLETADO, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(BulkJobDto.Estado.CANCELADO, "Interrumpido al parar la aplicación");
+        } catch (RuntimeException e) {
+            log.warn("[BulkJobService] run - Job {} fallido tras {} bloques: {}", id, job.state.getBloques(), e.getMessage());
+            job.finish(BulkJobDto.Estado.FALLIDO, e.getMessage());
+        }
+        save(job);
+        BulkJobDto end = job.snapshot();
+        log.info("[BulkJobService] run - Job {} ({}) {}: {} de {} filas en {} bloques",
+                id, end.getTipo(), end.getEstado(), end.getProcesados(), end.getTotal(), end.getBloques());
+    }
+
+    private void purgeFinished() {
+        LocalDateTime limit = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            LocalDateTime terminado = job.snapshot().getTerminado();
+            return terminado != null && terminado.isBefore(limit);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
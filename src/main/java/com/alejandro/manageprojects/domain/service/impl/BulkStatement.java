@@ -0,0 +1,104 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UPDATE o DELETE masivo en SQL nativo con RETURNING: la misma sentencia escribe, bloquea y devuelve las filas que
+ * ha tocado, así que las claves de caché a evictar salen de ella sin un SELECT ... FOR UPDATE previo (JPQL no tiene
+ * RETURNING). Las condiciones con valor null no se añaden, como los filtros opcionales de los servicios.
+ * Los triggers de contadores (proyecto-counters.sql) cubren también estas sentencias.
+ */
+final class BulkStatement {
+
+    private final String table;
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> params = new LinkedHashMap<>();
+
+    /**
+     * @param table tabla con alias opcional ("proyectos p") para referirse a ella desde subconsultas
+     */
+    BulkStatement(String table) {
+        this.table = table;
+    }
+
+    BulkStatement where(String condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    // La condición usa :name; si el valor es null no se filtra
+    BulkStatement where(String condition, String name, Object value) {
+        if (value != null) {
+            conditions.add(condition);
+            params.put(name, value);
+        }
+        return this;
+    }
+
+    // Mismo filtro restringido al bloque de ids (afterId, lastId] de una operación por bloques
+    BulkStatement range(long afterId, long lastId) {
+        return copy().where("id > :afterId", "afterId", afterId).where("id <= :lastId", "lastId", lastId);
+    }
+
+    long count(EntityManager entityManager) {
+        return ((Number) query(entityManager, "SELECT count(*) FROM " + table + where()).getSingleResult()).longValue();
+    }
+
+    /**
+     * Último id del siguiente bloque de hasta chunkSize filas con id &gt; afterId; null si no quedan filas.
+     */
+    Long lastIdOfChunk(EntityManager entityManager, long afterId, int chunkSize) {
+        BulkStatement next = copy().where("id > :afterId", "afterId", afterId);
+        Object last = next.query(entityManager, "SELECT max(id) FROM (SELECT id FROM " + table + next.where()
+                        + " ORDER BY id LIMIT :chunkSize) bloque")
+                .setParameter("chunkSize", chunkSize)
+                .getSingleResult();
+        return last == null ? null : ((Number) last).longValue();
+    }
+
+    /**
+     * @param set       asignaciones de la cláusula SET, con sus propios parámetros
+     * @param returning columnas de las filas actualizadas
+     */
+    List<Object[]> update(EntityManager entityManager, String set, Map<String, ?> setParams, String returning) {
+        Query query = query(entityManager, "UPDATE " + table + " SET " + set + where() + " RETURNING " + returning);
+        setParams.forEach(query::setParameter);
+        return rows(query);
+    }
+
+    List<Object[]> delete(EntityManager entityManager, String returning) {
+        return rows(query(entityManager, "DELETE FROM " + table + where() + " RETURNING " + returning));
+    }
+
+    private BulkStatement copy() {
+        BulkStatement copy = new BulkStatement(table);
+        copy.conditions.addAll(conditions);
+        copy.params.putAll(params);
+        return copy;
+    }
+
+    private String where() {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private Query query(EntityManager entityManager, String sql) {
+        Query query = entityManager.createNativeQuery(sql);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    // Con una sola columna Hibernate devuelve el valor suelto: se normaliza a filas
+    private static List<Object[]> rows(Query query) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Object row : query.getResultList()) {
+            rows.add(row instanceof Object[] columns ? columns : new Object[]{row});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,304 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.domain.dto.ProyectoImportDto;
+import com.alejandro.manageprojects.web.error.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lee el cuerpo de una importación registro a registro, sin cargarlo entero en memoria.
+ * Un registro ilegible no corta la lectura: se devuelve con su error y se sigue con el siguiente.
+ * <ul>
+ *   <li>NDJSON: un ProyectoImportDto por línea.</li>
+ *   <li>CSV con cabecera: una fila por tarea o hito (columna tipo = TAREA | HITO, vacía para un proyecto sin hijos).
+ *   Las filas consecutivas con la misma columna proyecto (clave del sistema de origen) forman un proyecto, cuyos
+ *   campos se toman de la primera. Columnas: proyecto, nombre, descripcion, fechaInicio, fechaFin, montoTotal,
+ *   gastado, tipo, titulo, detalle, estado, fecha, asignadoEmail y etiquetas (separadas por |).</li>
+ * </ul>
+ */
+abstract class ImportRecordReader implements Iterator<ImportRecordReader.Record> {
+
+    record Record(long line, ProyectoImportDto value, String error) {}
+
+    protected final BufferedReader reader;
+    protected long lineNumber;
+    private Record next;
+
+    ImportRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    static ImportRecordReader ndjson(BufferedReader reader, ObjectReader json) {
+        return new Ndjson(reader, json);
+    }
+
+    static ImportRecordReader csv(BufferedReader reader) {
+        return new Csv(reader);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Record r = next;
+        next = null;
+        return r;
+    }
+
+    // Siguiente registro o null al final del cuerpo
+    protected abstract Record read() throws IOException;
+
+    protected String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    private static final class Ndjson extends ImportRecordReader {
+
+        private final ObjectReader json;
+
+        Ndjson(BufferedReader reader, ObjectReader json) {
+            super(reader);
+            this.json = json;
+        }
+
+        @Override
+        protected Record read() throws IOException {
+            String line;
+            do {
+                line = readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return new Record(lineNumber, json.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return new Record(lineNumber, null, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class Csv extends ImportRecordReader {
+
+        private static final String[] REQUIRED = {"proyecto", "nombre"};
+
+        private Map<String, Integer> columns;
+        private List<String> pending;
+        private long pendingLine;
+
+        Csv(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected Record read() throws IOException {
+            if (columns == null) {
+                readHeader();
+                pending = readRow();
+            }
+            if (pending == null) {
+                return null;
+            }
+            long start = pendingLine;
+            String key = field(pending, "proyecto");
+            if (key == null) {
+                pending = readRow();
+                return new Record(start, null, "Línea " + start + ": falta la clave de proyecto");
+            }
+            ProyectoImportDto dto = new ProyectoImportDto();
+            String error = null;
+            List<String> row = pending;
+            long rowLine = pendingLine;
+            try {
+                dto.setNombre(field(row, "nombre"));
+                dto.setDescripcion(field(row, "descripcion"));
+                dto.setFechaInicio(dateTime(field(row, "fechainicio")));
+                dto.setFechaFin(dateTime(field(row, "fechafin")));
+                BigDecimal monto = decimal(field(row, "montototal"));
+                BigDecimal gastado = decimal(field(row, "gastado"));
+                if (monto != null || gastado != null) {
+                    ProyectoImportDto.Presupuesto presupuesto = new ProyectoImportDto.Presupuesto();
+                    presupuesto.setMontoTotal(monto);
+                    presupuesto.setGastado(gastado);
+                    dto.setPresupuesto(presupuesto);
+                }
+            } catch (RuntimeException e) {
+                error = "Línea " + rowLine + ": " + e.getMessage();
+            }
+            // Filas del mismo proyecto: se consumen todas aunque una tenga error, para seguir con el siguiente
+            while (row != null && key.equals(field(row, "proyecto"))) {
+                if (error == null) {
+                    try {
+                        addChild(dto, row);
+                    } catch (RuntimeException e) {
+                        error = "Línea " + rowLine + ": " + e.getMessage();
+                    }
+                }
+                row = readRow();
+                rowLine = pendingLine;
+            }
+            pending = row;
+            return new Record(start, error == null ? dto : null, error);
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = readRow();
+            if (header == null) {
+                throw new BadRequestException("CSV vacío: falta la cabecera");
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String column : REQUIRED) {
+                if (!columns.containsKey(column)) {
+                    throw new BadRequestException("CSV sin la columna obligatoria " + column + ": " + header);
+                }
+            }
+        }
+
+        private void addChild(ProyectoImportDto dto, List<String> row) {
+            String tipo = field(row, "tipo");
+            if (tipo == null) {
+                return;
+            }
+            switch (tipo.toUpperCase(Locale.ROOT)) {
+                case "TAREA" -> {
+                    ProyectoImportDto.Tarea tarea = new ProyectoImportDto.Tarea();
+                    tarea.setTitulo(field(row, "titulo"));
+                    tarea.setDescripcion(field(row, "detalle"));
+                    tarea.setEstado(field(row, "estado"));
+                    tarea.setFechaLimite(dateTime(field(row, "fecha")));
+                    tarea.setAsignadoEmail(field(row, "asignadoemail"));
+                    String etiquetas = field(row, "etiquetas");
+                    if (etiquetas != null) {
+                        Arrays.stream(etiquetas.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).forEach(tarea.getEtiquetas()::add);
+                    }
+                    dto.getTareas().add(tarea);
+                }
+                case "HITO" -> {
+                    ProyectoImportDto.Hito hito = new ProyectoImportDto.Hito();
+                    hito.setNombre(field(row, "titulo"));
+                    hito.setDescripcion(field(row, "detalle"));
+                    hito.setFechaObjetivo(dateTime(field(row, "fecha")));
+                    dto.getHitos().add(hito);
+                }
+                default -> throw new IllegalArgumentException("tipo desconocido: " + tipo);
+            }
+        }
+
+        // Valor de la columna o null si falta o está vacío
+        private String field(List<String> row, String column) {
+            Integer i = columns.get(column);
+            if (i == null || i >= row.size()) {
+                return null;
+            }
+            String value = row.get(i).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        /**
+         * Una fila CSV (RFC 4180): campos entre comillas con "" como comilla escapada y saltos de línea dentro.
+         * Las líneas en blanco se saltan. pendingLine queda en la primera línea de la fila.
+         */
+        private List<String> readRow() throws IOException {
+            String line;
+            do {
+                line = readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            pendingLine = lineNumber;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                line = readLine();
+                if (line == null) {
+                    throw new BadRequestException("CSV con comillas sin cerrar desde la línea " + pendingLine);
+                }
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private static LocalDateTime dateTime(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("fecha inválida: " + value);
+            }
+        }
+
+        private static BigDecimal decimal(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("importe inválido: " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.filter.KeysetCursor;
+import com.alejandro.manageprojects.web.error.BadRequestException;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparablePath;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityGraph;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Paginación keyset (seek) sobre QueryDSL: en lugar de OFFSET + COUNT filtra con
+ * (claveOrden, id) > (últimoValor, últimoId) y pide size + 1 filas para saber si hay más.
+ */
+final class KeysetSupport {
+
+    private KeysetSupport() {}
+
+    /**
+     * Propiedad admitida como clave de orden: su tipo Java y si la columna admite nulos. Para las NOT NULL no se
+     * añaden NULLS LAST ni la rama "o clave nula", y el índice (clave, id) sirve el orden y el rango del seek.
+     */
+    record SortKey(Class<? extends Comparable<?>> type, boolean nullable) {
+
+        static SortKey notNull(Class<? extends Comparable<?>> type) {
+            return new SortKey(type, false);
+        }
+
+        static SortKey nullable(Class<? extends Comparable<?>> type) {
+            return new SortKey(type, true);
+        }
+    }
+
+    /**
+     * Ejecuta la consulta keyset y mapea el resultado.
+     *
+     * @param fetchGraph plan de carga aplicado a la consulta de la página (puede ser null)
+     * @param sortable propiedades permitidas como clave de orden, con su tipo y nulabilidad
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <E, D> CursorPageDto<D> fetch(JPAQueryFactory queryFactory,
+                                         PathBuilder<E> root,
+                                         EntityGraph<?> fetchGraph,
+                                         Predicate predicate,
+                                         Pageable page,
+                                         String cursorToken,
+                                         Map<String, SortKey> sortable,
+                                         Function<E, D> mapper) {
+        Sort.Order order = resolveOrder(page.getSort(), sortable);
+        String property = order.getProperty();
+        boolean asc = order.isAscending();
+        KeysetCursor cursor = KeysetCursor.decode(cursorToken);
+        if (cursor != null && !cursor.property().equals(property)) {
+            throw new BadRequestException("El cursor no corresponde al orden solicitado: " + property);
+        }
+
+        NumberPath<Long> id = root.getNumber("id", Long.class);
+        List<OrderSpecifier<?>> orderBy = new ArrayList<>(2);
+        BooleanExpression seek = null;
+        if ("id".equals(property)) {
+            if (cursor != null) {
+                seek = asc ? id.gt(cursor.id()) : id.lt(cursor.id());
+            }
+        } else {
+            SortKey sortKey = sortable.get(property);
+            Class<? extends Comparable> type = sortKey.type();
+            ComparablePath key = root.getComparable(property, type);
+            orderBy.add(new OrderSpecifier(asc ? Order.ASC : Order.DESC, key,
+                    sortKey.nullable() ? OrderSpecifier.NullHandling.NullsLast : OrderSpecifier.NullHandling.Default));
+            if (cursor != null) {
+                seek = seekAfter(key, id, asc, sortKey.nullable(), toValue(cursor.value(), type), cursor.id());
+            }
+        }
+        orderBy.add(new OrderSpecifier<>(asc ? Order.ASC : Order.DESC, id));
+
+        int size = page.getPageSize();
+        JPAQuery<E> query = queryFactory.selectFrom(root)
+                .where(predicate, seek)
+                .orderBy(orderBy.toArray(OrderSpecifier[]::new))
+                .limit(size + 1L);
+        if (fetchGraph != null) {
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, fetchGraph);
+        }
+        List<E> rows = query.fetch();
+
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasNext) {
+            E last = content.get(content.size() - 1);
+            BeanWrapperImpl bw = new BeanWrapperImpl(last);
+            Object lastValue = bw.getPropertyValue(property);
+            Long lastId = (Long) bw.getPropertyValue("id");
+            next = new KeysetCursor(property, lastValue == null ? null : toToken(lastValue), lastId).encode();
+        }
+        return new CursorPageDto<>(content.stream().map(mapper).toList(), size, hasNext, next);
+    }
+
+    // Los nulos van al final: tras el último no nulo se recorren los nulos ordenados solo por id.
+    // Sin nulos posibles queda solo la comparación de tuplas, que el índice (clave, id) resuelve como rango
+    @SuppressWarnings({"rawtypes"})
+    private static BooleanExpression seekAfter(ComparablePath key, NumberPath<Long> id, boolean asc, boolean nullable,
+                                               Comparable value, long lastId) {
+        if (value == null) {
+            return key.isNull().and(asc ? id.gt(lastId) : id.lt(lastId));
+        }
+        String op = asc ? ">" : "<";
+        // En la plantilla el parámetro no hereda el tipo de la columna: los enum (EnumType.STRING) van por nombre
+        Object bound = value instanceof Enum<?> e ? e.name() : value;
+        BooleanExpression tuple = Expressions.booleanTemplate("({0}, {1}) " + op + " ({2}, {3})", key, id, bound, lastId);
+        return nullable ? tuple.or(key.isNull()) : tuple;
+    }
+
+    private static Sort.Order resolveOrder(Sort sort, Map<String, SortKey> sortable) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return Sort.Order.asc("id");
+        }
+        if (orders.size() > 1) {
+            throw new BadRequestException("La paginación por cursor admite un único criterio de orden");
+        }
+        Sort.Order order = orders.get(0);
+        if (!"id".equals(order.getProperty()) && !sortable.containsKey(order.getProperty())) {
+            throw new BadRequestException("Orden no soportado en paginación por cursor: " + order.getProperty());
+        }
+        return order;
+    }
+
+    private static String toToken(Object value) {
+        return value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable toValue(String raw, Class<? extends Comparable> type) {
+        if (raw == null) return null;
+        try {
+            if (type == String.class) return raw;
+            if (type == LocalDateTime.class) return LocalDateTime.parse(raw);
+            if (type == Long.class) return Long.valueOf(raw);
+            if (type.isEnum()) return Enum.valueOf((Class<? extends Enum>) type, raw);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor inválido", e);
+        }
+        throw new IllegalStateException("Tipo de clave keyset no soportado: " + type.getName());
+    }
+}
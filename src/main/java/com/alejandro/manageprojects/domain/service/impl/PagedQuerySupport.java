@@ -0,0 +1,208 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
+import com.alejandro.manageprojects.domain.query.CompiledQueryRegistry;
+import com.alejandro.manageprojects.domain.query.FilterShape;
+import com.alejandro.manageprojects.web.error.BadRequestException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Paginación por OFFSET con total opcional: pide size + 1 filas para saber si hay más y calcula el total
+ * según el TotalMode pedido, evitando el COUNT exacto cuando el cliente no lo necesita.
+ */
+@Slf4j
+final class PagedQuerySupport {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private PagedQuerySupport() {}
+
+    /**
+     * Ejecuta la consulta de la página y calcula el total.
+     *
+     * @param table      tabla física de la entidad, para la estimación del planificador
+     * @param fetchGraph plan de carga aplicado a la consulta de la página (puede ser null)
+     * @param cap        umbral de los modos CAPPED y ESTIMATE con filtros
+     */
+    static <E, D> PageResultDto<D> fetch(JPAQueryFactory queryFactory,
+                                         EntityManager entityManager,
+                                         PathBuilder<E> root,
+                                         String table,
+                                         EntityGraph<?> fetchGraph,
+                                         Predicate predicate,
+                                         Pageable page,
+                                         TotalMode mode,
+                                         int cap,
+                                         Function<E, D> mapper) {
+        int size = page.getPageSize();
+        JPAQuery<E> query = queryFactory.selectFrom(root).where(predicate);
+        if (fetchGraph != null) {
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, fetchGraph);
+        }
+        new Querydsl(entityManager, root).applySorting(page.getSort(), query);
+        List<E> rows = query.offset(page.getOffset()).limit(size + 1L).fetch();
+
+        boolean hasNext = rows.size() > size;
+        // Lista mutable: el resultado se guarda en QueryResultCache y Stream.toList() no se puede leer de vuelta
+        List<D> content = (hasNext ? rows.subList(0, size) : rows).stream().map(mapper).collect(Collectors.toList());
+        // Cota inferior conocida sin consultar: lo ya recorrido más lo devuelto (y una fila más si hay siguiente)
+        long seen = page.getOffset() + content.size() + (hasNext ? 1 : 0);
+        boolean lastPage = !hasNext && (!content.isEmpty() || page.getOffset() == 0);
+
+        Long total = null;
+        boolean exact = false;
+        TotalMode applied = mode;
+        if (mode != TotalMode.NONE && lastPage) {
+            total = seen;
+            exact = true;
+        } else if (mode == TotalMode.EXACT) {
+            total = queryFactory.select(root.count()).from(root).where(predicate).fetchOne();
+            exact = true;
+        } else if (mode == TotalMode.ESTIMATE) {
+            // Sin filtros basta pg_class; con filtros, las filas que el planificador estima para el predicado
+            long estimate = hasFilter(predicate)
+                    ? estimateFilteredRows(entityManager, root, predicate)
+                    : estimateRows(entityManager, table);
+            if (estimate >= 0) {
+                total = Math.max(estimate, seen);
+            } else {
+                applied = TotalMode.CAPPED;
+            }
+        }
+        if (applied == TotalMode.CAPPED && total == null) {
+            // Se leen como mucho cap + 1 ids: si no se supera el umbral el recuento es exacto
+            long counted = queryFactory.select(root.getNumber("id", Long.class)).from(root)
+                    .where(predicate)
+                    .limit(cap + 1L)
+                    .fetch()
+                    .size();
+            exact = counted <= cap;
+            total = exact ? counted : Math.max(cap, seen);
+        }
+        return new PageResultDto<>(content, page.getPageNumber(), size, hasNext, total, exact, applied.name());
+    }
+
+    /**
+     * Página estándar (con COUNT) resuelta desde el registro de consultas compiladas: la consulta de la página
+     * se compila por forma de filtro y orden, el COUNT por forma; cada petición solo enlaza valores.
+     *
+     * @param name      prefijo de las consultas en el registro (name.page / name.count)
+     * @param predicate predicado con los Param de la forma, solo se invoca al compilar
+     */
+    static <E> Page<E> fetchCompiled(CompiledQueryRegistry compiledQueries,
+                                     JPAQueryFactory queryFactory,
+                                     EntityManager entityManager,
+                                     String name,
+                                     PathBuilder<E> root,
+                                     FilterShape shape,
+                                     Supplier<Predicate> predicate,
+                                     EntityGraph<?> fetchGraph,
+                                     Pageable page) {
+        @SuppressWarnings("unchecked")
+        Class<E> type = (Class<E>) root.getType();
+        TypedQuery<E> query = compiledQueries.query(name + ".page", shape, sortVariant(type, page.getSort()), type,
+                () -> new Querydsl(entityManager, root).applySorting(page.getSort(), queryFactory.selectFrom(root).where(predicate.get())));
+        if (fetchGraph != null) {
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, fetchGraph);
+        }
+        if (page.isPaged()) {
+            query.setFirstResult((int) page.getOffset()).setMaxResults(page.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), page,
+                () -> compiledQueries.query(name + ".count", shape, "", Long.class,
+                        () -> queryFactory.select(root.count()).from(root).where(predicate.get())).getSingleResult());
+    }
+
+    /**
+     * Clave del orden en el registro, construida solo con propiedades que existen en la entidad: un orden
+     * desconocido es un 400 y no llega a compilarse ni a ocupar una entrada del registro.
+     */
+    private static String sortVariant(Class<?> type, Sort sort) {
+        StringBuilder variant = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String property;
+            try {
+                property = PropertyPath.from(order.getProperty(), type).toDotPath();
+            } catch (PropertyReferenceException e) {
+                throw new BadRequestException("Orden no soportado: " + order.getProperty());
+            }
+            variant.append(property).append(' ').append(order.getDirection())
+                    .append(order.isIgnoreCase() ? " ic" : "")
+                    .append(' ').append(order.getNullHandling()).append(',');
+        }
+        return variant.toString();
+    }
+
+    // Forma cacheable de una página: PageImpl no se puede leer de vuelta de JSON y su contenido es inmodificable
+    static <T> PageResultDto<T> toCacheable(Page<T> page) {
+        return new PageResultDto<>(new ArrayList<>(page.getContent()), page.getNumber(), page.getSize(), page.hasNext(),
+                page.getTotalElements(), true, TotalMode.EXACT.name());
+    }
+
+    static <T> Page<T> fromCacheable(PageResultDto<T> cached, Pageable page) {
+        return new PageImpl<>(cached.getContent(), page, cached.getTotalElements());
+    }
+
+    private static boolean hasFilter(Predicate predicate) {
+        if (predicate == null) return false;
+        return !(predicate instanceof BooleanBuilder builder) || builder.hasValue();
+    }
+
+    /**
+     * Filas estimadas por el planificador para la consulta filtrada, con los valores enlazados: EXPLAIN (FORMAT JSON)
+     * de la misma consulta sin orden ni límite y "Plan Rows" del nodo raíz. La SQL la genera Hibernate y se prefija
+     * en una sesión aparte (el inspector de sentencias va ligado a la conexión); la selección es texto para que la fila del plan se lea como
+     * resultado. -1 si no se puede estimar (el llamante cuenta hasta el umbral).
+     */
+    private static long estimateFilteredRows(EntityManager entityManager, PathBuilder<?> root, Predicate predicate) {
+        try (Session explain = entityManager.unwrap(Session.class).getSessionFactory().withOptions()
+                .statementInspector(sql -> "explain (format json) " + sql)
+                .openSession()) {
+            List<String> plan = new JPAQueryFactory(explain)
+                    .select(root.getNumber("id", Long.class).stringValue())
+                    .from(root)
+                    .where(predicate)
+                    .fetch();
+            JsonNode rows = JSON.readTree(plan.get(0)).path(0).path("Plan").path("Plan Rows");
+            return rows.isNumber() ? rows.asLong() : -1;
+        } catch (Exception e) {
+            log.debug("[PagedQuerySupport] estimateFilteredRows - Sin estimación del planificador: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // reltuples es -1 si la tabla nunca se ha analizado (PostgreSQL 14+)
+    private static long estimateRows(EntityManager entityManager, String table) {
+        Object value = entityManager.createNativeQuery("select cast(reltuples as bigint) from pg_class where oid = cast(:tabla as regclass)")
+                .setParameter("tabla", table)
+                .getSingleResult();
+        return ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,271 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.config.cache.CacheInvalidator;
+import com.alejandro.manageprojects.config.cache.QueryResultCache;
+import com.alejandro.manageprojects.domain.dto.ImportResultDto;
+import com.alejandro.manageprojects.domain.dto.ProyectoImportDto;
+import com.alejandro.manageprojects.domain.entity.Etiqueta;
+import com.alejandro.manageprojects.domain.entity.Hito;
+import com.alejandro.manageprojects.domain.entity.Presupuesto;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.QEtiqueta;
+import com.alejandro.manageprojects.domain.entity.QUsuario;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.alejandro.manageprojects.domain.entity.Usuario;
+import com.alejandro.manageprojects.domain.service.ProyectoImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importación masiva de proyectos. El cuerpo se lee registro a registro (ImportRecordReader) y los registros
+ * válidos se confirman en bloques de app.import.chunk-size proyectos, cada uno en su transacción, con los inserts
+ * en lotes JDBC (ids por secuencia). Usuarios (por email) y etiquetas (por nombre) se resuelven con mapas en memoria
+ * cargados al empezar; las etiquetas que no existen se crean. Si un bloque falla en base de datos se repite registro
+ * a registro para quedarse solo con los que fallan: un registro erróneo nunca aborta la carga.
+ */
+@Slf4j
+@Service
+public class ProyectoImportServiceImpl implements ProyectoImportService {
+
+    private final EntityManager entityManager;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final QueryResultCache queryResults;
+    private final ObjectReader json;
+
+    @Value("${app.import.chunk-size:200}")
+    private int chunkSize;
+
+    // Errores detallados en la respuesta; el resto solo se cuenta
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ProyectoImportServiceImpl(EntityManager entityManager,
+                                     JPAQueryFactory queryFactory,
+                                     PlatformTransactionManager transactionManager,
+                                     CacheInvalidator cacheInvalidator,
+                                     QueryResultCache queryResults,
+                                     ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.queryFactory = queryFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheInvalidator = cacheInvalidator;
+        this.queryResults = queryResults;
+        this.json = objectMapper.readerFor(ProyectoImportDto.class);
+    }
+
+    // Claves naturales (en minúsculas) -> id
+    private record Lookups(Map<String, Long> usuarios, Map<String, Long> etiquetas) {}
+
+    private record Chunk(long tareas, long hitos, Map<String, Etiqueta> etiquetasNuevas) {}
+
+    @Override
+    public ImportResultDto importProyectos(InputStream body, Format format) {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        ImportRecordReader records = format == Format.CSV ? ImportRecordReader.csv(reader) : ImportRecordReader.ndjson(reader, json);
+        Lookups lookups = loadLookups();
+        log.info("[ProyectoImportService] importProyectos - Formato {}, bloques de {} proyectos; {} usuarios y {} etiquetas en memoria.",
+                format, chunkSize, lookups.usuarios().size(), lookups.etiquetas().size());
+
+        ImportResultDto result = new ImportResultDto();
+        List<ImportRecordReader.Record> chunk = new ArrayList<>(chunkSize);
+        while (records.hasNext()) {
+            ImportRecordReader.Record record = records.next();
+            result.setProcesados(result.getProcesados() + 1);
+            String error = record.error() != null ? record.error() : validate(record.value(), lookups);
+            if (error != null) {
+                fail(result, record.line(), error);
+                continue;
+            }
+            chunk.add(record);
+            if (chunk.size() == chunkSize) {
+                write(chunk, lookups, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, lookups, result);
+        }
+        log.info("[ProyectoImportService] importProyectos - Registros: {}, importados: {}, tareas: {}, hitos: {}, fallidos: {} en {} ms",
+                result.getProcesados(), result.getImportados(), result.getTareas(), result.getHitos(), result.getFallidos(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private Lookups loadLookups() {
+        return transactionTemplate.execute(status -> {
+            QUsuario u = QUsuario.usuario;
+            QEtiqueta e = QEtiqueta.etiqueta;
+            Map<String, Long> usuarios = new HashMap<>();
+            for (Tuple row : queryFactory.select(u.id, u.email).from(u).fetch()) {
+                usuarios.put(row.get(u.email).toLowerCase(Locale.ROOT), row.get(u.id));
+            }
+            Map<String, Long> etiquetas = new HashMap<>();
+            for (Tuple row : queryFactory.select(e.id, e.nombre).from(e).fetch()) {
+                etiquetas.put(row.get(e.nombre).toLowerCase(Locale.ROOT), row.get(e.id));
+            }
+            return new Lookups(usuarios, etiquetas);
+        });
+    }
+
+    // Comprobaciones que no necesitan la base de datos; null si el registro es válido
+    private String validate(ProyectoImportDto dto, Lookups lookups) {
+        if (isBlank(dto.getNombre())) {
+            return "Falta el nombre del proyecto";
+        }
+        if (dto.getPresupuesto() != null && dto.getPresupuesto().getMontoTotal() == null) {
+            return "Presupuesto sin montoTotal";
+        }
+        for (ProyectoImportDto.Hito hito : dto.getHitos()) {
+            if (isBlank(hito.getNombre())) {
+                return "Hito sin nombre";
+            }
+        }
+        for (ProyectoImportDto.Tarea tarea : dto.getTareas()) {
+            if (isBlank(tarea.getTitulo())) {
+                return "Tarea sin título";
+            }
+            if (tarea.getEstado() != null) {
+                try {
+                    Tarea.Estado.valueOf(tarea.getEstado().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    return "Estado de tarea desconocido: " + tarea.getEstado();
+                }
+            }
+            if (tarea.getAsignadoEmail() != null && !lookups.usuarios().containsKey(tarea.getAsignadoEmail().toLowerCase(Locale.ROOT))) {
+                return "Usuario no encontrado: " + tarea.getAsignadoEmail();
+            }
+            if (tarea.getEtiquetas().stream().anyMatch(ProyectoImportServiceImpl::isBlank)) {
+                return "Etiqueta sin nombre en la tarea " + tarea.getTitulo();
+            }
+        }
+        return null;
+    }
+
+    // Confirma el bloque; si falla, lo repite registro a registro para aislar los que fallan
+    private void write(List<ImportRecordReader.Record> chunk, Lookups lookups, ImportResultDto result) {
+        try {
+            Chunk written = transactionTemplate.execute(status -> persist(chunk, lookups));
+            written.etiquetasNuevas().forEach((nombre, etiqueta) -> lookups.etiquetas().put(nombre, etiqueta.getId()));
+            result.setImportados(result.getImportados() + chunk.size());
+            result.setTareas(result.getTareas() + written.tareas());
+            result.setHitos(result.getHitos() + written.hitos());
+            result.setEtiquetasCreadas(result.getEtiquetasCreadas() + written.etiquetasNuevas().size());
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                fail(result, chunk.get(0).line(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                return;
+            }
+            log.warn("[ProyectoImportService] write - Bloque de {} registros desde la línea {} rechazado, se reintenta registro a registro: {}",
+                    chunk.size(), chunk.get(0).line(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (ImportRecordReader.Record record : chunk) {
+                write(List.of(record), lookups, result);
+            }
+        }
+    }
+
+    private Chunk persist(List<ImportRecordReader.Record> chunk, Lookups lookups) {
+        Map<String, Etiqueta> etiquetasNuevas = new HashMap<>();
+        long tareas = 0;
+        long hitos = 0;
+        for (ImportRecordReader.Record record : chunk) {
+            Proyecto proyecto = toEntity(record.value(), lookups, etiquetasNuevas);
+            entityManager.persist(proyecto);
+            tareas += proyecto.getTareas().size();
+            hitos += proyecto.getHitos().size();
+        }
+        entityManager.flush();
+        queryResults.invalidateAfterCommit("proyecto", "tarea");
+        cacheInvalidator.evictAfterCommit(Map.of("proyectos_all", List.of("all"), "tareas_all", List.of("all")));
+        return new Chunk(tareas, hitos, etiquetasNuevas);
+    }
+
+    private Proyecto toEntity(ProyectoImportDto dto, Lookups lookups, Map<String, Etiqueta> etiquetasNuevas) {
+        Proyecto proyecto = new Proyecto();
+        proyecto.setNombre(dto.getNombre());
+        proyecto.setDescripcion(dto.getDescripcion());
+        proyecto.setFechaInicio(dto.getFechaInicio());
+        proyecto.setFechaFin(dto.getFechaFin());
+        if (dto.getPresupuesto() != null) {
+            Presupuesto presupuesto = new Presupuesto();
+            presupuesto.setMontoTotal(dto.getPresupuesto().getMontoTotal());
+            presupuesto.setGastado(dto.getPresupuesto().getGastado());
+            presupuesto.setProyecto(proyecto);
+            proyecto.setPresupuesto(presupuesto);
+        }
+        for (ProyectoImportDto.Hito h : dto.getHitos()) {
+            Hito hito = new Hito();
+            hito.setNombre(h.getNombre());
+            hito.setDescripcion(h.getDescripcion());
+            hito.setFechaObjetivo(h.getFechaObjetivo());
+            hito.setProyecto(proyecto);
+            proyecto.getHitos().add(hito);
+        }
+        for (ProyectoImportDto.Tarea t : dto.getTareas()) {
+            Tarea tarea = new Tarea();
+            tarea.setTitulo(t.getTitulo());
+            tarea.setDescripcion(t.getDescripcion());
+            if (t.getEstado() != null) {
+                tarea.setEstado(Tarea.Estado.valueOf(t.getEstado().toUpperCase(Locale.ROOT)));
+            }
+            tarea.setFechaLimite(t.getFechaLimite());
+            tarea.setProyecto(proyecto);
+            if (t.getAsignadoEmail() != null) {
+                Long usuarioId = lookups.usuarios().get(t.getAsignadoEmail().toLowerCase(Locale.ROOT));
+                tarea.setAsignadoA(entityManager.getReference(Usuario.class, usuarioId));
+            }
+            for (String nombre : t.getEtiquetas()) {
+                tarea.getEtiquetas().add(etiqueta(nombre, lookups, etiquetasNuevas));
+            }
+            proyecto.getTareas().add(tarea);
+        }
+        return proyecto;
+    }
+
+    // Etiqueta existente por referencia (sin SELECT) o nueva, creada una sola vez por bloque
+    private Etiqueta etiqueta(String nombre, Lookups lookups, Map<String, Etiqueta> etiquetasNuevas) {
+        String key = nombre.trim().toLowerCase(Locale.ROOT);
+        Long id = lookups.etiquetas().get(key);
+        if (id != null) {
+            return entityManager.getReference(Etiqueta.class, id);
+        }
+        return etiquetasNuevas.computeIfAbsent(key, k -> {
+            Etiqueta etiqueta = new Etiqueta();
+            etiqueta.setNombre(nombre.trim());
+            entityManager.persist(etiqueta);
+            return etiqueta;
+        });
+    }
+
+    private void fail(ImportResultDto result, long line, String message) {
+        result.setFallidos(result.getFallidos() + 1);
+        if (result.getErrores().size() < maxErrors) {
+            result.getErrores().add(new ImportResultDto.RowError(line, message));
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
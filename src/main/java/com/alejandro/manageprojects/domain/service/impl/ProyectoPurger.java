@@ -0,0 +1,117 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.config.cache.CacheInvalidator;
+import com.alejandro.manageprojects.config.cache.QueryResultCache;
+import com.alejandro.manageprojects.domain.entity.QProyecto;
+import com.alejandro.manageprojects.domain.entity.QTarea;
+import com.alejandro.manageprojects.domain.service.AuditTrailWriter;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Borrado masivo de proyectos con sus dependientes. Un DELETE JPQL sobre proyectos no aplica las cascadas
+ * (orphanRemoval) y choca con las claves ajenas de los hijos, ni deja rastro en Envers; aquí cada bloque de
+ * proyectos se borra de abajo arriba con un DELETE por tabla, registrando antes las revisiones de borrado con un
+ * INSERT ... SELECT por tabla (AuditTrailWriter). Cada bloque se confirma en su propia transacción y revisión.
+ */
+@Slf4j
+@Component
+public class ProyectoPurger {
+
+    private record Level(String table, String condition) {}
+
+    // Orden de borrado: primero lo que referencia a tareas, luego los hijos del proyecto y por último el proyecto
+    private static final List<Level> LEVELS = List.of(
+            new Level("tarea_etiqueta", "tarea_id IN (SELECT id FROM tareas WHERE proyecto_id IN (:ids))"),
+            new Level("tareas", "proyecto_id IN (:ids)"),
+            new Level("comentarios", "proyecto_id IN (:ids)"),
+            new Level("hitos", "proyecto_id IN (:ids)"),
+            new Level("miembros_proyecto", "proyecto_id IN (:ids)"),
+            new Level("presupuestos", "proyecto_id IN (:ids)"),
+            new Level("proyectos", "id IN (:ids)"));
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager entityManager;
+    private final AuditTrailWriter auditTrail;
+    private final CacheInvalidator cacheInvalidator;
+    private final QueryResultCache queryResults;
+    private final TransactionTemplate transactionTemplate;
+
+    // Proyectos por bloque (y por transacción)
+    @Value("${app.purge.chunk-size:200}")
+    private int chunkSize;
+
+    public ProyectoPurger(JPAQueryFactory queryFactory,
+                          EntityManager entityManager,
+                          AuditTrailWriter auditTrail,
+                          CacheInvalidator cacheInvalidator,
+                          QueryResultCache queryResults,
+                          PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.entityManager = entityManager;
+        this.auditTrail = auditTrail;
+        this.cacheInvalidator = cacheInvalidator;
+        this.queryResults = queryResults;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Borra por bloques todos los proyectos que cumplen el predicado y devuelve cuántos se han borrado.
+     * Debe llamarse fuera de una transacción: un fallo deja confirmados los bloques anteriores.
+     */
+    public long purge(Predicate where) {
+        QProyecto p = QProyecto.proyecto;
+        long deleted = 0;
+        long after = 0;
+        while (true) {
+            long from = after;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                // El bloqueo impide que se añadan hijos entre la selección y el borrado (la FK bloquea el proyecto)
+                List<Long> chunk = queryFactory.select(p.id).from(p)
+                        .where(where, p.id.gt(from))
+                        .orderBy(p.id.asc())
+                        .limit(chunkSize)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .fetch();
+                if (!chunk.isEmpty()) {
+                    purgeChunk(chunk);
+                }
+                return chunk;
+            });
+            if (ids.isEmpty()) {
+                return deleted;
+            }
+            deleted += ids.size();
+            after = ids.get(ids.size() - 1);
+        }
+    }
+
+    private void purgeChunk(List<Long> ids) {
+        QTarea t = QTarea.tarea;
+        List<Long> tareaIds = queryFactory.select(t.id).from(t).where(t.proyecto().id.in(ids)).fetch();
+        cacheInvalidator.evictAfterCommit(Map.of("proyecto", ids, "tarea", tareaIds,
+                "proyectos_all", List.of("all"), "tareas_all", List.of("all")));
+        cacheInvalidator.evictDependentsAfterCommit("proyecto", ids);
+        cacheInvalidator.evictDependentsAfterCommit("tarea", tareaIds);
+        queryResults.invalidateAfterCommit("proyecto", "tarea");
+        for (Level level : LEVELS) {
+            auditTrail.recordDeleted(level.table(), level.condition(), ids);
+            int rows = entityManager.createNativeQuery("DELETE FROM " + level.table() + " WHERE " + level.condition())
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+            log.debug("[ProyectoPurger] purgeChunk - {}: {} filas", level.table(), rows);
+        }
+        log.info("[ProyectoPurger] purgeChunk - Proyectos {}..{} eliminados ({}) con {} tareas",
+                ids.get(0), ids.get(ids.size() - 1), ids.size(), tareaIds.size());
+    }
+}
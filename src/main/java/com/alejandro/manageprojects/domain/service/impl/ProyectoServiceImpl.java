@@ -1,27 +1,59 @@
 package com.alejandro.manageprojects.domain.service.impl;
 
+import com.alejandro.manageprojects.config.cache.CacheDependencies;
+import com.alejandro.manageprojects.config.cache.CacheInvalidator;
+import com.alejandro.manageprojects.config.cache.CacheRefresher;
+import com.alejandro.manageprojects.config.cache.QueryResultCache;
+import com.alejandro.manageprojects.domain.dto.ComentarioDto;
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
 import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.dto.ProyectoResumenDto;
 import com.alejandro.manageprojects.domain.entity.*;
 import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
 import com.alejandro.manageprojects.domain.mapper.ProyectoMapper;
+import com.alejandro.manageprojects.domain.query.CompiledQueryRegistry;
+import com.alejandro.manageprojects.domain.query.FilterShape;
 import com.alejandro.manageprojects.domain.repository.ProyectoRepository;
+import com.alejandro.manageprojects.domain.service.AuditTrailWriter;
 import com.alejandro.manageprojects.domain.service.ProyectoService;
+import com.alejandro.manageprojects.web.error.ConflictException;
 import com.alejandro.manageprojects.web.error.NotFoundException;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.Param;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -34,33 +66,167 @@ public class ProyectoServiceImpl implements ProyectoService {
     private final ProyectoRepository proyectoRepository;
     private final ProyectoMapper proyectoMapper;
     private final JPAQueryFactory queryFactory;
+    private final EntityManager entityManager;
+    private final CompiledQueryRegistry compiledQueries;
+    private final QueryResultCache queryResults;
+    private final CacheRefresher cacheRefresher;
+    private final CacheDependencies cacheDependencies;
+    private final CacheInvalidator cacheInvalidator;
+    private final AuditTrailWriter auditTrail;
+    private final ProyectoPurger purger;
+
+    // Versiones de todo lo que lleva ProyectoDto, en orden de id: tareas (con asignado y etiquetas), comentarios
+    // (con autor), hitos y presupuesto. Cada subconsulta va por los índices de proyecto_id
+    private static final String ETAG_SQL = """
+            SELECT p.version, concat_ws('|',
+                (SELECT string_agg(concat('t', t.id, ':', t.version, ':', t.usuario_asignado_id, ':', u.version, ':',
+                        (SELECT string_agg(te.etiqueta_id::text, ',' ORDER BY te.etiqueta_id)
+                         FROM tarea_etiqueta te WHERE te.tarea_id = t.id)), ';' ORDER BY t.id)
+                 FROM tareas t LEFT JOIN usuarios u ON u.id = t.usuario_asignado_id WHERE t.proyecto_id = p.id),
+                (SELECT string_agg(concat('c', c.id, ':', c.version, ':', c.autor_id, ':', a.version), ';' ORDER BY c.id)
+                 FROM comentarios c LEFT JOIN usuarios a ON a.id = c.autor_id WHERE c.proyecto_id = p.id),
+                (SELECT string_agg(concat('h', h.id, ':', h.version), ';' ORDER BY h.id)
+                 FROM hitos h WHERE h.proyecto_id = p.id),
+                (SELECT concat('p', pr.id, ':', pr.version) FROM presupuestos pr WHERE pr.proyecto_id = p.id))
+            FROM proyectos p WHERE p.id = :id
+            """;
+
+    // Entidades de las que dependen los listados guardados en QueryResultCache (DTO con tareas y miembros)
+    private static final List<String> RESULT_DEPS = List.of("proyecto", "tarea", "usuario");
+    // Tareas sin completar del proyecto p, para los UPDATE en bloque de cierre y reapertura (BulkStatement)
+    private static final String TAREAS_NO_COMPLETADAS = "SELECT 1 FROM tareas t WHERE t.proyecto_id = p.id AND t.estado <> 'COMPLETADA'";
+
+    // Propiedades admitidas como clave de orden en la paginación por cursor
+    private static final Map<String, KeysetSupport.SortKey> KEYSET_SORTABLE = Map.of(
+            "nombre", KeysetSupport.SortKey.notNull(String.class),
+            "fechaInicio", KeysetSupport.SortKey.nullable(LocalDateTime.class),
+            "fechaFin", KeysetSupport.SortKey.nullable(LocalDateTime.class));
+
+    // Parámetros de los filtros dinámicos: la consulta se compila una vez por forma (CompiledQueryRegistry)
+    private static final Param<String> P_NOMBRE = new Param<>(String.class, "nombre");
+    private static final Param<String> P_DESCRIPCION = new Param<>(String.class, "descripcion");
+    private static final Param<LocalDateTime> P_INICIO_DESDE = new Param<>(LocalDateTime.class, "fechaInicioDesde");
+    private static final Param<LocalDateTime> P_INICIO_HASTA = new Param<>(LocalDateTime.class, "fechaInicioHasta");
+    private static final Param<LocalDateTime> P_FIN_DESDE = new Param<>(LocalDateTime.class, "fechaFinDesde");
+    private static final Param<LocalDateTime> P_FIN_HASTA = new Param<>(LocalDateTime.class, "fechaFinHasta");
+    private static final Param<BigDecimal> P_PRESUPUESTO_MIN = new Param<>(BigDecimal.class, "presupuestoMin");
+    private static final Param<BigDecimal> P_PRESUPUESTO_MAX = new Param<>(BigDecimal.class, "presupuestoMax");
+    private static final Param<BigDecimal> P_GASTADO_MAX = new Param<>(BigDecimal.class, "gastadoMax");
+    private static final Param<Integer> P_MIN_TAREAS = new Param<>(Integer.class, "minTareas");
+    private static final Param<Integer> P_MIN_HITOS = new Param<>(Integer.class, "minHitos");
+    private static final Param<Integer> P_MIN_COMENTARIOS = new Param<>(Integer.class, "minComentarios");
+    private static final Param<String> P_MIEMBRO_EMAIL = new Param<>(String.class, "miembroEmail");
+    private static final Param<String> P_SEARCH = new Param<>(String.class, "searchText");
+    // Filtros sobre las tareas del proyecto (por-tareas)
+    private static final Param<Tarea.Estado> P_TAREA_ESTADO = new Param<>(Tarea.Estado.class, "estado");
+    private static final Param<String> P_TAREA_TITULO = new Param<>(String.class, "tituloContiene");
+    private static final Param<String> P_TAREA_ASIGNADO = new Param<>(String.class, "asignadoEmail");
+    private static final Param<String> P_TAREA_ETIQUETA = new Param<>(String.class, "etiquetaNombre");
+
+    // Búsqueda libre sobre el documento search_text mantenido en base de datos (db/search-index.sql)
+    @Value("${app.search.indexed:true}")
+    private boolean indexedSearch;
+
+    // Umbral de los modos de total CAPPED y ESTIMATE (con filtros)
+    @Value("${app.pagination.total-cap:1000}")
+    private int totalCap;
+
+    // Entidades por flush en las altas en lote: coincide con el tamaño de lote JDBC
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
     @Override
     @org.springframework.cache.annotation.CachePut(value = "proyecto", key = "#result.id")
     @org.springframework.cache.annotation.CacheEvict(value = "proyectos_all", key = "'all'")
     public ProyectoDto create(ProyectoDto dto) {
+            queryResults.invalidateAfterCommit("proyecto");
             Proyecto entity = proyectoMapper.toEntity(dto);
             Proyecto saved = proyectoRepository.save(entity);
             return proyectoMapper.toDto(saved);
         }
 
+    @Override
+    @org.springframework.cache.annotation.CacheEvict(value = "proyectos_all", key = "'all'")
+    public List<ProyectoDto> createAll(List<ProyectoDto> dtos) {
+        log.info("[ProyectoService] createAll - Inserta {} proyectos en una transacción, con flush cada {} (lotes JDBC).", dtos.size(), batchSize);
+        queryResults.invalidateAfterCommit("proyecto");
+        List<ProyectoDto> result = new ArrayList<>(dtos.size());
+        List<Proyecto> pending = new ArrayList<>(batchSize);
+        for (ProyectoDto dto : dtos) {
+            Proyecto entity = proyectoMapper.toEntity(dto);
+            if (entity.getPresupuesto() != null) {
+                entity.getPresupuesto().setProyecto(entity);
+            }
+            entityManager.persist(entity);
+            pending.add(entity);
+            if (pending.size() == batchSize) {
+                flushBatch(pending, result);
+            }
+        }
+        flushBatch(pending, result);
+        log.info("[ProyectoService] createAll - Proyectos insertados: {}", result.size());
+        return result;
+    }
+
+    // Envía el lote, mapea sus DTO y vacía el contexto de persistencia para que no crezca con el alta
+    private void flushBatch(List<Proyecto> batch, List<ProyectoDto> result) {
+        entityManager.flush();
+        batch.forEach(p -> result.add(proyectoMapper.toDto(p)));
+        batch.clear();
+        entityManager.clear();
+    }
+
     @Override
     @org.springframework.cache.annotation.CachePut(value = "proyecto", key = "#id")
     @org.springframework.cache.annotation.CacheEvict(value = "proyectos_all", key = "'all'")
     public ProyectoDto update(Long id, ProyectoDto dto) {
             Proyecto entity = proyectoRepository.findById(id)
                     .orElseThrow(() -> new NotFoundException("Proyecto no encontrado: " + id));
+            queryResults.invalidateAfterCommit("proyecto");
             entity.setNombre(dto.getNombre());
             entity.setDescripcion(dto.getDescripcion());
             entity.setFechaInicio(dto.getFechaInicio());
             entity.setFechaFin(dto.getFechaFin());
-            Proyecto saved = proyectoRepository.save(entity);
+            // Flush antes de mapear: el DTO que se cachea lleva la versión ya incrementada (ETag)
+            Proyecto saved = proyectoRepository.saveAndFlush(entity);
             return proyectoMapper.toDto(saved);
         }
 
+    @Override
+    public ProyectoDto update(Long id, long expectedVersion, ProyectoDto dto) {
+        QProyecto p = QProyecto.proyecto;
+        // Un solo UPDATE sin lectura previa: escribe si la versión coincide y alguna columna cambia
+        long updated = new VersionedUpdate(queryFactory.update(p))
+                .set(p.nombre, dto.getNombre())
+                .set(p.descripcion, dto.getDescripcion())
+                .set(p.fechaInicio, dto.getFechaInicio())
+                .set(p.fechaFin, dto.getFechaFin())
+                .execute(p.version, p.id.eq(id).and(p.version.eq(expectedVersion)));
+        if (updated == 0) {
+            // Sin filas: la versión actual decide entre inexistente, If-Match antiguo o valores ya iguales
+            Long current = queryFactory.select(p.version).from(p).where(p.id.eq(id)).fetchOne();
+            if (current == null) {
+                throw new NotFoundException("Proyecto no encontrado: " + id);
+            }
+            if (current != expectedVersion) {
+                throw new ConflictException("El proyecto " + id + " ha cambiado: versión actual " + current + ", If-Match " + expectedVersion);
+            }
+        } else {
+            queryResults.invalidateAfterCommit("proyecto");
+            cacheInvalidator.evictAfterCommit(Map.of("proyecto", List.of(id), "proyectos_all", List.of("all")));
+            auditTrail.recordModified("proyectos", List.of(id));
+        }
+        // Estado persistido (el UPDATE masivo no pasa por el contexto de persistencia, que aún no tiene la fila)
+        ProyectoDto result = proyectoRepository.findById(id)
+                .map(proyectoMapper::toDto)
+                .orElseThrow(() -> new NotFoundException("Proyecto no encontrado: " + id));
+        log.debug("[ProyectoService] update - Proyecto {} con If-Match {}: versión {}", id, expectedVersion, result.getVersion());
+        return result;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    @org.springframework.cache.annotation.Cacheable(value = "proyecto", key = "#id")
+    @org.springframework.cache.annotation.Cacheable(value = "proyecto", key = "#id", sync = true)
     public ProyectoDto getById(Long id) {
             return proyectoRepository.findById(id)
                     .map(proyectoMapper::toDto)
@@ -69,17 +235,52 @@ public class ProyectoServiceImpl implements ProyectoService {
 
     @Override
     @Transactional(readOnly = true)
-    @org.springframework.cache.annotation.Cacheable(value = "proyectos_all", key = "'all'")
+    public String getETag(Long id) {
+        return ResourceTags.of(entityManager, ETAG_SQL, id, "Proyecto no encontrado: ");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @org.springframework.cache.annotation.Cacheable(value = "proyectos_all", key = "'all'", sync = true)
     public List<ProyectoDto> getAll() {
-            return proyectoRepository.findAll().stream().map(proyectoMapper::toDto).toList();
+            return loadAll();
         }
 
+    // Lista mutable: la de Stream.toList() es un tipo final que se cachea sin id de tipo y no se puede leer de vuelta
+    private List<ProyectoDto> loadAll() {
+        return proyectoRepository.findAll().stream().map(proyectoMapper::toDto).collect(Collectors.toList());
+    }
+
+    // Cargas sin caché para el refresco anticipado y el precalentamiento (null si la entidad ya no existe),
+    // y los DTO anidados que se indexan como dependencias de las entradas cacheadas
+    @PostConstruct
+    void registerCacheSupport() {
+        cacheRefresher.register("proyecto", key -> proyectoRepository.findById(Long.valueOf(key)).map(proyectoMapper::toDto).orElse(null));
+        cacheRefresher.register("proyectos_all", key -> loadAll());
+        cacheDependencies.track(ProyectoDto.class, "proyecto", ProyectoDto::getId, p -> Arrays.asList(p.getTareas(), p.getComentarios()));
+        cacheDependencies.traverse(ComentarioDto.class, c -> Collections.singletonList(c.getAutor()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<ProyectoDto> consumer) {
+        log.info("[ProyectoService] streamAll - Recorre QProyecto en streaming con fetch size {} y limpia el contexto de persistencia por bloques.", StreamingQuerySupport.FETCH_SIZE);
+        QProyecto p = QProyecto.proyecto;
+        long count = StreamingQuerySupport.streamAll(entityManager, queryFactory.selectFrom(p)
+                        .orderBy(p.id.asc())
+                        .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO)),
+                proyectoMapper::toDto, consumer);
+        log.info("[ProyectoService] streamAll - Registros emitidos: {}", count);
+        return count;
+    }
+
     @Override
     @org.springframework.cache.annotation.CacheEvict(value = {"proyecto", "proyectos_all"}, allEntries = true, key = "#id")
     public void delete(Long id) {
             if (!proyectoRepository.existsById(id)) {
                 throw new NotFoundException("Proyecto no encontrado: " + id);
             }
+            queryResults.invalidateAfterCommit("proyecto");
             proyectoRepository.deleteById(id);
         }
 
@@ -87,10 +288,7 @@ public class ProyectoServiceImpl implements ProyectoService {
     @Transactional(readOnly = true)
     public List<ProyectoDto> findActivosEnRango(LocalDateTime desde, LocalDateTime hasta) {
             log.info("[ProyectoService] findActivosEnRango - Filtra proyectos activos superponiendo rango de fechas (inicio <= hasta y fin >= desde) usando PathBuilder.");
-        PathBuilder<Proyecto> p = new PathBuilder<>(Proyecto.class, "proyecto");
-        BooleanExpression inicioAntes = (hasta == null) ? null : p.getDateTime("fechaInicio", LocalDateTime.class).loe(hasta);
-        BooleanExpression finDespues = (desde == null) ? null : p.getDateTime("fechaFin", LocalDateTime.class).goe(desde);
-        BooleanExpression predicate = combineAll(inicioAntes, finDespues);
+        BooleanExpression predicate = activosPredicate(desde, hasta);
         Iterable<Proyecto> it = (predicate == null) ? proyectoRepository.findAll() : proyectoRepository.findAll(predicate);
         List<ProyectoDto> list = StreamSupport.stream(it.spliterator(), false)
                 .map(proyectoMapper::toDto)
@@ -104,55 +302,42 @@ public class ProyectoServiceImpl implements ProyectoService {
     @Transactional(readOnly = true)
     public Page<ProyectoDto> getProyectos(Pageable page, ProyectoFilter filter) {
             log.info("[ProyectoService] getProyectos - Construye consulta dinámica con QProyecto aplicando filtros por nombre, descripción, rangos de fechas, presupuesto, email de miembro y búsqueda libre. Soporta paginación y orden.");
-        BooleanBuilder qb = new BooleanBuilder();
-        QProyecto p = QProyecto.proyecto;
+        FilterShape shape = shapeOf(filter);
+
+        log.debug("[ProyectoService] getProyectos - Forma del filtro: {}", shape.key());
+        PageResultDto<ProyectoDto> res = queryResults.get("proyectos_page", RESULT_DEPS,
+                QueryResultCache.keyOf(shape.key(), shape.bindings().values(), indexedSearch, page), () -> {
+                    Page<Proyecto> rows = PagedQuerySupport.fetchCompiled(compiledQueries, queryFactory, entityManager, "proyecto",
+                            new PathBuilder<>(Proyecto.class, "proyecto"), shape, () -> filterPredicate(shape),
+                            entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO), page);
+                    return PagedQuerySupport.toCacheable(rows.map(proyectoMapper::toDto));
+                });
+        log.info("[ProyectoService] getProyectos - Resultado paginado: totalElementos={}, pageSize={}, pageNumber={}", res.getTotalElements(), page.getPageSize(), page.getPageNumber());
+        return PagedQuerySupport.fromCacheable(res, page);
+    }
 
-        if (filter != null) {
-            if (filter.getNombre() != null && !filter.getNombre().isEmpty()) {
-                qb.and(p.nombre.containsIgnoreCase(filter.getNombre()));
-            }
-            if (filter.getDescripcion() != null && !filter.getDescripcion().isEmpty()) {
-                qb.and(p.descripcion.containsIgnoreCase(filter.getDescripcion()));
-            }
-            if (filter.getFechaInicioDesde() != null) {
-                qb.and(p.fechaInicio.goe(filter.getFechaInicioDesde()));
-            }
-            if (filter.getFechaInicioHasta() != null) {
-                qb.and(p.fechaInicio.loe(filter.getFechaInicioHasta()));
-            }
-            if (filter.getFechaFinDesde() != null) {
-                qb.and(p.fechaFin.goe(filter.getFechaFinDesde()));
-            }
-            if (filter.getFechaFinHasta() != null) {
-                qb.and(p.fechaFin.loe(filter.getFechaFinHasta()));
-            }
-            if (filter.getPresupuestoMin() != null) {
-                qb.and(p.presupuesto().montoTotal.goe(filter.getPresupuestoMin()));
-            }
-            if (filter.getPresupuestoMax() != null) {
-                qb.and(p.presupuesto().montoTotal.loe(filter.getPresupuestoMax()));
-            }
-            if (filter.getGastadoMax() != null) {
-                qb.and(p.presupuesto().gastado.loe(filter.getGastadoMax()));
-            }
-            if (filter.getMiembroEmail() != null && !filter.getMiembroEmail().isEmpty()) {
-                qb.and(p.miembros.any().usuario().email.containsIgnoreCase(filter.getMiembroEmail()));
-            }
-            if (filter.getSearchText() != null && !filter.getSearchText().isEmpty()) {
-                BooleanBuilder or = new BooleanBuilder();
-                or.or(p.nombre.containsIgnoreCase(filter.getSearchText()))
-                  .or(p.descripcion.containsIgnoreCase(filter.getSearchText()))
-                  .or(p.tareas.any().titulo.containsIgnoreCase(filter.getSearchText()))
-                  .or(p.hitos.any().nombre.containsIgnoreCase(filter.getSearchText()))
-                  .or(p.comentarios.any().contenido.containsIgnoreCase(filter.getSearchText()));
-                qb.and(or);
-            }
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public PageResultDto<ProyectoDto> getProyectos(Pageable page, ProyectoFilter filter, TotalMode totalMode) {
+        log.info("[ProyectoService] getProyectos - Mismos filtros que la paginación estándar con total en modo {} (umbral {}).", totalMode, totalCap);
+        FilterShape shape = shapeOf(filter);
+        PageResultDto<ProyectoDto> res = queryResults.get("proyectos_page", RESULT_DEPS,
+                QueryResultCache.keyOf(shape.key(), shape.bindings().values(), indexedSearch, page, totalMode, totalCap),
+                () -> PagedQuerySupport.fetch(queryFactory, entityManager, new PathBuilder<>(Proyecto.class, "proyecto"), "proyectos",
+                        entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO), shape.bound(filterPredicate(shape)), page, totalMode, totalCap, proyectoMapper::toDto));
+        log.info("[ProyectoService] getProyectos - Elementos devueltos: {}, hasNext={}, total={} ({})", res.getContent().size(), res.isHasNext(), res.getTotalElements(), res.getTotalMode());
+        return res;
+    }
 
-        log.debug("[ProyectoService] getProyectos - Predicado construido: {}", qb.getValue());
-        Page<Proyecto> res = proyectoRepository.findAll(qb, page);
-        log.info("[ProyectoService] getProyectos - Resultado paginado: totalElementos={}, pageSize={}, pageNumber={}", res.getTotalElements(), page.getPageSize(), page.getPageNumber());
-        return res.map(proyectoMapper::toDto);
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProyectoDto> getProyectosKeyset(String cursor, Pageable page, ProyectoFilter filter) {
+        log.info("[ProyectoService] getProyectosKeyset - Paginación por cursor (keyset) con los mismos filtros que getProyectos, sin OFFSET ni COUNT.");
+        Predicate qb = buildPredicate(filter);
+        CursorPageDto<ProyectoDto> res = KeysetSupport.fetch(queryFactory, new PathBuilder<>(Proyecto.class, "proyecto"),
+                entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO), qb, page, cursor, KEYSET_SORTABLE, proyectoMapper::toDto);
+        log.info("[ProyectoService] getProyectosKeyset - Elementos devueltos: {}, hasNext={}", res.getContent().size(), res.isHasNext());
+        return res;
     }
 
     @Override
@@ -166,39 +351,20 @@ public class ProyectoServiceImpl implements ProyectoService {
         log.info("[ProyectoService] findByTareasConEstadoYRangoQ - Usa QProyecto/QTarea con left join sobre tareas y filtros por estado, título, asignado, etiqueta y rango de fechas del proyecto. Devuelve proyectos distintos.");
         QProyecto p = QProyecto.proyecto;
         QTarea t = QTarea.tarea;
-        BooleanBuilder builder = new BooleanBuilder();
-
-        if (fechaInicioDesde != null) {
-            builder.and(p.fechaInicio.goe(fechaInicioDesde));
-        }
-        if (fechaFinHasta != null) {
-            builder.and(p.fechaFin.loe(fechaFinHasta));
-        }
-        if (estado != null && !estado.isEmpty()) {
-            try {
-                builder.and(t.estado.eq(Tarea.Estado.valueOf(estado)));
-            } catch (IllegalArgumentException ignored) {}
-        }
-        if (tituloContiene != null && !tituloContiene.isEmpty()) {
-            builder.and(t.titulo.containsIgnoreCase(tituloContiene));
-        }
-        if (asignadoEmail != null && !asignadoEmail.isEmpty()) {
-            builder.and(t.asignadoA().email.containsIgnoreCase(asignadoEmail));
-        }
-        if (etiquetaNombre != null && !etiquetaNombre.isEmpty()) {
-            builder.and(t.etiquetas.any().nombre.containsIgnoreCase(etiquetaNombre));
-        }
-
-        log.debug("[ProyectoService] findByTareasConEstadoYRangoQ - Predicado sobre tareas/proyecto: {}", builder.getValue());
-        List<Proyecto> proyectos = queryFactory
-                .selectDistinct(p)
-                .from(p)
-                .leftJoin(p.tareas, t)
-                .where(builder)
-                .fetch();
+        FilterShape shape = tareasShape(estado, fechaInicioDesde, fechaFinHasta, tituloContiene, asignadoEmail, etiquetaNombre);
+
+        log.debug("[ProyectoService] findByTareasConEstadoYRangoQ - Forma del filtro sobre tareas/proyecto: {}", shape.key());
+        List<ProyectoDto> proyectos = queryResults.get("proyectos_por_tareas", RESULT_DEPS,
+                QueryResultCache.keyOf(shape.key(), shape.bindings().values()),
+                () -> compiledQueries.query("proyecto.porTareas", shape, "", Proyecto.class,
+                                () -> queryFactory.selectDistinct(p).from(p).leftJoin(p.tareas, t).where(tareasPredicate(shape)))
+                        .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO))
+                        .getResultStream()
+                        .map(proyectoMapper::toDto)
+                        .collect(Collectors.toList()));
         log.info("[ProyectoService] findByTareasConEstadoYRangoQ - Proyectos encontrados: {}", proyectos.size());
 
-        return proyectos.stream().map(proyectoMapper::toDto).toList();
+        return proyectos;
     }
 
     @Override
@@ -210,71 +376,31 @@ public class ProyectoServiceImpl implements ProyectoService {
                                                                String asignadoEmail,
                                                                String etiquetaNombre) {
         log.info("[ProyectoService] findByTareasConEstadoYRangoStream - Usa PathBuilder (stream path) navegando a tareas.any() con filtros por estado, título, asignado y etiqueta, combinado con rango de fechas de proyecto.");
-        PathBuilder<Proyecto> p = new PathBuilder<>(Proyecto.class, "proyecto");
-        BooleanExpression predicate = null;
-
-        // Filtros de fechas del proyecto
-        BooleanExpression byInicio = (fechaInicioDesde == null) ? null : p.getDateTime("fechaInicio", LocalDateTime.class).goe(fechaInicioDesde);
-        BooleanExpression byFin = (fechaFinHasta == null) ? null : p.getDateTime("fechaFin", LocalDateTime.class).loe(fechaFinHasta);
-        predicate = combineAll(byInicio, byFin);
-
-        // Subruta a tareas (any)
-        var tareasAny = p.getSet("tareas", Tarea.class).any();
-
-        BooleanExpression byEstado = null;
-        if (estado != null && !estado.isEmpty()) {
-            try {
-                byEstado = tareasAny.getEnum("estado", Tarea.Estado.class)
-                        .eq(Tarea.Estado.valueOf(estado));
-            } catch (IllegalArgumentException ignored) {}
-        }
-        BooleanExpression byTitulo = (tituloContiene == null || tituloContiene.isEmpty()) ? null :
-                tareasAny.getString("titulo").containsIgnoreCase(tituloContiene);
-
-        BooleanExpression byAsignado = null;
-        if (asignadoEmail != null && !asignadoEmail.isEmpty()) {
-            byAsignado = tareasAny.get("asignadoA", Usuario.class)
-                    .getString("email").containsIgnoreCase(asignadoEmail);
-        }
-        BooleanExpression byEtiqueta = null;
-        if (etiquetaNombre != null && !etiquetaNombre.isEmpty()) {
-            byEtiqueta = tareasAny.getSet("etiquetas", Etiqueta.class)
-                    .any().getString("nombre").containsIgnoreCase(etiquetaNombre);
-        }
-
-        predicate = combineAll(predicate, byEstado, byTitulo, byAsignado, byEtiqueta);
-
-        Iterable<Proyecto> it = (predicate == null) ? proyectoRepository.findAll() : proyectoRepository.findAll(predicate);
-        List<ProyectoDto> dtos = StreamSupport.stream(it.spliterator(), false)
+        FilterShape shape = tareasShape(estado, fechaInicioDesde, fechaFinHasta, tituloContiene, asignadoEmail, etiquetaNombre);
+        List<ProyectoDto> dtos = compiledQueries.query("proyecto.porTareasStream", shape, "", Proyecto.class,
+                        () -> queryFactory.selectFrom(new PathBuilder<>(Proyecto.class, "proyecto")).where(tareasAnyPredicate(shape)))
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO))
+                .getResultStream()
                 .map(proyectoMapper::toDto)
                 .collect(Collectors.toList());
-        log.debug("[ProyectoService] findByTareasConEstadoYRangoStream - Predicado: {}", predicate);
+        log.debug("[ProyectoService] findByTareasConEstadoYRangoStream - Forma del filtro: {}", shape.key());
         log.info("[ProyectoService] findByTareasConEstadoYRangoStream - Proyectos encontrados: {}", dtos.size());
         return dtos;
     }
 
     @Override
     public long cerrarProyectosConTareasCompletadas(LocalDateTime fechaFin) {
-        QProyecto p = QProyecto.proyecto;
-        QTarea t = QTarea.tarea;
-
+        queryResults.invalidateAfterCommit("proyecto");
         // Actualiza fechaFin donde NO existan tareas no completadas
         log.info("[ProyectoService] cerrarProyectosConTareasCompletadas - Actualiza fechaFin={} en proyectos donde no existen tareas pendientes (NOT EXISTS tareas con estado != COMPLETADA).", fechaFin);
-        long updated = queryFactory.update(p)
-                .set(p.fechaFin, fechaFin)
-                .where(
-                        JPAExpressions.selectOne()
-                                .from(t)
-                                .where(t.proyecto().id.eq(p.id)
-                                        .and(t.estado.ne(Tarea.Estado.COMPLETADA)))
-                                .notExists()
-                )
-                .execute();
+        long updated = updateAffected(new BulkStatement("proyectos p").where("NOT EXISTS (" + TAREAS_NO_COMPLETADAS + ")"),
+                "fecha_fin = :fechaFin", Map.of("fechaFin", fechaFin));
         log.info("[ProyectoService] cerrarProyectosConTareasCompletadas - Proyectos actualizados: {}", updated);
         return updated;
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public long eliminarProyectosSinTareasEntreFechas(LocalDateTime desde, LocalDateTime hasta) {
         QProyecto p = QProyecto.proyecto;
         QTarea t = QTarea.tarea;
@@ -292,9 +418,8 @@ public class ProyectoServiceImpl implements ProyectoService {
                         .notExists()
         );
         log.debug("[ProyectoService] eliminarProyectosSinTareasEntreFechas - Predicado: {}", builder.getValue());
-        long deleted = queryFactory.delete(p)
-                .where(builder)
-                .execute();
+        // Purga por bloques con sus dependientes y revisiones de borrado (ProyectoPurger), cada bloque en su transacción
+        long deleted = purger.purge(builder);
         log.info("[ProyectoService] eliminarProyectosSinTareasEntreFechas - Proyectos eliminados: {}", deleted);
         return deleted;
     }
@@ -303,14 +428,7 @@ public class ProyectoServiceImpl implements ProyectoService {
     @Transactional(readOnly = true)
     public Page<ProyectoDto> getProyectosPorMiembros(Pageable page, String rolEnProyecto, String emailLike) {
             log.info("[ProyectoService] getProyectosPorMiembros - Filtra con QProyecto por rol de miembro y email del usuario (containsIgnoreCase). Paginado.");
-        QProyecto p = QProyecto.proyecto;
-        BooleanBuilder qb = new BooleanBuilder();
-        if (rolEnProyecto != null && !rolEnProyecto.isEmpty()) {
-            qb.and(p.miembros.any().rolEnProyecto.equalsIgnoreCase(rolEnProyecto));
-        }
-        if (emailLike != null && !emailLike.isEmpty()) {
-            qb.and(p.miembros.any().usuario().email.containsIgnoreCase(emailLike));
-        }
+        BooleanBuilder qb = miembrosPredicate(rolEnProyecto, emailLike);
         Page<Proyecto> res = proyectoRepository.findAll(qb, page);
         log.debug("[ProyectoService] getProyectosPorMiembros - Predicado: {}", qb.getValue());
         log.info("[ProyectoService] getProyectosPorMiembros - Resultado paginado: totalElementos={}, pageSize={}, pageNumber={}", res.getTotalElements(), page.getPageSize(), page.getPageNumber());
@@ -321,16 +439,16 @@ public class ProyectoServiceImpl implements ProyectoService {
     @Transactional(readOnly = true)
     public List<ProyectoDto> findConMinTareasPorEstado(String estado, long minTareas, String etiquetaNombre) {
         QProyecto p = QProyecto.proyecto;
-        QTarea t = QTarea.tarea;
-        BooleanBuilder where = new BooleanBuilder();
-        if (estado != null && !estado.isEmpty()) {
-            try {
-                where.and(t.estado.eq(Tarea.Estado.valueOf(estado)));
-            } catch (IllegalArgumentException ignored) {}
-        }
-        if (etiquetaNombre != null && !etiquetaNombre.isEmpty()) {
-            where.and(t.etiquetas.any().nombre.containsIgnoreCase(etiquetaNombre));
+        if (etiquetaNombre == null || etiquetaNombre.isEmpty()) {
+            log.info("[ProyectoService] findConMinTareasPorEstado - Sin etiqueta: filtra por el contador de tareas del estado (columna indexada), sin join ni GROUP BY.");
+            return queryFactory.selectFrom(p)
+                    .where(minTareasCounter(estado, minTareas))
+                    .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO))
+                    .fetch()
+                    .stream().map(proyectoMapper::toDto).toList();
         }
+        QTarea t = QTarea.tarea;
+        BooleanBuilder where = minTareasWhere(estado, etiquetaNombre);
         List<Proyecto> proyectos = queryFactory
                 .select(p)
                 .from(p)
@@ -344,35 +462,34 @@ public class ProyectoServiceImpl implements ProyectoService {
 
     @Override
     public long reabrirProyectosConTareasPendientes() {
-        QProyecto p = QProyecto.proyecto;
-        QTarea t = QTarea.tarea;
-        return queryFactory.update(p)
-                .set(p.fechaFin, (LocalDateTime) null)
-                .where(
-                        JPAExpressions.selectOne()
-                                .from(t)
-                                .where(t.proyecto().id.eq(p.id)
-                                        .and(t.estado.ne(Tarea.Estado.COMPLETADA)))
-                                .exists()
-                )
-                .execute();
+        queryResults.invalidateAfterCommit("proyecto");
+        return updateAffected(new BulkStatement("proyectos p").where("EXISTS (" + TAREAS_NO_COMPLETADAS + ")"),
+                "fecha_fin = NULL", Map.of());
     }
 
     @Override
     public long inicializarFechaInicioSiTieneTareas(LocalDateTime fechaInicio) {
-        QProyecto p = QProyecto.proyecto;
-        QTarea t = QTarea.tarea;
-        return queryFactory.update(p)
-                .set(p.fechaInicio, fechaInicio)
-                .where(
-                        p.fechaInicio.isNull()
-                                .and(
-                                        JPAExpressions.selectOne().from(t)
-                                                .where(t.proyecto().id.eq(p.id))
-                                                .exists()
-                                )
-                )
-                .execute();
+        queryResults.invalidateAfterCommit("proyecto");
+        return updateAffected(new BulkStatement("proyectos p")
+                        .where("p.fecha_inicio IS NULL")
+                        .where("EXISTS (SELECT 1 FROM tareas t WHERE t.proyecto_id = p.id)"),
+                "fecha_inicio = :fechaInicio", Map.of("fechaInicio", fechaInicio));
+    }
+
+    /**
+     * UPDATE en bloque con version + 1 que devuelve (RETURNING) los proyectos modificados para evictarlos tras el
+     * commit: la entrada cacheada de cada uno quedaría con el ETag anterior. Sin SELECT ... FOR UPDATE previo: la
+     * propia sentencia bloquea las filas hasta el commit.
+     */
+    private long updateAffected(BulkStatement where, String set, Map<String, ?> setParams) {
+        List<Long> ids = where.update(entityManager, set + ", version = version + 1", setParams, "p.id").stream()
+                .map(row -> ((Number) row[0]).longValue())
+                .toList();
+        log.debug("[ProyectoService] updateAffected - Proyectos: {}", ids.size());
+        if (!ids.isEmpty()) {
+            cacheInvalidator.evictAfterCommit(Map.of("proyecto", ids, "proyectos_all", List.of("all")));
+        }
+        return ids.size();
     }
 
     @Override
@@ -392,18 +509,377 @@ public class ProyectoServiceImpl implements ProyectoService {
         );
         List<Proyecto> proyectos = queryFactory.selectFrom(p)
                 .where(where)
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Proyecto.GRAPH_LISTADO))
                 .fetch();
         return proyectos.stream().map(proyectoMapper::toDto).toList();
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public long eliminarProyectosConPresupuestoInconsistente() {
         QProyecto p = QProyecto.proyecto;
-        return queryFactory.delete(p)
-                .where(p.presupuesto().gastado.isNotNull()
-                        .and(p.presupuesto().montoTotal.isNotNull())
-                        .and(p.presupuesto().gastado.gt(p.presupuesto().montoTotal)))
-                .execute();
+        long deleted = purger.purge(p.presupuesto().gastado.isNotNull()
+                .and(p.presupuesto().montoTotal.isNotNull())
+                .and(p.presupuesto().gastado.gt(p.presupuesto().montoTotal)));
+        log.info("[ProyectoService] eliminarProyectosConPresupuestoInconsistente - Proyectos eliminados: {}", deleted);
+        return deleted;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProyectoResumenDto> getAllResumen() {
+        log.info("[ProyectoService] getAllResumen - Proyección escalar con Projections.constructor y contadores de hijos, sin hidratar entidades.");
+        List<ProyectoResumenDto> list = selectResumen().orderBy(QProyecto.proyecto.id.asc()).fetch();
+        log.info("[ProyectoService] getAllResumen - Proyectos encontrados: {}", list.size());
+        return list;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProyectoResumenDto> findActivosEnRangoResumen(LocalDateTime desde, LocalDateTime hasta) {
+        log.info("[ProyectoService] findActivosEnRangoResumen - Mismo predicado que findActivosEnRango sobre la proyección resumen.");
+        List<ProyectoResumenDto> list = selectResumen().where(activosPredicate(desde, hasta)).fetch();
+        log.info("[ProyectoService] findActivosEnRangoResumen - Proyectos encontrados: {}", list.size());
+        return list;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProyectoResumenDto> getProyectosResumen(Pageable page, ProyectoFilter filter) {
+        log.info("[ProyectoService] getProyectosResumen - Mismos filtros que getProyectos sobre la proyección resumen. Paginado.");
+        Page<ProyectoResumenDto> res = pageResumen(buildPredicate(filter), page);
+        log.info("[ProyectoService] getProyectosResumen - Resultado paginado: totalElementos={}, pageSize={}, pageNumber={}", res.getTotalElements(), page.getPageSize(), page.getPageNumber());
+        return res;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProyectoResumenDto> findByTareasConEstadoYRangoResumen(String estado,
+                                                                      LocalDateTime fechaInicioDesde,
+                                                                      LocalDateTime fechaFinHasta,
+                                                                      String tituloContiene,
+                                                                      String asignadoEmail,
+                                                                      String etiquetaNombre) {
+        log.info("[ProyectoService] findByTareasConEstadoYRangoResumen - Mismo left join y filtros que findByTareasConEstadoYRangoQ sobre la proyección resumen.");
+        FilterShape shape = tareasShape(estado, fechaInicioDesde, fechaFinHasta, tituloContiene, asignadoEmail, etiquetaNombre);
+        List<ProyectoResumenDto> list = selectResumen()
+                .leftJoin(QProyecto.proyecto.tareas, QTarea.tarea)
+                .where(shape.bound(tareasPredicate(shape)))
+                .distinct()
+                .fetch();
+        log.info("[ProyectoService] findByTareasConEstadoYRangoResumen - Proyectos encontrados: {}", list.size());
+        return list;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProyectoResumenDto> getProyectosPorMiembrosResumen(Pageable page, String rolEnProyecto, String emailLike) {
+        log.info("[ProyectoService] getProyectosPorMiembrosResumen - Filtro por rol/email de miembro sobre la proyección resumen. Paginado.");
+        Page<ProyectoResumenDto> res = pageResumen(miembrosPredicate(rolEnProyecto, emailLike), page);
+        log.info("[ProyectoService] getProyectosPorMiembrosResumen - Resultado paginado: totalElementos={}, pageSize={}, pageNumber={}", res.getTotalElements(), page.getPageSize(), page.getPageNumber());
+        return res;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProyectoResumenDto> findConMinTareasPorEstadoResumen(String estado, long minTareas, String etiquetaNombre) {
+        QProyecto p = QProyecto.proyecto;
+        if (etiquetaNombre == null || etiquetaNombre.isEmpty()) {
+            return selectResumen().where(minTareasCounter(estado, minTareas)).fetch();
+        }
+        QTarea t = QTarea.tarea;
+        // Agrupar también por el id del presupuesto permite seleccionar sus columnas (dependencia funcional de la PK)
+        return selectResumen()
+                .leftJoin(p.tareas, t)
+                .where(minTareasWhere(estado, etiquetaNombre))
+                .groupBy(p.id, QPresupuesto.presupuesto.id)
+                .having(t.count().goe(minTareas))
+                .fetch();
+    }
+
+    // Proyección resumen: columnas del proyecto y del presupuesto más los contadores mantenidos por triggers
+    private JPAQuery<ProyectoResumenDto> selectResumen() {
+        QProyecto p = QProyecto.proyecto;
+        QPresupuesto pr = QPresupuesto.presupuesto;
+        return queryFactory
+                .select(Projections.constructor(ProyectoResumenDto.class,
+                        p.id, p.nombre, p.descripcion, p.fechaInicio, p.fechaFin,
+                        pr.montoTotal, pr.gastado,
+                        p.totalTareas, p.tareasPendientes, p.tareasEnProgreso, p.tareasCompletadas,
+                        p.totalHitos, p.totalComentarios))
+                .from(p)
+                .leftJoin(p.presupuesto(), pr);
+    }
+
+    // Contador de tareas del estado indicado; sin estado (o no válido) se usa el total, como en el filtro por join
+    private NumberPath<Integer> tareasCounter(String estado) {
+        QProyecto p = QProyecto.proyecto;
+        if (estado == null || estado.isEmpty()) {
+            return p.totalTareas;
+        }
+        try {
+            return switch (Tarea.Estado.valueOf(estado)) {
+                case PENDIENTE -> p.tareasPendientes;
+                case EN_PROGRESO -> p.tareasEnProgreso;
+                case COMPLETADA -> p.tareasCompletadas;
+            };
+        } catch (IllegalArgumentException ignored) {
+            return p.totalTareas;
+        }
+    }
+
+    // Misma semántica que el join: filtrando por estado, un proyecto sin tareas en ese estado no sale ni con minTareas <= 0
+    private BooleanExpression minTareasCounter(String estado, long minTareas) {
+        NumberPath<Integer> counter = tareasCounter(estado);
+        boolean porEstado = !counter.equals(QProyecto.proyecto.totalTareas);
+        return counter.goe(porEstado ? Math.max(minTareas, 1) : minTareas);
+    }
+
+    private Page<ProyectoResumenDto> pageResumen(Predicate predicate, Pageable page) {
+        QProyecto p = QProyecto.proyecto;
+        JPQLQuery<ProyectoResumenDto> query = new Querydsl(entityManager, new PathBuilder<>(Proyecto.class, "proyecto"))
+                .applyPagination(page, selectResumen().where(predicate));
+        List<ProyectoResumenDto> content = query.fetch();
+        return PageableExecutionUtils.getPage(content, page,
+                () -> queryFactory.select(p.count()).from(p).where(predicate).fetchOne());
+    }
+
+    private BooleanExpression activosPredicate(LocalDateTime desde, LocalDateTime hasta) {
+        PathBuilder<Proyecto> p = new PathBuilder<>(Proyecto.class, "proyecto");
+        BooleanExpression inicioAntes = (hasta == null) ? null : p.getDateTime("fechaInicio", LocalDateTime.class).loe(hasta);
+        BooleanExpression finDespues = (desde == null) ? null : p.getDateTime("fechaFin", LocalDateTime.class).goe(desde);
+        return combineAll(inicioAntes, finDespues);
+    }
+
+    // Campos presentes en los filtros por tareas (mismos parámetros para la variante con join y la de any())
+    private FilterShape tareasShape(String estado,
+                                    LocalDateTime fechaInicioDesde,
+                                    LocalDateTime fechaFinHasta,
+                                    String tituloContiene,
+                                    String asignadoEmail,
+                                    String etiquetaNombre) {
+        FilterShape shape = new FilterShape();
+        if (fechaInicioDesde != null) {
+            shape.bind(P_INICIO_DESDE, fechaInicioDesde);
+        }
+        if (fechaFinHasta != null) {
+            shape.bind(P_FIN_HASTA, fechaFinHasta);
+        }
+        if (estado != null && !estado.isEmpty()) {
+            try {
+                shape.bind(P_TAREA_ESTADO, Tarea.Estado.valueOf(estado));
+            } catch (IllegalArgumentException ignored) {}
+        }
+        if (tituloContiene != null && !tituloContiene.isEmpty()) {
+            shape.bindContains(P_TAREA_TITULO, tituloContiene);
+        }
+        if (asignadoEmail != null && !asignadoEmail.isEmpty()) {
+            shape.bindContains(P_TAREA_ASIGNADO, asignadoEmail);
+        }
+        if (etiquetaNombre != null && !etiquetaNombre.isEmpty()) {
+            shape.bindContains(P_TAREA_ETIQUETA, etiquetaNombre);
+        }
+        return shape;
+    }
+
+    // Predicado sobre proyecto y sus tareas (alias QTarea.tarea, requiere leftJoin(p.tareas, t))
+    private Predicate tareasPredicate(FilterShape shape) {
+        return compiledQueries.predicate("proyecto.porTareas", shape, () -> {
+            QProyecto p = QProyecto.proyecto;
+            QTarea t = QTarea.tarea;
+            BooleanBuilder builder = new BooleanBuilder();
+            if (shape.has(P_INICIO_DESDE)) {
+                builder.and(p.fechaInicio.goe(P_INICIO_DESDE));
+            }
+            if (shape.has(P_FIN_HASTA)) {
+                builder.and(p.fechaFin.loe(P_FIN_HASTA));
+            }
+            if (shape.has(P_TAREA_ESTADO)) {
+                builder.and(t.estado.eq(P_TAREA_ESTADO));
+            }
+            if (shape.has(P_TAREA_TITULO)) {
+                builder.and(FilterShape.containsIgnoreCase(t.titulo, P_TAREA_TITULO));
+            }
+            if (shape.has(P_TAREA_ASIGNADO)) {
+                builder.and(FilterShape.containsIgnoreCase(t.asignadoA().email, P_TAREA_ASIGNADO));
+            }
+            if (shape.has(P_TAREA_ETIQUETA)) {
+                builder.and(FilterShape.containsIgnoreCase(t.etiquetas.any().nombre, P_TAREA_ETIQUETA));
+            }
+            return builder.getValue();
+        });
+    }
+
+    // Misma forma navegando con PathBuilder a tareas.any() (stream path), sin join explícito
+    private Predicate tareasAnyPredicate(FilterShape shape) {
+        return compiledQueries.predicate("proyecto.porTareasStream", shape, () -> {
+            PathBuilder<Proyecto> p = new PathBuilder<>(Proyecto.class, "proyecto");
+
+            // Filtros de fechas del proyecto
+            BooleanExpression byInicio = !shape.has(P_INICIO_DESDE) ? null : p.getDateTime("fechaInicio", LocalDateTime.class).goe(P_INICIO_DESDE);
+            BooleanExpression byFin = !shape.has(P_FIN_HASTA) ? null : p.getDateTime("fechaFin", LocalDateTime.class).loe(P_FIN_HASTA);
+
+            // Subruta a tareas (any)
+            var tareasAny = p.getSet("tareas", Tarea.class).any();
+
+            BooleanExpression byEstado = !shape.has(P_TAREA_ESTADO) ? null :
+                    tareasAny.getEnum("estado", Tarea.Estado.class).eq(P_TAREA_ESTADO);
+            BooleanExpression byTitulo = !shape.has(P_TAREA_TITULO) ? null :
+                    FilterShape.containsIgnoreCase(tareasAny.getString("titulo"), P_TAREA_TITULO);
+            BooleanExpression byAsignado = !shape.has(P_TAREA_ASIGNADO) ? null :
+                    FilterShape.containsIgnoreCase(tareasAny.get("asignadoA", Usuario.class).getString("email"), P_TAREA_ASIGNADO);
+            BooleanExpression byEtiqueta = !shape.has(P_TAREA_ETIQUETA) ? null :
+                    FilterShape.containsIgnoreCase(tareasAny.getSet("etiquetas", Etiqueta.class).any().getString("nombre"), P_TAREA_ETIQUETA);
+
+            return combineAll(byInicio, byFin, byEstado, byTitulo, byAsignado, byEtiqueta);
+        });
+    }
+
+    private BooleanBuilder miembrosPredicate(String rolEnProyecto, String emailLike) {
+        QProyecto p = QProyecto.proyecto;
+        BooleanBuilder qb = new BooleanBuilder();
+        if (rolEnProyecto != null && !rolEnProyecto.isEmpty()) {
+            qb.and(p.miembros.any().rolEnProyecto.equalsIgnoreCase(rolEnProyecto));
+        }
+        if (emailLike != null && !emailLike.isEmpty()) {
+            qb.and(p.miembros.any().usuario().email.containsIgnoreCase(emailLike));
+        }
+        return qb;
+    }
+
+    // Predicado sobre tareas (alias QTarea.tarea) para el recuento por estado/etiqueta
+    private BooleanBuilder minTareasWhere(String estado, String etiquetaNombre) {
+        QTarea t = QTarea.tarea;
+        BooleanBuilder where = new BooleanBuilder();
+        if (estado != null && !estado.isEmpty()) {
+            try {
+                where.and(t.estado.eq(Tarea.Estado.valueOf(estado)));
+            } catch (IllegalArgumentException ignored) {}
+        }
+        if (etiquetaNombre != null && !etiquetaNombre.isEmpty()) {
+            where.and(t.etiquetas.any().nombre.containsIgnoreCase(etiquetaNombre));
+        }
+        return where;
+    }
+
+    // Visibilidad de paquete para los benchmarks (src/jmh)
+    Predicate buildPredicate(ProyectoFilter filter) {
+        FilterShape shape = shapeOf(filter);
+        return shape.bound(filterPredicate(shape));
+    }
+
+    // Campos presentes en el filtro y sus valores; el orden de registro fija la clave de la forma
+    FilterShape shapeOf(ProyectoFilter filter) {
+        FilterShape shape = new FilterShape();
+        if (filter != null) {
+            if (filter.getNombre() != null && !filter.getNombre().isEmpty()) {
+                shape.bindContains(P_NOMBRE, filter.getNombre());
+            }
+            if (filter.getDescripcion() != null && !filter.getDescripcion().isEmpty()) {
+                shape.bindContains(P_DESCRIPCION, filter.getDescripcion());
+            }
+            if (filter.getFechaInicioDesde() != null) {
+                shape.bind(P_INICIO_DESDE, filter.getFechaInicioDesde());
+            }
+            if (filter.getFechaInicioHasta() != null) {
+                shape.bind(P_INICIO_HASTA, filter.getFechaInicioHasta());
+            }
+            if (filter.getFechaFinDesde() != null) {
+                shape.bind(P_FIN_DESDE, filter.getFechaFinDesde());
+            }
+            if (filter.getFechaFinHasta() != null) {
+                shape.bind(P_FIN_HASTA, filter.getFechaFinHasta());
+            }
+            if (filter.getPresupuestoMin() != null) {
+                shape.bind(P_PRESUPUESTO_MIN, filter.getPresupuestoMin());
+            }
+            if (filter.getPresupuestoMax() != null) {
+                shape.bind(P_PRESUPUESTO_MAX, filter.getPresupuestoMax());
+            }
+            if (filter.getGastadoMax() != null) {
+                shape.bind(P_GASTADO_MAX, filter.getGastadoMax());
+            }
+            if (filter.getMinTareas() != null) {
+                shape.bind(P_MIN_TAREAS, filter.getMinTareas());
+            }
+            if (filter.getMinHitos() != null) {
+                shape.bind(P_MIN_HITOS, filter.getMinHitos());
+            }
+            if (filter.getMinComentarios() != null) {
+                shape.bind(P_MIN_COMENTARIOS, filter.getMinComentarios());
+            }
+            if (filter.getMiembroEmail() != null && !filter.getMiembroEmail().isEmpty()) {
+                shape.bindContains(P_MIEMBRO_EMAIL, filter.getMiembroEmail());
+            }
+            if (filter.getSearchText() != null && !filter.getSearchText().isEmpty()) {
+                shape.bindContains(P_SEARCH, filter.getSearchText());
+            }
+        }
+        return shape;
+    }
+
+    private Predicate filterPredicate(FilterShape shape) {
+        return compiledQueries.predicate("proyecto.filter", shape, () -> predicateFor(shape));
+    }
+
+    // Predicado con Param para la forma dada: solo se construye la primera vez que aparece
+    Predicate predicateFor(FilterShape shape) {
+        BooleanBuilder qb = new BooleanBuilder();
+        QProyecto p = QProyecto.proyecto;
+
+        if (shape.has(P_NOMBRE)) {
+            qb.and(FilterShape.containsIgnoreCase(p.nombre, P_NOMBRE));
+        }
+        if (shape.has(P_DESCRIPCION)) {
+            qb.and(FilterShape.containsIgnoreCase(p.descripcion, P_DESCRIPCION));
+        }
+        if (shape.has(P_INICIO_DESDE)) {
+            qb.and(p.fechaInicio.goe(P_INICIO_DESDE));
+        }
+        if (shape.has(P_INICIO_HASTA)) {
+            qb.and(p.fechaInicio.loe(P_INICIO_HASTA));
+        }
+        if (shape.has(P_FIN_DESDE)) {
+            qb.and(p.fechaFin.goe(P_FIN_DESDE));
+        }
+        if (shape.has(P_FIN_HASTA)) {
+            qb.and(p.fechaFin.loe(P_FIN_HASTA));
+        }
+        if (shape.has(P_PRESUPUESTO_MIN)) {
+            qb.and(p.presupuesto().montoTotal.goe(P_PRESUPUESTO_MIN));
+        }
+        if (shape.has(P_PRESUPUESTO_MAX)) {
+            qb.and(p.presupuesto().montoTotal.loe(P_PRESUPUESTO_MAX));
+        }
+        if (shape.has(P_GASTADO_MAX)) {
+            qb.and(p.presupuesto().gastado.loe(P_GASTADO_MAX));
+        }
+        // Mínimos de hijos sobre los contadores indexados (db/proyecto-counters.sql)
+        if (shape.has(P_MIN_TAREAS)) {
+            qb.and(p.totalTareas.goe(P_MIN_TAREAS));
+        }
+        if (shape.has(P_MIN_HITOS)) {
+            qb.and(p.totalHitos.goe(P_MIN_HITOS));
+        }
+        if (shape.has(P_MIN_COMENTARIOS)) {
+            qb.and(p.totalComentarios.goe(P_MIN_COMENTARIOS));
+        }
+        if (shape.has(P_MIEMBRO_EMAIL)) {
+            qb.and(FilterShape.containsIgnoreCase(p.miembros.any().usuario().email, P_MIEMBRO_EMAIL));
+        }
+        if (shape.has(P_SEARCH) && indexedSearch) {
+            // Documento indexado con pg_trgm: una sola condición en lugar de cinco EXISTS correlacionados
+            qb.and(FilterShape.containsIgnoreCase(p.searchText, P_SEARCH));
+        } else if (shape.has(P_SEARCH)) {
+            BooleanBuilder or = new BooleanBuilder();
+            or.or(FilterShape.containsIgnoreCase(p.nombre, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(p.descripcion, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(p.tareas.any().titulo, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(p.hitos.any().nombre, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(p.comentarios.any().contenido, P_SEARCH));
+            qb.and(or);
+        }
+        return qb.getValue();
     }
 
     private BooleanExpression combineAll(BooleanExpression... parts) {
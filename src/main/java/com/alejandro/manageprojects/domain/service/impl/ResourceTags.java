@@ -0,0 +1,44 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.alejandro.manageprojects.web.error.NotFoundException;
+import jakarta.persistence.EntityManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * ETag fuerte de un recurso leído con una sola consulta de versiones, sin cargar ni mapear la entidad:
+ * "&lt;versión&gt;-&lt;huella&gt;", donde la huella cubre ids y versiones de lo que el DTO lleva anidado (tareas,
+ * asignados, autores, hitos, presupuesto, etiquetas...). Un cambio en cualquiera de ellos cambia el ETag aunque
+ * la versión del recurso no cambie. El GET y el PUT usan el mismo ETag: vale para If-None-Match y para If-Match.
+ */
+final class ResourceTags {
+
+    private ResourceTags() {}
+
+    /**
+     * @param sql consulta nativa con el parámetro :id que devuelve (versión, texto con las versiones anidadas)
+     * @throws NotFoundException si la consulta no devuelve fila
+     */
+    static String of(EntityManager entityManager, String sql, Long id, String notFound) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(sql).setParameter("id", id).getResultList();
+        if (rows.isEmpty()) {
+            throw new NotFoundException(notFound + id);
+        }
+        Object[] row = rows.get(0);
+        return tag(((Number) row[0]).longValue(), row[1] == null ? "" : row[1].toString());
+    }
+
+    private static String tag(long version, String nested) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(nested.getBytes(StandardCharsets.UTF_8));
+            return "\"" + version + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Lectura en streaming de consultas completas (exportación NDJSON): cursor de base de datos con fetch size,
+ * entidades de solo lectura y contexto de persistencia vaciado por bloques para que la memoria no crezca con
+ * el número de filas.
+ */
+final class StreamingQuerySupport {
+
+    // Filas por ida y vuelta al leer en streaming; también marca cada cuánto se limpia el contexto de persistencia
+    static final int FETCH_SIZE = 500;
+
+    private StreamingQuerySupport() {}
+
+    /**
+     * Recorre la consulta, mapea cada entidad y la entrega al consumidor; devuelve cuántas se han emitido.
+     * Debe ejecutarse dentro de una transacción de solo lectura que mantenga abierto el cursor.
+     *
+     * @param query consulta con su orden y plan de carga; aquí solo se añaden las pistas de streaming
+     */
+    static <E, D> long streamAll(EntityManager entityManager, JPAQuery<E> query, Function<E, D> mapper,
+                                 Consumer<D> consumer) {
+        long count = 0;
+        try (Stream<E> stream = query
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()) {
+            Iterator<E> it = stream.iterator();
+            while (it.hasNext()) {
+                consumer.accept(mapper.apply(it.next()));
+                if (++count % FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -1,34 +1,82 @@
 package com.alejandro.manageprojects.domain.service.impl;
 
+import com.alejandro.manageprojects.config.cache.CacheDependencies;
+import com.alejandro.manageprojects.config.cache.CacheInvalidator;
+import com.alejandro.manageprojects.config.cache.CacheRefresher;
+import com.alejandro.manageprojects.config.cache.QueryResultCache;
+import com.alejandro.manageprojects.domain.dto.BulkJobDto;
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.EtiquetaDto;
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
 import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.dto.TareaPatchDto;
+import com.alejandro.manageprojects.domain.dto.UsuarioDto;
 import com.alejandro.manageprojects.domain.entity.Etiqueta;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.QEtiqueta;
+import com.alejandro.manageprojects.domain.entity.QProyecto;
 import com.alejandro.manageprojects.domain.entity.QTarea;
 import com.alejandro.manageprojects.domain.entity.QUsuario;
 import com.alejandro.manageprojects.domain.entity.Tarea;
 import com.alejandro.manageprojects.domain.entity.Usuario;
 import com.alejandro.manageprojects.domain.filter.TareaFilter;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
 import com.alejandro.manageprojects.domain.mapper.TareaMapper;
+import com.alejandro.manageprojects.domain.query.CompiledQueryRegistry;
+import com.alejandro.manageprojects.domain.query.FilterShape;
 import com.alejandro.manageprojects.domain.repository.TareaRepository;
+import com.alejandro.manageprojects.domain.service.AuditTrailWriter;
+import com.alejandro.manageprojects.domain.service.BulkJobService;
 import com.alejandro.manageprojects.domain.service.TareaService;
+import com.alejandro.manageprojects.web.error.BadRequestException;
+import com.alejandro.manageprojects.web.error.ConflictException;
 import com.alejandro.manageprojects.web.error.NotFoundException;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.CaseForEqBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.Param;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -39,33 +87,317 @@ public class TareaServiceImpl implements TareaService {
     private final TareaRepository tareaRepository;
     private final TareaMapper tareaMapper;
     private final JPAQueryFactory queryFactory;
+    private final EntityManager entityManager;
+    private final CompiledQueryRegistry compiledQueries;
+    private final CacheInvalidator cacheInvalidator;
+    private final QueryResultCache queryResults;
+    private final CacheRefresher cacheRefresher;
+    private final CacheDependencies cacheDependencies;
+    private final AuditTrailWriter auditTrail;
+    private final BulkJobService bulkJobs;
+
+    // Versiones de lo que lleva TareaDto: la tarea, su asignado y sus etiquetas (por id)
+    private static final String ETAG_SQL = """
+            SELECT t.version, concat('u', t.usuario_asignado_id, ':', u.version, ';e',
+                (SELECT string_agg(te.etiqueta_id::text, ',' ORDER BY te.etiqueta_id)
+                 FROM tarea_etiqueta te WHERE te.tarea_id = t.id))
+            FROM tareas t LEFT JOIN usuarios u ON u.id = t.usuario_asignado_id WHERE t.id = :id
+            """;
+
+    // Entidades de las que dependen los listados guardados en QueryResultCache (filtros por proyecto y asignado)
+    private static final List<String> RESULT_DEPS = List.of("tarea", "proyecto", "usuario");
+    // Operaciones en bloque (BulkStatement): columnas devueltas por RETURNING para evictar y cambio de estado
+    private static final String AFFECTED = "id, proyecto_id";
+    private static final String SET_ESTADO = "estado = :nuevoEstado, version = version + 1";
+
+    // Propiedades admitidas como clave de orden en la paginación por cursor
+    private static final Map<String, KeysetSupport.SortKey> KEYSET_SORTABLE = Map.of(
+            "titulo", KeysetSupport.SortKey.notNull(String.class),
+            "fechaLimite", KeysetSupport.SortKey.nullable(LocalDateTime.class),
+            "estado", KeysetSupport.SortKey.notNull(Tarea.Estado.class));
+
+    // Parámetros de los filtros dinámicos: la consulta se compila una vez por forma (CompiledQueryRegistry)
+    private static final Param<String> P_TITULO = new Param<>(String.class, "titulo");
+    private static final Param<String> P_DESCRIPCION = new Param<>(String.class, "descripcion");
+    private static final Param<Tarea.Estado> P_ESTADO = new Param<>(Tarea.Estado.class, "estado");
+    private static final Param<String> P_ETIQUETA = new Param<>(String.class, "etiquetaNombre");
+    private static final Param<String> P_ASIGNADO_EMAIL = new Param<>(String.class, "asignadoEmail");
+    private static final Param<String> P_PROYECTO_NOMBRE = new Param<>(String.class, "proyectoNombre");
+    private static final Param<LocalDateTime> P_FECHA_DESDE = new Param<>(LocalDateTime.class, "fechaLimiteDesde");
+    private static final Param<LocalDateTime> P_FECHA_HASTA = new Param<>(LocalDateTime.class, "fechaLimiteHasta");
+    private static final Param<String> P_SEARCH = new Param<>(String.class, "searchText");
+    private static final Param<Long> P_ETIQUETA_ID = new Param<>(Long.class, "etiquetaId");
+    private static final Param<Long> P_ASIGNADO_ID = new Param<>(Long.class, "asignadoId");
+    private static final Param<Long> P_PROYECTO_ID = new Param<>(Long.class, "proyectoId");
+
+    // Búsqueda libre sobre el documento search_text mantenido en base de datos (db/search-index.sql)
+    @Value("${app.search.indexed:true}")
+    private boolean indexedSearch;
+
+    // Umbral de los modos de total CAPPED y ESTIMATE (con filtros)
+    @Value("${app.pagination.total-cap:1000}")
+    private int totalCap;
+
+    // Entidades por flush en las altas en lote: coincide con el tamaño de lote JDBC
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
     @Override
     @CachePut(value = "tarea", key = "#result.id")
     @CacheEvict(value = "tareas_all", key = "'all'")
     public TareaDto create(TareaDto dto) {
+            queryResults.invalidateAfterCommit("tarea");
             Tarea entity = tareaMapper.toEntity(dto);
+            if (dto.getProyecto() != null && dto.getProyecto().getId() != null) {
+                // El mapper no enlaza el proyecto; el proyecto cacheado embebe sus tareas (y su ETag cambia con ellas)
+                entity.setProyecto(entityManager.getReference(Proyecto.class, dto.getProyecto().getId()));
+                cacheInvalidator.evictAfterCommit(Map.of("proyecto", List.of(dto.getProyecto().getId()), "proyectos_all", List.of("all")));
+            }
             Tarea saved = tareaRepository.save(entity);
             return tareaMapper.toDto(saved);
         }
 
+    @Override
+    @CacheEvict(value = "tareas_all", key = "'all'")
+    public List<TareaDto> createAll(List<TareaDto> dtos) {
+        log.info("[TareaService] createAll - Inserta {} tareas en una transacción, con flush cada {} (lotes JDBC).", dtos.size(), batchSize);
+        Set<Long> proyectoIds = dtos.stream().map(d -> d.getProyecto().getId()).collect(Collectors.toSet());
+        QProyecto p = QProyecto.proyecto;
+        List<Long> existentes = queryFactory.select(p.id).from(p).where(p.id.in(proyectoIds)).fetch();
+        if (existentes.size() < proyectoIds.size()) {
+            proyectoIds.removeAll(existentes);
+            throw new NotFoundException("Proyecto no encontrado: " + proyectoIds);
+        }
+        // En la vista Post los usuarios y etiquetas anidados no traen id: se resuelven por email y nombre (únicos)
+        QUsuario u = QUsuario.usuario;
+        Map<String, Long> usuarios = idsByKey(u, u.email, u.id, dtos.stream()
+                .map(TareaDto::getAsignadoA)
+                .filter(Objects::nonNull)
+                .map(UsuarioDto::getEmail), "Usuario no encontrado: ");
+        QEtiqueta e = QEtiqueta.etiqueta;
+        Map<String, Long> etiquetas = idsByKey(e, e.nombre, e.id, dtos.stream()
+                .filter(d -> d.getEtiquetas() != null)
+                .flatMap(d -> d.getEtiquetas().stream())
+                .map(EtiquetaDto::getNombre), "Etiqueta no encontrada: ");
+        queryResults.invalidateAfterCommit("tarea");
+        // Los proyectos cacheados embeben sus tareas
+        cacheInvalidator.evictAfterCommit(Map.of("proyecto", proyectoIds, "proyectos_all", List.of("all")));
+        List<TareaDto> result = new ArrayList<>(dtos.size());
+        List<Tarea> pending = new ArrayList<>(batchSize);
+        for (TareaDto dto : dtos) {
+            Tarea entity = tareaMapper.toEntity(dto);
+            entity.setProyecto(entityManager.getReference(Proyecto.class, dto.getProyecto().getId()));
+            entity.setAsignadoA(dto.getAsignadoA() == null ? null
+                    : entityManager.getReference(Usuario.class, usuarios.get(dto.getAsignadoA().getEmail())));
+            Set<Etiqueta> refs = new HashSet<>();
+            if (dto.getEtiquetas() != null) {
+                dto.getEtiquetas().forEach(et -> refs.add(entityManager.getReference(Etiqueta.class, etiquetas.get(et.getNombre()))));
+            }
+            entity.setEtiquetas(refs);
+            entityManager.persist(entity);
+            pending.add(entity);
+            if (pending.size() == batchSize) {
+                flushBatch(pending, result);
+            }
+        }
+        flushBatch(pending, result);
+        log.info("[TareaService] createAll - Tareas insertadas: {}", result.size());
+        return result;
+    }
+
+    // Ids por clave única con una sola consulta; BadRequestException (400) si falta la clave o no existe
+    private Map<String, Long> idsByKey(EntityPath<?> from, StringPath key, NumberPath<Long> id, Stream<String> keys,
+                                       String notFound) {
+        Set<String> wanted = new HashSet<>();
+        keys.forEach(k -> {
+            if (k == null || k.isBlank()) {
+                throw new BadRequestException("Falta " + key.getMetadata().getName() + " en un elemento del lote");
+            }
+            wanted.add(k);
+        });
+        if (wanted.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> ids = new HashMap<>();
+        for (Tuple row : queryFactory.select(key, id).from(from).where(key.in(wanted)).fetch()) {
+            ids.put(row.get(key), row.get(id));
+        }
+        if (ids.size() < wanted.size()) {
+            wanted.removeAll(ids.keySet());
+            throw new BadRequestException(notFound + wanted);
+        }
+        return ids;
+    }
+
+    // Envía el lote, mapea sus DTO y vacía el contexto de persistencia para que no crezca con el alta
+    private void flushBatch(List<Tarea> batch, List<TareaDto> result) {
+        entityManager.flush();
+        batch.forEach(t -> result.add(tareaMapper.toDto(t)));
+        batch.clear();
+        entityManager.clear();
+    }
+
     @Override
     @CachePut(value = "tarea", key = "#id")
     @CacheEvict(value = "tareas_all", key = "'all'")
     public TareaDto update(Long id, TareaDto dto) {
             Tarea entity = tareaRepository.findById(id)
                     .orElseThrow(() -> new NotFoundException("Tarea no encontrada: " + id));
+            queryResults.invalidateAfterCommit("tarea");
+            // Copias de la tarea dentro de proyectos cacheados (proyecto, proyectos_all)
+            cacheInvalidator.evictDependentsAfterCommit("tarea", List.of(id));
             entity.setTitulo(dto.getTitulo());
             entity.setDescripcion(dto.getDescripcion());
             entity.setEstado(tareaMapper.toEstado(dto.getEstado()));
             entity.setFechaLimite(dto.getFechaLimite());
-            Tarea saved = tareaRepository.save(entity);
+            // Flush antes de mapear: el DTO que se cachea lleva la versión ya incrementada (ETag)
+            Tarea saved = tareaRepository.saveAndFlush(entity);
             return tareaMapper.toDto(saved);
         }
 
+    @Override
+    public TareaDto update(Long id, long expectedVersion, TareaDto dto) {
+        QTarea t = QTarea.tarea;
+        // Un solo UPDATE sin lectura previa: escribe si la versión coincide y alguna columna cambia
+        long updated = new VersionedUpdate(queryFactory.update(t))
+                .set(t.titulo, dto.getTitulo())
+                .set(t.descripcion, dto.getDescripcion())
+                .set(t.estado, tareaMapper.toEstado(dto.getEstado()))
+                .set(t.fechaLimite, dto.getFechaLimite())
+                .execute(t.version, t.id.eq(id).and(t.version.eq(expectedVersion)));
+        if (updated == 0) {
+            // Sin filas: la versión actual decide entre inexistente, If-Match antiguo o valores ya iguales
+            Long current = queryFactory.select(t.version).from(t).where(t.id.eq(id)).fetchOne();
+            if (current == null) {
+                throw new NotFoundException("Tarea no encontrada: " + id);
+            }
+            if (current != expectedVersion) {
+                throw new ConflictException("La tarea " + id + " ha cambiado: versión actual " + current + ", If-Match " + expectedVersion);
+            }
+        } else {
+            queryResults.invalidateAfterCommit("tarea");
+            cacheInvalidator.evictAfterCommit(Map.of("tarea", List.of(id), "tareas_all", List.of("all")));
+            cacheInvalidator.evictDependentsAfterCommit("tarea", List.of(id));
+            auditTrail.recordModified("tareas", List.of(id));
+        }
+        // Estado persistido (el UPDATE masivo no pasa por el contexto de persistencia, que aún no tiene la fila)
+        TareaDto result = tareaRepository.findById(id)
+                .map(tareaMapper::toDto)
+                .orElseThrow(() -> new NotFoundException("Tarea no encontrada: " + id));
+        log.debug("[TareaService] update - Tarea {} con If-Match {}: versión {}", id, expectedVersion, result.getVersion());
+        return result;
+    }
+
+    @Override
+    public List<TareaDto> patchAll(List<TareaPatchDto> changes) {
+        // Forma del cambio: campos presentes, en orden fijo. Todas las tareas de una forma van en el mismo UPDATE
+        Map<List<String>, List<TareaPatchDto>> byShape = new LinkedHashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (TareaPatchDto change : changes) {
+            if (!ids.add(change.getId())) {
+                throw new BadRequestException("Tarea repetida en el lote: " + change.getId());
+            }
+            List<String> shape = patchShape(change);
+            if (shape.isEmpty()) {
+                throw new BadRequestException("Cambio sin campos para la tarea " + change.getId());
+            }
+            byShape.computeIfAbsent(shape, k -> new ArrayList<>()).add(change);
+        }
+        log.info("[TareaService] patchAll - {} cambios en {} formas: un UPDATE por forma, con CASE por id si los valores difieren.",
+                changes.size(), byShape.size());
+        QTarea t = QTarea.tarea;
+        // Bloqueo en orden de id para que dos lotes solapados no se interbloqueen
+        List<Long> existentes = queryFactory.select(t.id).from(t)
+                .where(t.id.in(ids))
+                .orderBy(t.id.asc())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .fetch();
+        if (existentes.size() < ids.size()) {
+            Set<Long> missing = new HashSet<>(ids);
+            existentes.forEach(missing::remove);
+            throw new NotFoundException("Tarea no encontrada: " + missing);
+        }
+        queryResults.invalidateAfterCommit("tarea");
+        cacheInvalidator.evictAfterCommit(Map.of("tarea", ids, "tareas_all", List.of("all")));
+        cacheInvalidator.evictDependentsAfterCommit("tarea", ids);
+        byShape.forEach((shape, group) -> {
+            JPAUpdateClause update = queryFactory.update(t)
+                    .set(t.version, t.version.add(1))
+                    .where(t.id.in(group.stream().map(TareaPatchDto::getId).toList()));
+            if (shape.contains("titulo")) {
+                setPatched(update, t.titulo, group, c -> c.getTitulo().orElse(null));
+            }
+            if (shape.contains("descripcion")) {
+                setPatched(update, t.descripcion, group, c -> c.getDescripcion().orElse(null));
+            }
+            if (shape.contains("estado")) {
+                setPatched(update, t.estado, group, c -> c.getEstado().map(tareaMapper::toEstado).orElse(null));
+            }
+            if (shape.contains("fechaLimite")) {
+                setPatched(update, t.fechaLimite, group, c -> c.getFechaLimite().orElse(null));
+            }
+            long updated = update.execute();
+            log.debug("[TareaService] patchAll - Forma {}: {} tareas", shape, updated);
+        });
+        // Los UPDATE masivos no pasan por Envers
+        auditTrail.recordModified("tareas", ids);
+        return queryFactory.selectFrom(t)
+                .where(t.id.in(ids))
+                .orderBy(t.id.asc())
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Tarea.GRAPH_DETALLE))
+                .fetch().stream()
+                .map(tareaMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> patchShape(TareaPatchDto change) {
+        List<String> shape = new ArrayList<>(4);
+        if (change.getTitulo() != null) {
+            shape.add("titulo");
+        }
+        if (change.getDescripcion() != null) {
+            shape.add("descripcion");
+        }
+        if (change.getEstado() != null) {
+            try {
+                change.getEstado().ifPresent(Tarea.Estado::valueOf);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Estado de tarea desconocido: " + change.getEstado().get());
+            }
+            shape.add("estado");
+        }
+        if (change.getFechaLimite() != null) {
+            shape.add("fechaLimite");
+        }
+        return shape;
+    }
+
+    // Valor común como constante; si difiere entre tareas, CASE id WHEN ... THEN ... END en la misma sentencia
+    private static <T> void setPatched(JPAUpdateClause update, Path<T> path, List<TareaPatchDto> group,
+                                       Function<TareaPatchDto, T> value) {
+        Set<T> distinct = group.stream().map(value).collect(Collectors.toCollection(HashSet::new));
+        if (distinct.size() == 1) {
+            T common = distinct.iterator().next();
+            if (common == null) {
+                update.setNull(path);
+            } else {
+                update.set(path, common);
+            }
+            return;
+        }
+        QTarea t = QTarea.tarea;
+        CaseForEqBuilder<Long>.Cases<T, Expression<T>> cases = null;
+        for (TareaPatchDto change : group) {
+            T v = value.apply(change);
+            Expression<T> then = v == null ? Expressions.nullExpression(path) : Expressions.constant(v);
+            cases = cases == null ? t.id.when(change.getId()).then(then) : cases.when(change.getId()).then(then);
+        }
+        update.set(path, cases.otherwise(path));
+    }
+
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "tarea", key = "#id")
+    @Cacheable(value = "tarea", key = "#id", sync = true)
     public TareaDto getById(Long id) {
             return tareaRepository.findById(id)
                     .map(tareaMapper::toDto)
@@ -74,17 +406,52 @@ public class TareaServiceImpl implements TareaService {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "tareas_all", key = "'all'")
+    public String getETag(Long id) {
+        return ResourceTags.of(entityManager, ETAG_SQL, id, "Tarea no encontrada: ");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "tareas_all", key = "'all'", sync = true)
     public List<TareaDto> getAll() {
-            return tareaRepository.findAll().stream().map(tareaMapper::toDto).toList();
+            return loadAll();
         }
 
+    // Lista mutable: la de Stream.toList() es un tipo final que se cachea sin id de tipo y no se puede leer de vuelta
+    private List<TareaDto> loadAll() {
+        return tareaRepository.findAll().stream().map(tareaMapper::toDto).collect(Collectors.toList());
+    }
+
+    // Cargas sin caché para el refresco anticipado y el precalentamiento (null si la entidad ya no existe),
+    // y los DTO anidados que se indexan como dependencias de las entradas cacheadas
+    @PostConstruct
+    void registerCacheSupport() {
+        cacheRefresher.register("tarea", key -> tareaRepository.findById(Long.valueOf(key)).map(tareaMapper::toDto).orElse(null));
+        cacheRefresher.register("tareas_all", key -> loadAll());
+        cacheDependencies.track(TareaDto.class, "tarea", TareaDto::getId, t -> Collections.singletonList(t.getAsignadoA()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<TareaDto> consumer) {
+        log.info("[TareaService] streamAll - Recorre QTarea en streaming con fetch size {} y limpia el contexto de persistencia por bloques.", StreamingQuerySupport.FETCH_SIZE);
+        QTarea t = QTarea.tarea;
+        long count = StreamingQuerySupport.streamAll(entityManager, queryFactory.selectFrom(t)
+                        .orderBy(t.id.asc())
+                        .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Tarea.GRAPH_DETALLE)),
+                tareaMapper::toDto, consumer);
+        log.info("[TareaService] streamAll - Registros emitidos: {}", count);
+        return count;
+    }
+
     @Override
     @org.springframework.cache.annotation.CacheEvict(value = {"tarea", "tareas_all"}, allEntries = true, key = "#id")
     public void delete(Long id) {
             if (!tareaRepository.existsById(id)) {
                 throw new NotFoundException("Tarea no encontrada: " + id);
             }
+            queryResults.invalidateAfterCommit("tarea");
+            cacheInvalidator.evictDependentsAfterCommit("tarea", List.of(id));
             tareaRepository.deleteById(id);
         }
 
@@ -92,22 +459,26 @@ public class TareaServiceImpl implements TareaService {
     @Transactional(readOnly = true)
     public List<TareaDto> search(String estado, Long etiquetaId, Long asignadoId, Long proyectoId) {
             log.info("[TareaService] search - Usa PathBuilder para construir filtros por estado, etiqueta (ManyToMany), asignado (ManyToOne) y proyecto (ManyToOne).");
-        PathBuilder<Tarea> t = new PathBuilder<>(Tarea.class, "tarea");
-        BooleanExpression byEstado = null;
+        FilterShape shape = new FilterShape();
         if (estado != null) {
-            Tarea.Estado est = Tarea.Estado.valueOf(estado);
-            byEstado = t.getEnum("estado", Tarea.Estado.class).eq(est);
-        }
-        BooleanExpression byEtiqueta = (etiquetaId == null) ? null : t.getSet("etiquetas", Etiqueta.class)
-                .any().getNumber("id", Long.class).eq(etiquetaId);
-        BooleanExpression byAsignado = (asignadoId == null) ? null : t.getNumber("asignadoA.id", Long.class).eq(asignadoId);
-        BooleanExpression byProyecto = (proyectoId == null) ? null : t.getNumber("proyecto.id", Long.class).eq(proyectoId);
-        BooleanExpression predicate = combineAll(byEstado, byEtiqueta, byAsignado, byProyecto);
-        Iterable<Tarea> it = (predicate == null) ? tareaRepository.findAll() : tareaRepository.findAll(predicate);
-        List<TareaDto> list = StreamSupport.stream(it.spliterator(), false)
+            shape.bind(P_ESTADO, Tarea.Estado.valueOf(estado));
+        }
+        if (etiquetaId != null) {
+            shape.bind(P_ETIQUETA_ID, etiquetaId);
+        }
+        if (asignadoId != null) {
+            shape.bind(P_ASIGNADO_ID, asignadoId);
+        }
+        if (proyectoId != null) {
+            shape.bind(P_PROYECTO_ID, proyectoId);
+        }
+        List<TareaDto> list = compiledQueries.query("tarea.search", shape, "", Tarea.class,
+                        () -> queryFactory.selectFrom(new PathBuilder<>(Tarea.class, "tarea")).where(searchPredicate(shape)))
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Tarea.GRAPH_DETALLE))
+                .getResultStream()
                 .map(tareaMapper::toDto)
                 .collect(Collectors.toList());
-        log.debug("[TareaService] search - Predicado: {}", predicate);
+        log.debug("[TareaService] search - Forma del filtro: {}", shape.key());
         log.info("[TareaService] search - Tareas encontradas: {} (estado={}, etiquetaId={}, asignadoId={}, proyectoId={})", list.size(), estado, etiquetaId, asignadoId, proyectoId);
         return list;
     }
@@ -116,125 +487,279 @@ public class TareaServiceImpl implements TareaService {
     @Transactional(readOnly = true)
     public Page<TareaDto> getTareas(Pageable page, TareaFilter filter) {
             log.info("[TareaService] getTareas - Construye BooleanBuilder con QTarea aplicando filtros por título, descripción, estado, etiqueta, asignado, proyecto, fecha límite y búsqueda libre. Soporta paginación.");
-        BooleanBuilder qb = new BooleanBuilder();
-        QTarea t = QTarea.tarea;
+        FilterShape shape = shapeOf(filter);
+
+        log.debug("[TareaService] getTareas - Forma del filtro: {}", shape.key());
+        PageResultDto<TareaDto> res = queryResults.get("tareas_page", RESULT_DEPS,
+                QueryResultCache.keyOf(shape.key(), shape.bindings().values(), indexedSearch, page), () -> {
+                    Page<Tarea> rows = PagedQuerySupport.fetchCompiled(compiledQueries, queryFactory, entityManager, "tarea",
+                            new PathBuilder<>(Tarea.class, "tarea"), shape, () -> filterPredicate(shape),
+                            entityManager.getEntityGraph(Tarea.GRAPH_DETALLE), page);
+                    return PagedQuerySupport.toCacheable(rows.map(tareaMapper::toDto));
+                });
+        log.info("[TareaService] getTareas - Resultado paginado: totalElementos={}, pageSize={}, pageNumber={}", res.getTotalElements(), page.getPageSize(), page.getPageNumber());
+        return PagedQuerySupport.fromCacheable(res, page);
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PageResultDto<TareaDto> getTareas(Pageable page, TareaFilter filter, TotalMode totalMode) {
+        log.info("[TareaService] getTareas - Mismos filtros que la paginación estándar con total en modo {} (umbral {}).", totalMode, totalCap);
+        FilterShape shape = shapeOf(filter);
+        PageResultDto<TareaDto> res = queryResults.get("tareas_page", RESULT_DEPS,
+                QueryResultCache.keyOf(shape.key(), shape.bindings().values(), indexedSearch, page, totalMode, totalCap),
+                () -> PagedQuerySupport.fetch(queryFactory, entityManager, new PathBuilder<>(Tarea.class, "tarea"), "tareas",
+                        entityManager.getEntityGraph(Tarea.GRAPH_DETALLE), shape.bound(filterPredicate(shape)), page, totalMode, totalCap, tareaMapper::toDto));
+        log.info("[TareaService] getTareas - Elementos devueltos: {}, hasNext={}, total={} ({})", res.getContent().size(), res.isHasNext(), res.getTotalElements(), res.getTotalMode());
+        return res;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<TareaDto> getTareasKeyset(String cursor, Pageable page, TareaFilter filter) {
+        log.info("[TareaService] getTareasKeyset - Paginación por cursor (keyset) con los mismos filtros que getTareas, sin OFFSET ni COUNT.");
+        Predicate qb = buildPredicate(filter);
+        CursorPageDto<TareaDto> res = KeysetSupport.fetch(queryFactory, new PathBuilder<>(Tarea.class, "tarea"),
+                entityManager.getEntityGraph(Tarea.GRAPH_DETALLE), qb, page, cursor, KEYSET_SORTABLE, tareaMapper::toDto);
+        log.info("[TareaService] getTareasKeyset - Elementos devueltos: {}, hasNext={}", res.getContent().size(), res.isHasNext());
+        return res;
+    }
+
+    @Override
+    public long actualizarEstadoPorProyectoYFecha(String estadoOrigen, String estadoDestino, Long proyectoId, LocalDateTime fechaLimiteAntes) {
+        log.info("[TareaService] actualizarEstadoPorProyectoYFecha - Actualiza estado masivamente usando QTarea con filtros opcionales por estadoOrigen, proyectoId y fechaLimite < fecha dada.");
+        List<Object[]> rows = estadoUpdateWhere(estadoOrigen, proyectoId, fechaLimiteAntes)
+                .update(entityManager, SET_ESTADO, Map.of("nuevoEstado", estadoDestino(estadoDestino).name()), AFFECTED);
+        cacheInvalidator.evictAfterCommit(affected(rows));
+        queryResults.invalidateAfterCommit("tarea");
+        log.info("[TareaService] actualizarEstadoPorProyectoYFecha - Tareas actualizadas: {}", rows.size());
+        return rows.size();
+    }
+
+    @Override
+    public long eliminarPorEstadoYFechaLimiteAntes(String estado, LocalDateTime fechaLimiteAntes) {
+        log.info("[TareaService] eliminarPorEstadoYFechaLimiteAntes - Elimina en bloque usando QTarea por estado y fecha límite anterior a la dada.");
+        List<Object[]> rows = deleteWhere(estado, fechaLimiteAntes).delete(entityManager, AFFECTED);
+        cacheInvalidator.evictAfterCommit(affected(rows));
+        queryResults.invalidateAfterCommit("tarea");
+        log.info("[TareaService] eliminarPorEstadoYFechaLimiteAntes - Tareas eliminadas: {}", rows.size());
+        return rows.size();
+    }
+
+    // Solo encola: cada bloque abre su propia transacción en BulkJobService
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkJobDto actualizarEstadoEnSegundoPlano(String estadoOrigen, String estadoDestino, Long proyectoId, LocalDateTime fechaLimiteAntes) {
+        Map<String, String> set = Map.of("nuevoEstado", estadoDestino(estadoDestino).name());
+        return bulkJobs.submit("tarea.update-estado", chunked(estadoUpdateWhere(estadoOrigen, proyectoId, fechaLimiteAntes),
+                range -> range.update(entityManager, SET_ESTADO, set, AFFECTED)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkJobDto eliminarPorEstadoYFechaLimiteAntesEnSegundoPlano(String estado, LocalDateTime fechaLimiteAntes) {
+        return bulkJobs.submit("tarea.delete", chunked(deleteWhere(estado, fechaLimiteAntes),
+                range -> range.delete(entityManager, AFFECTED)));
+    }
+
+    private static BulkStatement estadoUpdateWhere(String estadoOrigen, Long proyectoId, LocalDateTime fechaLimiteAntes) {
+        return new BulkStatement("tareas")
+                .where("estado = :estadoOrigen", "estadoOrigen", estadoName(estadoOrigen))
+                .where("proyecto_id = :proyectoId", "proyectoId", proyectoId)
+                .where("fecha_limite < :fechaLimite", "fechaLimite", fechaLimiteAntes);
+    }
+
+    // Nombre del estado si es válido; un valor desconocido no filtra, como antes con la consulta QueryDSL
+    private static String estadoName(String estado) {
+        if (estado == null || estado.isEmpty()) {
+            return null;
+        }
+        try {
+            return Tarea.Estado.valueOf(estado).name();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Tarea.Estado estadoDestino(String estadoDestino) {
+        Tarea.Estado nuevoEstado = Tarea.Estado.PENDIENTE;
+        if (estadoDestino != null && !estadoDestino.isEmpty()) {
+            try { nuevoEstado = Tarea.Estado.valueOf(estadoDestino); } catch (IllegalArgumentException ignored) {}
+        }
+        return nuevoEstado;
+    }
+
+    private static BulkStatement deleteWhere(String estado, LocalDateTime fechaLimiteAntes) {
+        return new BulkStatement("tareas")
+                .where("estado = :estado", "estado", estadoName(estado))
+                .where("fecha_limite < :fechaLimite", "fechaLimite", fechaLimiteAntes);
+    }
+
+    /**
+     * Operación por bloques sobre las tareas del filtro para BulkJobService. El límite superior de cada bloque es
+     * el id número chunkSize tras el anterior; la escritura se aplica solo a ese rango y devuelve (RETURNING) las
+     * filas a evictar, como en la versión síncrona.
+     */
+    private BulkJobService.ChunkedOperation chunked(BulkStatement where, Function<BulkStatement, List<Object[]>> write) {
+        return new BulkJobService.ChunkedOperation() {
+            @Override
+            public long total() {
+                return where.count(entityManager);
+            }
+
+            @Override
+            public BulkJobService.Chunk process(long afterId, int chunkSize) {
+                Long last = where.lastIdOfChunk(entityManager, afterId, chunkSize);
+                if (last == null) {
+                    return new BulkJobService.Chunk(null, 0);
+                }
+                List<Object[]> rows = write.apply(where.range(afterId, last));
+                cacheInvalidator.evictAfterCommit(affected(rows));
+                queryResults.invalidateAfterCommit("tarea");
+                return new BulkJobService.Chunk(last, rows.size());
+            }
+        };
+    }
+
+    @Override
+    public long reasignarTareasDeUsuario(Long fromUsuarioId, Long toUsuarioId, Long proyectoId, String estado) {
+        log.info("[TareaService] reasignarTareasDeUsuario - Reasigna tareas de un usuario a otro usando QTarea/QUsuario. Filtros opcionales por proyecto y estado.");
+        if (fromUsuarioId == null || toUsuarioId == null) {
+            throw new IllegalArgumentException("fromUsuarioId y toUsuarioId son obligatorios");
+        }
+        List<Object[]> rows = new BulkStatement("tareas")
+                .where("usuario_asignado_id = :fromUsuarioId", "fromUsuarioId", fromUsuarioId)
+                .where("proyecto_id = :proyectoId", "proyectoId", proyectoId)
+                .where("estado = :estado", "estado", estadoName(estado))
+                .update(entityManager, "usuario_asignado_id = :toUsuarioId, version = version + 1",
+                        Map.of("toUsuarioId", toUsuarioId), AFFECTED);
+        cacheInvalidator.evictAfterCommit(affected(rows));
+        queryResults.invalidateAfterCommit("tarea");
+        log.info("[TareaService] reasignarTareasDeUsuario - Tareas reasignadas: {}", rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Claves de caché a evictar tras una operación en bloque: las tareas que devolvió su RETURNING (AFFECTED) y los
+     * proyectos que las embeben en su DTO. La propia sentencia deja las filas bloqueadas hasta el commit, así que
+     * lo evictado es exactamente lo modificado.
+     */
+    private Map<String, Collection<?>> affected(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> tareaIds = new HashSet<>();
+        Set<Long> proyectoIds = new HashSet<>();
+        for (Object[] row : rows) {
+            tareaIds.add(((Number) row[0]).longValue());
+            if (row[1] != null) {
+                proyectoIds.add(((Number) row[1]).longValue());
+            }
+        }
+        log.debug("[TareaService] affected - Tareas: {}, proyectos: {}", tareaIds.size(), proyectoIds.size());
+        return Map.of("tarea", tareaIds, "proyecto", proyectoIds,
+                "tareas_all", List.of("all"), "proyectos_all", List.of("all"));
+    }
+
+    private Predicate buildPredicate(TareaFilter filter) {
+        FilterShape shape = shapeOf(filter);
+        return shape.bound(filterPredicate(shape));
+    }
+
+    // Campos presentes en el filtro y sus valores; el orden de registro fija la clave de la forma
+    private FilterShape shapeOf(TareaFilter filter) {
+        FilterShape shape = new FilterShape();
         if (filter != null) {
             if (filter.getTitulo() != null && !filter.getTitulo().isEmpty()) {
-                qb.and(t.titulo.containsIgnoreCase(filter.getTitulo()));
+                shape.bindContains(P_TITULO, filter.getTitulo());
             }
             if (filter.getDescripcion() != null && !filter.getDescripcion().isEmpty()) {
-                qb.and(t.descripcion.containsIgnoreCase(filter.getDescripcion()));
+                shape.bindContains(P_DESCRIPCION, filter.getDescripcion());
             }
             if (filter.getEstado() != null && !filter.getEstado().isEmpty()) {
                 try {
-                    qb.and(t.estado.eq(Tarea.Estado.valueOf(filter.getEstado())));
+                    shape.bind(P_ESTADO, Tarea.Estado.valueOf(filter.getEstado()));
                 } catch (IllegalArgumentException ignored) {}
             }
             if (filter.getEtiquetaNombre() != null && !filter.getEtiquetaNombre().isEmpty()) {
-                qb.and(t.etiquetas.any().nombre.containsIgnoreCase(filter.getEtiquetaNombre()));
+                shape.bindContains(P_ETIQUETA, filter.getEtiquetaNombre());
             }
             if (filter.getAsignadoEmail() != null && !filter.getAsignadoEmail().isEmpty()) {
-                qb.and(t.asignadoA().email.containsIgnoreCase(filter.getAsignadoEmail()));
+                shape.bindContains(P_ASIGNADO_EMAIL, filter.getAsignadoEmail());
             }
             if (filter.getProyectoNombre() != null && !filter.getProyectoNombre().isEmpty()) {
-                qb.and(t.proyecto().nombre.containsIgnoreCase(filter.getProyectoNombre()));
+                shape.bindContains(P_PROYECTO_NOMBRE, filter.getProyectoNombre());
             }
             if (filter.getFechaLimiteDesde() != null) {
-                qb.and(t.fechaLimite.goe(filter.getFechaLimiteDesde()));
+                shape.bind(P_FECHA_DESDE, filter.getFechaLimiteDesde());
             }
             if (filter.getFechaLimiteHasta() != null) {
-                qb.and(t.fechaLimite.loe(filter.getFechaLimiteHasta()));
+                shape.bind(P_FECHA_HASTA, filter.getFechaLimiteHasta());
             }
             if (filter.getSearchText() != null && !filter.getSearchText().isEmpty()) {
-                BooleanBuilder or = new BooleanBuilder();
-                or.or(t.titulo.containsIgnoreCase(filter.getSearchText()))
-                  .or(t.descripcion.containsIgnoreCase(filter.getSearchText()))
-                  .or(t.proyecto().nombre.containsIgnoreCase(filter.getSearchText()))
-                  .or(t.asignadoA().email.containsIgnoreCase(filter.getSearchText()))
-                  .or(t.etiquetas.any().nombre.containsIgnoreCase(filter.getSearchText()));
-                qb.and(or);
+                shape.bindContains(P_SEARCH, filter.getSearchText());
             }
         }
+        return shape;
+    }
 
-        log.debug("[TareaService] getTareas - Predicado construido: {}", qb.getValue());
-        Page<Tarea> res = tareaRepository.findAll(qb, page);
-        log.info("[TareaService] getTareas - Resultado paginado: totalElementos={}, pageSize={}, pageNumber={}", res.getTotalElements(), page.getPageSize(), page.getPageNumber());
-        return res.map(tareaMapper::toDto);
+    private Predicate filterPredicate(FilterShape shape) {
+        return compiledQueries.predicate("tarea.filter", shape, () -> predicateFor(shape));
     }
 
-    @Override
-    @CacheEvict(value = {"tarea", "tareas_all"}, allEntries = true)
-    public long actualizarEstadoPorProyectoYFecha(String estadoOrigen, String estadoDestino, Long proyectoId, LocalDateTime fechaLimiteAntes) {
-        log.info("[TareaService] actualizarEstadoPorProyectoYFecha - Actualiza estado masivamente usando QTarea con filtros opcionales por estadoOrigen, proyectoId y fechaLimite < fecha dada.");
+    // Predicado con Param para la forma dada: solo se construye la primera vez que aparece
+    private Predicate predicateFor(FilterShape shape) {
+        BooleanBuilder qb = new BooleanBuilder();
         QTarea t = QTarea.tarea;
-        BooleanBuilder where = new BooleanBuilder();
-        if (estadoOrigen != null && !estadoOrigen.isEmpty()) {
-            try { where.and(t.estado.eq(Tarea.Estado.valueOf(estadoOrigen))); } catch (IllegalArgumentException ignored) {}
+
+        if (shape.has(P_TITULO)) {
+            qb.and(FilterShape.containsIgnoreCase(t.titulo, P_TITULO));
         }
-        if (proyectoId != null) {
-            where.and(t.proyecto().id.eq(proyectoId));
+        if (shape.has(P_DESCRIPCION)) {
+            qb.and(FilterShape.containsIgnoreCase(t.descripcion, P_DESCRIPCION));
         }
-        if (fechaLimiteAntes != null) {
-            where.and(t.fechaLimite.before(fechaLimiteAntes));
+        if (shape.has(P_ESTADO)) {
+            qb.and(t.estado.eq(P_ESTADO));
         }
-        Tarea.Estado nuevoEstado = Tarea.Estado.PENDIENTE;
-        if (estadoDestino != null && !estadoDestino.isEmpty()) {
-            try { nuevoEstado = Tarea.Estado.valueOf(estadoDestino); } catch (IllegalArgumentException ignored) {}
+        if (shape.has(P_ETIQUETA)) {
+            qb.and(FilterShape.containsIgnoreCase(t.etiquetas.any().nombre, P_ETIQUETA));
         }
-        long updated = queryFactory.update(t)
-                .set(t.estado, nuevoEstado)
-                .where(where)
-                .execute();
-        log.debug("[TareaService] actualizarEstadoPorProyectoYFecha - Predicado: {}", where.getValue());
-        log.info("[TareaService] actualizarEstadoPorProyectoYFecha - Tareas actualizadas: {}", updated);
-        return updated;
-    }
-
-    @Override
-    @CacheEvict(value = {"tarea", "tareas_all"}, allEntries = true)
-    public long eliminarPorEstadoYFechaLimiteAntes(String estado, LocalDateTime fechaLimiteAntes) {
-        log.info("[TareaService] eliminarPorEstadoYFechaLimiteAntes - Elimina en bloque usando QTarea por estado y fecha límite anterior a la dada.");
-        QTarea t = QTarea.tarea;
-        BooleanBuilder booleanBuilder = new BooleanBuilder();
-        if (estado != null && !estado.isEmpty()) {
-            try { booleanBuilder.and(t.estado.eq(Tarea.Estado.valueOf(estado))); } catch (IllegalArgumentException ignored) {}
+        if (shape.has(P_ASIGNADO_EMAIL)) {
+            qb.and(FilterShape.containsIgnoreCase(t.asignadoA().email, P_ASIGNADO_EMAIL));
+        }
+        if (shape.has(P_PROYECTO_NOMBRE)) {
+            qb.and(FilterShape.containsIgnoreCase(t.proyecto().nombre, P_PROYECTO_NOMBRE));
+        }
+        if (shape.has(P_FECHA_DESDE)) {
+            qb.and(t.fechaLimite.goe(P_FECHA_DESDE));
         }
-        if (fechaLimiteAntes != null) {
-            booleanBuilder.and(t.fechaLimite.before(fechaLimiteAntes));
+        if (shape.has(P_FECHA_HASTA)) {
+            qb.and(t.fechaLimite.loe(P_FECHA_HASTA));
         }
-        long deleted = queryFactory.delete(t).where(booleanBuilder).execute();
-        log.debug("[TareaService] eliminarPorEstadoYFechaLimiteAntes - Predicado: {}", booleanBuilder.getValue());
-        log.info("[TareaService] eliminarPorEstadoYFechaLimiteAntes - Tareas eliminadas: {}", deleted);
-        return deleted;
+        if (shape.has(P_SEARCH) && indexedSearch) {
+            // Documento indexado con pg_trgm: evita los joins a proyecto/usuario y el EXISTS sobre etiquetas
+            qb.and(FilterShape.containsIgnoreCase(t.searchText, P_SEARCH));
+        } else if (shape.has(P_SEARCH)) {
+            BooleanBuilder or = new BooleanBuilder();
+            or.or(FilterShape.containsIgnoreCase(t.titulo, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(t.descripcion, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(t.proyecto().nombre, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(t.asignadoA().email, P_SEARCH))
+              .or(FilterShape.containsIgnoreCase(t.etiquetas.any().nombre, P_SEARCH));
+            qb.and(or);
+        }
+        return qb.getValue();
     }
 
-    @Override
-    @CacheEvict(value = {"tarea", "tareas_all"}, allEntries = true)
-    public long reasignarTareasDeUsuario(Long fromUsuarioId, Long toUsuarioId, Long proyectoId, String estado) {
-        log.info("[TareaService] reasignarTareasDeUsuario - Reasigna tareas de un usuario a otro usando QTarea/QUsuario. Filtros opcionales por proyecto y estado.");
-        if (fromUsuarioId == null || toUsuarioId == null) {
-            throw new IllegalArgumentException("fromUsuarioId y toUsuarioId son obligatorios");
-        }
-        QTarea t = QTarea.tarea;
-        QUsuario u = QUsuario.usuario;
-        BooleanBuilder builder = new BooleanBuilder();
-        builder.and(t.asignadoA().id.eq(fromUsuarioId));
-        if (proyectoId != null) {
-            builder.and(t.proyecto().id.eq(proyectoId));
-        }
-        if (estado != null && !estado.isEmpty()) {
-            try { builder.and(t.estado.eq(Tarea.Estado.valueOf(estado))); } catch (IllegalArgumentException ignored) {}
-        }
-        Usuario nuevoAsignado = new Usuario();
-        nuevoAsignado.setId(toUsuarioId);
-        long updated = queryFactory.update(t)
-                .set(t.asignadoA(), nuevoAsignado)
-                .where(builder)
-                .execute();
-        log.debug("[TareaService] reasignarTareasDeUsuario - Predicado: {}", builder.getValue());
-        log.info("[TareaService] reasignarTareasDeUsuario - Tareas reasignadas: {}", updated);
-        return updated;
+    // Filtros de search(): estado, etiqueta (ManyToMany), asignado y proyecto (ManyToOne) con PathBuilder
+    private BooleanExpression searchPredicate(FilterShape shape) {
+        PathBuilder<Tarea> t = new PathBuilder<>(Tarea.class, "tarea");
+        BooleanExpression byEstado = !shape.has(P_ESTADO) ? null : t.getEnum("estado", Tarea.Estado.class).eq(P_ESTADO);
+        BooleanExpression byEtiqueta = !shape.has(P_ETIQUETA_ID) ? null : t.getSet("etiquetas", Etiqueta.class)
+                .any().getNumber("id", Long.class).eq(P_ETIQUETA_ID);
+        BooleanExpression byAsignado = !shape.has(P_ASIGNADO_ID) ? null : t.getNumber("asignadoA.id", Long.class).eq(P_ASIGNADO_ID);
+        BooleanExpression byProyecto = !shape.has(P_PROYECTO_ID) ? null : t.getNumber("proyecto.id", Long.class).eq(P_PROYECTO_ID);
+        return combineAll(byEstado, byEtiqueta, byAsignado, byProyecto);
     }
 
     private BooleanExpression combineAll(BooleanExpression... parts) {
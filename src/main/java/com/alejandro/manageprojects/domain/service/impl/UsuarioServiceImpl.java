@@ -1,17 +1,26 @@
 package com.alejandro.manageprojects.domain.service.impl;
 
+import com.alejandro.manageprojects.config.cache.CacheDependencies;
+import com.alejandro.manageprojects.config.cache.CacheInvalidator;
+import com.alejandro.manageprojects.config.cache.CacheRefresher;
+import com.alejandro.manageprojects.config.cache.QueryResultCache;
 import com.alejandro.manageprojects.domain.dto.UsuarioDto;
 import com.alejandro.manageprojects.domain.entity.*;
 import com.alejandro.manageprojects.domain.mapper.UsuarioMapper;
 import com.alejandro.manageprojects.domain.repository.UsuarioRepository;
+import com.alejandro.manageprojects.domain.service.AuditTrailWriter;
 import com.alejandro.manageprojects.domain.service.UsuarioService;
+import com.alejandro.manageprojects.web.error.ConflictException;
 import com.alejandro.manageprojects.web.error.NotFoundException;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import java.util.stream.StreamSupport;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -22,6 +31,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 
 @Slf4j
@@ -33,11 +43,25 @@ public class UsuarioServiceImpl implements UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final UsuarioMapper usuarioMapper;
     private final JPAQueryFactory queryFactory;
+    private final EntityManager entityManager;
+    private final QueryResultCache queryResults;
+    private final CacheRefresher cacheRefresher;
+    private final CacheDependencies cacheDependencies;
+    private final CacheInvalidator cacheInvalidator;
+    private final AuditTrailWriter auditTrail;
+
+    // Versión del usuario y huella de lo que el DTO lleva sin versión propia: perfil y roles
+    private static final String ETAG_SQL = """
+            SELECT u.version, concat('p', pf.telefono, ':', pf.direccion, ':', pf.avatar_url, ';r',
+                (SELECT string_agg(ur.rol_id::text, ',' ORDER BY ur.rol_id) FROM usuario_roles ur WHERE ur.usuario_id = u.id))
+            FROM usuarios u LEFT JOIN perfiles pf ON pf.usuario_id = u.id WHERE u.id = :id
+            """;
 
     @Override
     @CachePut(value = "usuario", key = "#result.id")
     @CacheEvict(value = "usuarios_all", key = "'all'")
     public UsuarioDto create(UsuarioDto dto) {
+            queryResults.invalidateAfterCommit("usuario");
             Usuario entity = usuarioMapper.toEntity(dto);
             Usuario saved = usuarioRepository.save(entity);
             return usuarioMapper.toDto(saved);
@@ -49,18 +73,54 @@ public class UsuarioServiceImpl implements UsuarioService {
     public UsuarioDto update(Long id, UsuarioDto dto) {
             Usuario existing = usuarioRepository.findById(id)
                     .orElseThrow(() -> new NotFoundException("Usuario no encontrado: " + id));
+            queryResults.invalidateAfterCommit("usuario");
+            // Copias del usuario dentro de tareas y proyectos cacheados (asignado, autor de comentarios)
+            cacheInvalidator.evictDependentsAfterCommit("usuario", List.of(id));
             // Actualizamos campos básicos (sin tocar colecciones propietarias aquí)
             existing.setNombre(dto.getNombre());
             existing.setApellido(dto.getApellido());
             existing.setEmail(dto.getEmail());
             // MapStruct podría encargarse, pero evitamos reemplazar relaciones complejas para minimalismo
-            Usuario saved = usuarioRepository.save(existing);
+            // Flush antes de mapear: el DTO que se cachea lleva la versión ya incrementada (ETag)
+            Usuario saved = usuarioRepository.saveAndFlush(existing);
             return usuarioMapper.toDto(saved);
         }
 
+    @Override
+    public UsuarioDto update(Long id, long expectedVersion, UsuarioDto dto) {
+        QUsuario u = QUsuario.usuario;
+        // Un solo UPDATE sin lectura previa: escribe si la versión coincide y alguna columna cambia
+        long updated = new VersionedUpdate(queryFactory.update(u))
+                .set(u.nombre, dto.getNombre())
+                .set(u.apellido, dto.getApellido())
+                .set(u.email, dto.getEmail())
+                .execute(u.version, u.id.eq(id).and(u.version.eq(expectedVersion)));
+        if (updated == 0) {
+            // Sin filas: la versión actual decide entre inexistente, If-Match antiguo o valores ya iguales
+            Long current = queryFactory.select(u.version).from(u).where(u.id.eq(id)).fetchOne();
+            if (current == null) {
+                throw new NotFoundException("Usuario no encontrado: " + id);
+            }
+            if (current != expectedVersion) {
+                throw new ConflictException("El usuario " + id + " ha cambiado: versión actual " + current + ", If-Match " + expectedVersion);
+            }
+        } else {
+            queryResults.invalidateAfterCommit("usuario");
+            cacheInvalidator.evictAfterCommit(Map.of("usuario", List.of(id), "usuarios_all", List.of("all")));
+            cacheInvalidator.evictDependentsAfterCommit("usuario", List.of(id));
+            auditTrail.recordModified("usuarios", List.of(id));
+        }
+        // Estado persistido (el UPDATE masivo no pasa por el contexto de persistencia, que aún no tiene la fila)
+        UsuarioDto result = usuarioRepository.findById(id)
+                .map(usuarioMapper::toDto)
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado: " + id));
+        log.debug("[UsuarioService] update - Usuario {} con If-Match {}: versión {}", id, expectedVersion, result.getVersion());
+        return result;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "usuario", key = "#id")
+    @Cacheable(value = "usuario", key = "#id", sync = true)
     public UsuarioDto getById(Long id) {
             return usuarioRepository.findById(id)
                     .map(usuarioMapper::toDto)
@@ -69,17 +129,50 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "usuarios_all", key = "'all'")
+    public String getETag(Long id) {
+        return ResourceTags.of(entityManager, ETAG_SQL, id, "Usuario no encontrado: ");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "usuarios_all", key = "'all'", sync = true)
     public List<UsuarioDto> getAll() {
-            return usuarioRepository.findAll().stream().map(usuarioMapper::toDto).toList();
+            return loadAll();
         }
 
+    // Lista mutable: la de Stream.toList() es un tipo final que se cachea sin id de tipo y no se puede leer de vuelta
+    private List<UsuarioDto> loadAll() {
+        return usuarioRepository.findAll().stream().map(usuarioMapper::toDto).collect(Collectors.toList());
+    }
+
+    // Cargas sin caché para el refresco anticipado y el precalentamiento (null si la entidad ya no existe),
+    // y los DTO anidados que se indexan como dependencias de las entradas cacheadas
+    @PostConstruct
+    void registerCacheSupport() {
+        cacheRefresher.register("usuario", key -> usuarioRepository.findById(Long.valueOf(key)).map(usuarioMapper::toDto).orElse(null));
+        cacheRefresher.register("usuarios_all", key -> loadAll());
+        cacheDependencies.track(UsuarioDto.class, "usuario", UsuarioDto::getId, u -> List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<UsuarioDto> consumer) {
+        log.info("[UsuarioService] streamAll - Recorre QUsuario en streaming con fetch size {} y limpia el contexto de persistencia por bloques.", StreamingQuerySupport.FETCH_SIZE);
+        QUsuario u = QUsuario.usuario;
+        long count = StreamingQuerySupport.streamAll(entityManager, queryFactory.selectFrom(u).orderBy(u.id.asc()),
+                usuarioMapper::toDto, consumer);
+        log.info("[UsuarioService] streamAll - Registros emitidos: {}", count);
+        return count;
+    }
+
     @Override
     @CacheEvict(value = {"usuario", "usuarios_all"}, allEntries = true, key = "#id")
     public void delete(Long id) {
             if (!usuarioRepository.existsById(id)) {
                 throw new NotFoundException("Usuario no encontrado: " + id);
             }
+            queryResults.invalidateAfterCommit("usuario");
+            cacheInvalidator.evictDependentsAfterCommit("usuario", List.of(id));
             usuarioRepository.deleteById(id);
         }
 
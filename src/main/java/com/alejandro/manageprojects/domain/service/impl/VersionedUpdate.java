@@ -0,0 +1,43 @@
+package com.alejandro.manageprojects.domain.service.impl;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+/**
+ * UPDATE condicionado a la versión (If-Match) sin lectura previa: una sola sentencia
+ * {@code SET <columnas>, version = version + 1 WHERE id = ? AND version = ? AND (<alguna columna cambia>)}.
+ * Si los valores ya coinciden no se escribe: ni versión nueva, ni revisión de auditoría. Con 0 filas el llamador
+ * lee la versión actual para distinguir inexistente (404), versión antigua (409) o sin cambios.
+ */
+final class VersionedUpdate {
+
+    private final JPAUpdateClause clause;
+    private final BooleanBuilder changes = new BooleanBuilder();
+
+    VersionedUpdate(JPAUpdateClause clause) {
+        this.clause = clause;
+    }
+
+    <T, P extends SimpleExpression<T> & Path<T>> VersionedUpdate set(P path, T value) {
+        if (value == null) {
+            clause.setNull(path);
+            changes.or(path.isNotNull());
+        } else {
+            clause.set(path, value);
+            changes.or(path.ne(value).or(path.isNull()));
+        }
+        return this;
+    }
+
+    /**
+     * Ejecuta con version + 1 y devuelve las filas actualizadas: 0 si la fila no existe, tiene otra versión o ya
+     * tenía esos valores.
+     */
+    long execute(NumberPath<Long> version, Predicate idAndVersion) {
+        return clause.set(version, version.add(1)).where(idAndVersion, changes).execute();
+    }
+}
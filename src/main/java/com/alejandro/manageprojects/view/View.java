@@ -4,6 +4,10 @@ public class View {
     public interface Post {}
     public interface Put {}
     public interface Get {}
+    // Cambios parciales (PATCH): solo se validan los campos presentes
+    public interface Patch {}
+    // Listados ligeros: columnas escalares y contadores, sin colecciones anidadas
+    public interface Summary {}
 
     public interface PostCompany {}
     public interface PutCompany {}
@@ -0,0 +1,30 @@
+package com.alejandro.manageprojects.web.controller;
+
+import com.alejandro.manageprojects.web.error.BadRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cuerpos de las operaciones en lote (/batch): @Validated no alcanza a los elementos de una lista, así que cada DTO
+ * se valida aquí con el grupo de la vista. Las violaciones salen como ConstraintViolationException (400).
+ */
+final class BatchRequests {
+
+    private BatchRequests() {}
+
+    static <T> void validate(Validator validator, List<T> dtos, int maxSize, Class<?> group) {
+        if (dtos.isEmpty() || dtos.size() > maxSize) {
+            throw new BadRequestException("El lote debe tener entre 1 y " + maxSize + " elementos: " + dtos.size());
+        }
+        Set<ConstraintViolation<T>> violations = new LinkedHashSet<>();
+        dtos.forEach(dto -> violations.addAll(validator.validate(dto, group)));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.alejandro.manageprojects.web.controller;
+
+import com.alejandro.manageprojects.web.error.BadRequestException;
+
+import java.util.Objects;
+
+/**
+ * ETag fuerte de un recurso: "&lt;versión&gt;-&lt;huella&gt;", con la versión (@Version) del recurso y una huella de
+ * lo que lleva anidado. Proyectos, tareas y usuarios lo obtienen del servicio con una consulta de versiones
+ * (getETag), antes de leer el DTO; aquí se decide si acompaña a un DTO y se lee la versión de un If-Match.
+ */
+final class EntityTags {
+
+    private EntityTags() {}
+
+    /**
+     * El ETag de la consulta de versiones si el DTO que se devuelve es de esa misma versión; null si no (el DTO
+     * cacheado aún no se ha evictado tras un commit, o hubo una escritura entre las dos lecturas): la respuesta
+     * sale sin ETag antes que con uno que no describe su cuerpo.
+     */
+    static String ifCurrent(String etag, Long version) {
+        return Objects.equals(versionOf(etag), version) ? etag : null;
+    }
+
+    /**
+     * Versión del recurso en un If-Match ("&lt;versión&gt;-&lt;huella&gt;"); null sin cabecera o con "*".
+     * La actualización condicionada compara solo la versión de la fila: la huella cubre entidades anidadas
+     * que un PUT del recurso no modifica.
+     */
+    static Long versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new BadRequestException("If-Match debe ser un único ETag fuerte: " + ifMatch);
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int dash = value.indexOf('-');
+        try {
+            return Long.parseLong(dash < 0 ? value : value.substring(0, dash));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("If-Match no es un ETag de este recurso: " + ifMatch);
+        }
+    }
+}
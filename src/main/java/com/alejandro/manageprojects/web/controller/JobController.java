@@ -0,0 +1,29 @@
+package com.alejandro.manageprojects.web.controller;
+
+import com.alejandro.manageprojects.domain.dto.BulkJobDto;
+import com.alejandro.manageprojects.domain.service.BulkJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(path = "/api/v1/jobs")
+public class JobController {
+
+    private final BulkJobService bulkJobService;
+
+    public JobController(BulkJobService bulkJobService) {
+        this.bulkJobService = bulkJobService;
+    }
+
+    // GET /api/v1/jobs/{id}: estado y progreso
+    @GetMapping(path = "/{id}")
+    public ResponseEntity<BulkJobDto> get(@PathVariable String id) {
+        return ResponseEntity.ok(bulkJobService.get(id));
+    }
+
+    // DELETE /api/v1/jobs/{id}: cancela antes del siguiente bloque (los confirmados se mantienen)
+    @DeleteMapping(path = "/{id}")
+    public ResponseEntity<BulkJobDto> cancel(@PathVariable String id) {
+        return ResponseEntity.accepted().body(bulkJobService.cancel(id));
+    }
+}
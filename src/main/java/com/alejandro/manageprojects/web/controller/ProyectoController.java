@@ -1,18 +1,35 @@
 package com.alejandro.manageprojects.web.controller;
 
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.ImportResultDto;
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
+import com.alejandro.manageprojects.domain.dto.PageDto;
 import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.dto.ProyectoResumenDto;
 import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
+import com.alejandro.manageprojects.domain.service.ProyectoImportService;
 import com.alejandro.manageprojects.domain.service.ProyectoService;
 import com.alejandro.manageprojects.view.View;
+import com.alejandro.manageprojects.web.error.BadRequestException;
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,9 +38,19 @@ import java.util.List;
 public class ProyectoController {
 
     private final ProyectoService proyectoService;
+    private final ProyectoImportService proyectoImportService;
+    private final ObjectWriter ndjsonWriter;
+    private final Validator validator;
+    private final int batchMaxSize;
 
-    public ProyectoController(ProyectoService proyectoService) {
+    public ProyectoController(ProyectoService proyectoService, ProyectoImportService proyectoImportService,
+                              ObjectMapper objectMapper, Validator validator,
+                              @Value("${app.batch.max-size:1000}") int batchMaxSize) {
         this.proyectoService = proyectoService;
+        this.proyectoImportService = proyectoImportService;
+        this.ndjsonWriter = objectMapper.writerWithView(View.Get.class);
+        this.validator = validator;
+        this.batchMaxSize = batchMaxSize;
     }
 
     @JsonView(View.Post.class)
@@ -34,19 +61,49 @@ public class ProyectoController {
         return ResponseEntity.ok(proyectoService.create(dto));
     }
 
+    // Alta en lote: una transacción con los inserts en lotes JDBC
+    @JsonView(View.Get.class)
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ProyectoDto>> createAll(@JsonView(View.Post.class) @RequestBody List<ProyectoDto> dtos) {
+        BatchRequests.validate(validator, dtos, batchMaxSize, View.Post.class);
+        return ResponseEntity.ok(proyectoService.createAll(dtos));
+    }
+
+    // Importación masiva en streaming: un proyecto por línea NDJSON, o CSV con una fila por tarea/hito
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResultDto> importNdjson(InputStream body) {
+        return ResponseEntity.ok(proyectoImportService.importProyectos(body, ProyectoImportService.Format.NDJSON));
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportResultDto> importCsv(InputStream body) {
+        return ResponseEntity.ok(proyectoImportService.importProyectos(body, ProyectoImportService.Format.CSV));
+    }
+
     @JsonView(View.Put.class)
     @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ProyectoDto> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @JsonView(View.Put.class)
             @Validated(View.Put.class) @RequestBody ProyectoDto dto) {
-        return ResponseEntity.ok(proyectoService.update(id, dto));
+        // Con If-Match: UPDATE condicionado a la versión (409 si otro la ha cambiado)
+        Long version = EntityTags.versionOf(ifMatch);
+        ProyectoDto updated = version == null ? proyectoService.update(id, dto) : proyectoService.update(id, version, dto);
+        // El mismo ETag que el GET: vale como If-None-Match y como If-Match del siguiente PUT
+        return ResponseEntity.ok().eTag(EntityTags.ifCurrent(proyectoService.getETag(id), updated.getVersion())).body(updated);
     }
 
+    // El ETag sale de la consulta de versiones: con If-None-Match coincidente se responde 304 sin cargar el proyecto
     @JsonView(View.Get.class)
     @GetMapping(path = "/{id}")
-    public ResponseEntity<ProyectoDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(proyectoService.getById(id));
+    public ResponseEntity<ProyectoDto> getById(@PathVariable Long id, WebRequest request) {
+        String etag = proyectoService.getETag(id);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ProyectoDto dto = proyectoService.getById(id);
+        return ResponseEntity.ok().eTag(EntityTags.ifCurrent(etag, dto.getVersion())).body(dto);
     }
 
     @JsonView(View.Get.class)
@@ -55,6 +112,19 @@ public class ProyectoController {
         return ResponseEntity.ok(proyectoService.getAll());
     }
 
+    // Vista resumen (?view=summary): columnas escalares y contadores, sin tareas/comentarios/hitos anidados
+    @JsonView(View.Summary.class)
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<ProyectoResumenDto>> getAllResumen() {
+        return ResponseEntity.ok(proyectoService.getAllResumen());
+    }
+
+    // Exportación en streaming: mismo recurso con Accept: application/x-ndjson, un ProyectoDto por línea
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return NdjsonResponses.<ProyectoDto>stream(ndjsonWriter, proyectoService::streamAll);
+    }
+
     @DeleteMapping(path = "/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         proyectoService.delete(id);
@@ -69,6 +139,14 @@ public class ProyectoController {
         return ResponseEntity.ok(proyectoService.findActivosEnRango(desde, hasta));
     }
 
+    @JsonView(View.Summary.class)
+    @GetMapping(path = "/activos", params = "view=summary")
+    public ResponseEntity<List<ProyectoResumenDto>> activosEnRangoResumen(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        return ResponseEntity.ok(proyectoService.findActivosEnRangoResumen(desde, hasta));
+    }
+
     @JsonView(View.Get.class)
     @GetMapping(path = "/page")
     public ResponseEntity<Page<ProyectoDto>> getProyectos(Pageable pageable,
@@ -76,6 +154,37 @@ public class ProyectoController {
         return ResponseEntity.ok(proyectoService.getProyectos(pageable, filter));
     }
 
+    // Total configurable: total=exact|none|capped|estimate (none devuelve solo hasNext)
+    @JsonView(View.Get.class)
+    @GetMapping(path = "/page", params = {"total", "!cursor", "!view"})
+    public ResponseEntity<PageResultDto<ProyectoDto>> getProyectosConTotal(Pageable pageable,
+                                                                          @RequestParam String total,
+                                                                          @ModelAttribute ProyectoFilter filter) {
+        return ResponseEntity.ok(proyectoService.getProyectos(pageable, filter, TotalMode.from(total)));
+    }
+
+    @JsonView(View.Summary.class)
+    @GetMapping(path = "/page", params = {"view=summary", "!cursor"})
+    public ResponseEntity<PageDto<ProyectoResumenDto>> getProyectosResumen(Pageable pageable,
+                                                                           @ModelAttribute ProyectoFilter filter) {
+        return ResponseEntity.ok(PageDto.of(proyectoService.getProyectosResumen(pageable, filter)));
+    }
+
+    // Modo cursor (keyset): se activa enviando el parámetro cursor (vacío en la primera página)
+    @JsonView(View.Get.class)
+    @GetMapping(path = "/page", params = "cursor")
+    public ResponseEntity<CursorPageDto<ProyectoDto>> getProyectosKeyset(Pageable pageable,
+                                                                         @RequestParam String cursor,
+                                                                         @ModelAttribute ProyectoFilter filter) {
+        return ResponseEntity.ok(proyectoService.getProyectosKeyset(cursor, pageable, filter));
+    }
+
+    // El modo cursor no tiene vista resumen: mejor un 400 que devolver en silencio el DTO completo
+    @GetMapping(path = "/page", params = {"cursor", "view"})
+    public ResponseEntity<Void> getProyectosKeysetConVista(@RequestParam String view) {
+        throw new BadRequestException("El modo cursor no admite view=" + view);
+    }
+
     @JsonView(View.Get.class)
     @GetMapping(path = "/por-tareas")
     public ResponseEntity<List<ProyectoDto>> getProyectosPorTareasQ(
@@ -90,6 +199,20 @@ public class ProyectoController {
         );
     }
 
+    @JsonView(View.Summary.class)
+    @GetMapping(path = "/por-tareas", params = "view=summary")
+    public ResponseEntity<List<ProyectoResumenDto>> getProyectosPorTareasResumen(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicioDesde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFinHasta,
+            @RequestParam(required = false) String titulo,
+            @RequestParam(required = false) String asignadoEmail,
+            @RequestParam(required = false) String etiquetaNombre) {
+        return ResponseEntity.ok(
+                proyectoService.findByTareasConEstadoYRangoResumen(estado, fechaInicioDesde, fechaFinHasta, titulo, asignadoEmail, etiquetaNombre)
+        );
+    }
+
     @JsonView(View.Get.class)
     @GetMapping(path = "/por-tareas-stream")
     public ResponseEntity<List<ProyectoDto>> getProyectosPorTareasStream(
@@ -126,6 +249,15 @@ public class ProyectoController {
         return ResponseEntity.ok(proyectoService.getProyectosPorMiembros(pageable, rolEnProyecto, emailLike));
     }
 
+    @JsonView(View.Summary.class)
+    @GetMapping(path = "/by-miembros", params = "view=summary")
+    public ResponseEntity<PageDto<ProyectoResumenDto>> getProyectosPorMiembrosResumen(
+            Pageable pageable,
+            @RequestParam(required = false) String rolEnProyecto,
+            @RequestParam(required = false) String emailLike) {
+        return ResponseEntity.ok(PageDto.of(proyectoService.getProyectosPorMiembrosResumen(pageable, rolEnProyecto, emailLike)));
+    }
+
     @JsonView(View.Get.class)
     @GetMapping(path = "/min-tareas")
     public ResponseEntity<List<ProyectoDto>> getProyectosConMinTareas(
@@ -135,6 +267,15 @@ public class ProyectoController {
         return ResponseEntity.ok(proyectoService.findConMinTareasPorEstado(estado, minTareas, etiquetaNombre));
     }
 
+    @JsonView(View.Summary.class)
+    @GetMapping(path = "/min-tareas", params = "view=summary")
+    public ResponseEntity<List<ProyectoResumenDto>> getProyectosConMinTareasResumen(
+            @RequestParam String estado,
+            @RequestParam long minTareas,
+            @RequestParam(required = false) String etiquetaNombre) {
+        return ResponseEntity.ok(proyectoService.findConMinTareasPorEstadoResumen(estado, minTareas, etiquetaNombre));
+    }
+
     @PostMapping(path = "/reabrir-pendientes")
     public ResponseEntity<Long> reabrirProyectosConPendientes() {
         return ResponseEntity.ok(proyectoService.reabrirProyectosConTareasPendientes());
@@ -1,18 +1,33 @@
 package com.alejandro.manageprojects.web.controller;
 
+import com.alejandro.manageprojects.domain.dto.BulkJobDto;
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
+import com.alejandro.manageprojects.domain.dto.ProyectoDto;
 import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.dto.TareaPatchDto;
 import com.alejandro.manageprojects.domain.filter.TareaFilter;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
 import com.alejandro.manageprojects.domain.service.TareaService;
 import com.alejandro.manageprojects.view.View;
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,9 +36,16 @@ import java.util.List;
 public class TareaController {
 
     private final TareaService tareaService;
+    private final ObjectWriter ndjsonWriter;
+    private final Validator validator;
+    private final int batchMaxSize;
 
-    public TareaController(TareaService tareaService) {
+    public TareaController(TareaService tareaService, ObjectMapper objectMapper, Validator validator,
+                           @Value("${app.batch.max-size:1000}") int batchMaxSize) {
         this.tareaService = tareaService;
+        this.ndjsonWriter = objectMapper.writerWithView(View.Get.class);
+        this.validator = validator;
+        this.batchMaxSize = batchMaxSize;
     }
 
     @JsonView(View.Post.class)
@@ -34,19 +56,52 @@ public class TareaController {
         return ResponseEntity.ok(tareaService.create(dto));
     }
 
+    // Alta en lote de tareas de un proyecto: una transacción con los inserts en lotes JDBC
+    @JsonView(View.Get.class)
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<TareaDto>> createAll(
+            @RequestParam Long proyectoId,
+            @JsonView(View.Post.class) @RequestBody List<TareaDto> dtos) {
+        dtos.forEach(dto -> {
+            ProyectoDto proyecto = new ProyectoDto();
+            proyecto.setId(proyectoId);
+            dto.setProyecto(proyecto);
+        });
+        BatchRequests.validate(validator, dtos, batchMaxSize, View.Post.class);
+        return ResponseEntity.ok(tareaService.createAll(dtos));
+    }
+
+    // Cambios parciales en lote (tablero kanban): solo los campos presentes de cada elemento
+    @JsonView(View.Get.class)
+    @PatchMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<TareaDto>> patchAll(@RequestBody List<TareaPatchDto> changes) {
+        BatchRequests.validate(validator, changes, batchMaxSize, View.Patch.class);
+        return ResponseEntity.ok(tareaService.patchAll(changes));
+    }
+
     @JsonView(View.Put.class)
     @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<TareaDto> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @JsonView(View.Put.class)
             @Validated(View.Put.class) @RequestBody TareaDto dto) {
-        return ResponseEntity.ok(tareaService.update(id, dto));
+        // Con If-Match: UPDATE condicionado a la versión (409 si otro la ha cambiado)
+        Long version = EntityTags.versionOf(ifMatch);
+        TareaDto updated = version == null ? tareaService.update(id, dto) : tareaService.update(id, version, dto);
+        // El mismo ETag que el GET: vale como If-None-Match y como If-Match del siguiente PUT
+        return ResponseEntity.ok().eTag(EntityTags.ifCurrent(tareaService.getETag(id), updated.getVersion())).body(updated);
     }
 
     @JsonView(View.Get.class)
     @GetMapping(path = "/{id}")
-    public ResponseEntity<TareaDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(tareaService.getById(id));
+    public ResponseEntity<TareaDto> getById(@PathVariable Long id, WebRequest request) {
+        String etag = tareaService.getETag(id);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        TareaDto dto = tareaService.getById(id);
+        return ResponseEntity.ok().eTag(EntityTags.ifCurrent(etag, dto.getVersion())).body(dto);
     }
 
     @JsonView(View.Get.class)
@@ -55,6 +110,12 @@ public class TareaController {
         return ResponseEntity.ok(tareaService.getAll());
     }
 
+    // Exportación en streaming: mismo recurso con Accept: application/x-ndjson, un TareaDto por línea
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return NdjsonResponses.<TareaDto>stream(ndjsonWriter, tareaService::streamAll);
+    }
+
     @DeleteMapping(path = "/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         tareaService.delete(id);
@@ -79,6 +140,26 @@ public class TareaController {
         return ResponseEntity.ok(tareaService.getTareas(pageable, filter));
     }
 
+    // Total configurable: total=exact|none|capped|estimate (none devuelve solo hasNext)
+    @JsonView(View.Get.class)
+    @GetMapping(path = "/page", params = {"total", "!cursor"})
+    public ResponseEntity<PageResultDto<TareaDto>> getTareasConTotal(
+            Pageable pageable,
+            @RequestParam String total,
+            @ModelAttribute TareaFilter filter) {
+        return ResponseEntity.ok(tareaService.getTareas(pageable, filter, TotalMode.from(total)));
+    }
+
+    // Modo cursor (keyset): se activa enviando el parámetro cursor (vacío en la primera página)
+    @JsonView(View.Get.class)
+    @GetMapping(path = "/page", params = "cursor")
+    public ResponseEntity<CursorPageDto<TareaDto>> getTareasKeyset(
+            Pageable pageable,
+            @RequestParam String cursor,
+            @ModelAttribute TareaFilter filter) {
+        return ResponseEntity.ok(tareaService.getTareasKeyset(cursor, pageable, filter));
+    }
+
     // Bulk operations with Q-classes
     @PostMapping(path = "/bulk/update-estado")
     public ResponseEntity<Long> actualizarEstadoPorProyectoYFecha(
@@ -96,6 +177,27 @@ public class TareaController {
         return ResponseEntity.ok(tareaService.eliminarPorEstadoYFechaLimiteAntes(estado, fechaLimiteAntes));
     }
 
+    // Versiones en segundo plano de las dos anteriores: 202 con el job; progreso y cancelación en /api/v1/jobs/{id}
+    @PostMapping(path = "/bulk/update-estado/async")
+    public ResponseEntity<BulkJobDto> actualizarEstadoEnSegundoPlano(
+            @RequestParam(required = false) String estadoOrigen,
+            @RequestParam String estadoDestino,
+            @RequestParam(required = false) Long proyectoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaLimiteAntes) {
+        return accepted(tareaService.actualizarEstadoEnSegundoPlano(estadoOrigen, estadoDestino, proyectoId, fechaLimiteAntes));
+    }
+
+    @DeleteMapping(path = "/bulk/by-estado-fecha/async")
+    public ResponseEntity<BulkJobDto> eliminarPorEstadoYFechaLimiteAntesEnSegundoPlano(
+            @RequestParam String estado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaLimiteAntes) {
+        return accepted(tareaService.eliminarPorEstadoYFechaLimiteAntesEnSegundoPlano(estado, fechaLimiteAntes));
+    }
+
+    private static ResponseEntity<BulkJobDto> accepted(BulkJobDto job) {
+        return ResponseEntity.accepted().location(URI.create("/api/v1/jobs/" + job.getId())).body(job);
+    }
+
     @PostMapping(path = "/bulk/reasignar")
     public ResponseEntity<Long> reasignarTareas(
             @RequestParam Long fromUsuarioId,
@@ -4,11 +4,17 @@ import com.alejandro.manageprojects.domain.dto.UsuarioDto;
 import com.alejandro.manageprojects.domain.service.UsuarioService;
 import com.alejandro.manageprojects.view.View;
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,9 +24,11 @@ import java.util.List;
 public class UsuarioController {
 
     private final UsuarioService usuarioService;
+    private final ObjectWriter ndjsonWriter;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, ObjectMapper objectMapper) {
         this.usuarioService = usuarioService;
+        this.ndjsonWriter = objectMapper.writerWithView(View.Get.class);
     }
 
     @JsonView(View.Post.class)
@@ -35,15 +43,25 @@ public class UsuarioController {
     @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<UsuarioDto> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @JsonView(View.Put.class)
             @Validated(View.Put.class) @RequestBody UsuarioDto dto) {
-        return ResponseEntity.ok(usuarioService.update(id, dto));
+        // Con If-Match: UPDATE condicionado a la versión (409 si otro la ha cambiado)
+        Long version = EntityTags.versionOf(ifMatch);
+        UsuarioDto updated = version == null ? usuarioService.update(id, dto) : usuarioService.update(id, version, dto);
+        // El mismo ETag que el GET: vale como If-None-Match y como If-Match del siguiente PUT
+        return ResponseEntity.ok().eTag(EntityTags.ifCurrent(usuarioService.getETag(id), updated.getVersion())).body(updated);
     }
 
     @JsonView(View.Get.class)
     @GetMapping(path = "/{id}")
-    public ResponseEntity<UsuarioDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(usuarioService.getById(id));
+    public ResponseEntity<UsuarioDto> getById(@PathVariable Long id, WebRequest request) {
+        String etag = usuarioService.getETag(id);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        UsuarioDto dto = usuarioService.getById(id);
+        return ResponseEntity.ok().eTag(EntityTags.ifCurrent(etag, dto.getVersion())).body(dto);
     }
 
     @JsonView(View.Get.class)
@@ -52,6 +70,12 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarioService.getAll());
     }
 
+    // Exportación en streaming: mismo recurso con Accept: application/x-ndjson, un UsuarioDto por línea
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return NdjsonResponses.<UsuarioDto>stream(ndjsonWriter, usuarioService::streamAll);
+    }
+
     @DeleteMapping(path = "/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         usuarioService.delete(id);
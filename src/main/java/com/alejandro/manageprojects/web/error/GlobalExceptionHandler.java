@@ -6,6 +6,7 @@ import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -40,6 +41,8 @@ public class GlobalExceptionHandler {
         registry.put(MethodArgumentTypeMismatchException.class, (ex, req) -> build(HttpStatus.BAD_REQUEST, ErrorType.BAD_REQUEST, "TYPE_MISMATCH", ex.getMessage(), req, null));
         // Conflict / Data integrity
         registry.put(ConflictException.class, (ex, req) -> build(HttpStatus.CONFLICT, ErrorType.CONFLICT, "CONFLICT", ex.getMessage(), req, null));
+        // Escritura sobre una versión (@Version) que otra transacción ya ha cambiado
+        registry.put(ObjectOptimisticLockingFailureException.class, (ex, req) -> build(HttpStatus.CONFLICT, ErrorType.CONFLICT, "VERSION_CONFLICT", "El recurso ha sido modificado por otra petición", req, null));
         registry.put(DataIntegrityViolationException.class, (ex, req) -> build(HttpStatus.CONFLICT, ErrorType.DATA_INTEGRITY, "DATA_INTEGRITY_VIOLATION", "Violación de integridad de datos", req, null));
         // Service unavailable / infrastructure
         registry.put(ServiceUnavailableException.class, (ex, req) -> build(HttpStatus.SERVICE_UNAVAILABLE, ErrorType.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", ex.getMessage(), req, null));
@@ -81,6 +84,7 @@ public class GlobalExceptionHandler {
             MissingServletRequestParameterException.class,
             MethodArgumentTypeMismatchException.class,
             ConflictException.class,
+            ObjectOptimisticLockingFailureException.class,
             DataIntegrityViolationException.class,
             ServiceUnavailableException.class,
             RedisConnectionFailureException.class,
@@ -0,0 +1,18 @@
+-- Columna version (@Version) de proyectos, tareas, usuarios, hitos, comentarios y presupuestos.
+-- Script idempotente: se ejecuta en cada arranque después de que Hibernate actualice el esquema.
+-- Hibernate añade la columna sin valor en las filas existentes: se rellenan a 0, y el DEFAULT cubre
+-- las filas insertadas por SQL directo.
+
+ALTER TABLE proyectos ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE tareas ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE usuarios ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE hitos ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE comentarios ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE presupuestos ALTER COLUMN version SET DEFAULT 0;
+
+UPDATE proyectos SET version = 0 WHERE version IS NULL;
+UPDATE tareas SET version = 0 WHERE version IS NULL;
+UPDATE usuarios SET version = 0 WHERE version IS NULL;
+UPDATE hitos SET version = 0 WHERE version IS NULL;
+UPDATE comentarios SET version = 0 WHERE version IS NULL;
+UPDATE presupuestos SET version = 0 WHERE version IS NULL;
@@ -0,0 +1,11 @@
+-- Índices de las claves ajenas a proyectos que PostgreSQL no crea por sí solo.
+-- Script idempotente: se ejecuta en cada arranque después de que Hibernate actualice el esquema, con o sin la
+-- búsqueda indexada (app.search.indexed). Los usan los triggers de contadores y de search_text, que agregan los
+-- hijos por proyecto_id, y el purgado de proyectos (ProyectoPurger), que borra cada tabla hija por proyecto_id;
+-- sin ellos cada bloque recorre las tablas enteras.
+
+CREATE INDEX IF NOT EXISTS idx_tareas_proyecto_id ON tareas (proyecto_id);
+CREATE INDEX IF NOT EXISTS idx_hitos_proyecto_id ON hitos (proyecto_id);
+CREATE INDEX IF NOT EXISTS idx_comentarios_proyecto_id ON comentarios (proyecto_id);
+-- La restricción única de miembros empieza por usuario_id: no sirve para buscar por proyecto
+CREATE INDEX IF NOT EXISTS idx_miembros_proyecto_proyecto_id ON miembros_proyecto (proyecto_id);
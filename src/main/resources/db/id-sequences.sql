@@ -0,0 +1,19 @@
+-- Ids por secuencia (<tabla>_seq, incremento 50 para el optimizador pooled de Hibernate) en lugar de IDENTITY.
+-- Script idempotente: se ejecuta en cada arranque después de que Hibernate actualice el esquema (que crea las secuencias).
+-- Las tablas creadas con IDENTITY pierden la identidad y toman la secuencia como DEFAULT, para los inserts por SQL
+-- directo. Cada nextval reserva un bloque (valor - 50, valor], así que un insert por SQL no choca con los de Hibernate.
+-- Si la secuencia va por detrás de los datos existentes se adelanta a max(id).
+
+DO $$
+DECLARE
+    tabla text;
+BEGIN
+    FOREACH tabla IN ARRAY ARRAY['proyectos', 'tareas', 'usuarios', 'perfiles', 'roles', 'etiquetas',
+                                 'comentarios', 'hitos', 'presupuestos', 'miembros_proyecto']
+    LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tabla);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tabla, tabla || '_seq');
+        EXECUTE format('SELECT setval(%1$L, m) FROM (SELECT max(id) AS m FROM %2$I) d
+                         WHERE m > (SELECT last_value FROM %1$I)', tabla || '_seq', tabla);
+    END LOOP;
+END $$;
@@ -0,0 +1,11 @@
+-- Paginación por cursor (/page?cursor=): un índice (clave de orden, id) por clave admitida, para que el seek
+-- (clave, id) > (valor, id) sea un rango del índice y no un recorrido con ordenación de todas las filas filtradas.
+-- Script idempotente: se ejecuta en cada arranque después de que Hibernate actualice el esquema, con o sin la
+-- búsqueda indexada (app.search.indexed). Si se admite una clave nueva en KEYSET_SORTABLE hay que añadir su índice.
+
+CREATE INDEX IF NOT EXISTS idx_proyectos_nombre_id ON proyectos (nombre, id);
+CREATE INDEX IF NOT EXISTS idx_proyectos_fecha_inicio_id ON proyectos (fecha_inicio, id);
+CREATE INDEX IF NOT EXISTS idx_proyectos_fecha_fin_id ON proyectos (fecha_fin, id);
+CREATE INDEX IF NOT EXISTS idx_tareas_titulo_id ON tareas (titulo, id);
+CREATE INDEX IF NOT EXISTS idx_tareas_fecha_limite_id ON tareas (fecha_limite, id);
+CREATE INDEX IF NOT EXISTS idx_tareas_estado_id ON tareas (estado, id);
@@ -0,0 +1,147 @@
+-- Contadores de hijos por proyecto (tareas por estado, hitos, comentarios) mantenidos por triggers.
+-- Cubren cualquier ruta de escritura: JPA, JPQL/QueryDSL masivo (update/delete de TareaServiceImpl) y SQL directo.
+-- Script idempotente: se ejecuta en cada arranque después de que Hibernate actualice el esquema.
+-- NULL en total_tareas marca filas anteriores a los contadores: se rellenan al final del script.
+-- Si se añade un valor a Tarea.Estado hay que añadir su columna y su rama aquí.
+
+-- Un proyecto nuevo no tiene hijos: los contadores nacen a 0 (las columnas no son insertables desde JPA)
+CREATE OR REPLACE FUNCTION proyectos_counters_row_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.total_tareas := 0;
+    NEW.tareas_pendientes := 0;
+    NEW.tareas_en_progreso := 0;
+    NEW.tareas_completadas := 0;
+    NEW.total_hitos := 0;
+    NEW.total_comentarios := 0;
+    RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS proyectos_counters_row ON proyectos;
+CREATE TRIGGER proyectos_counters_row BEFORE INSERT ON proyectos
+    FOR EACH ROW EXECUTE FUNCTION proyectos_counters_row_trg();
+
+-- ---------- Tareas: total y por estado. Una sola UPDATE por proyecto afectado y sentencia ----------
+-- Cada fila nueva suma 1 y cada fila vieja resta 1 en (proyecto_id, estado); en un UPDATE que no cambia
+-- ni estado ni proyecto los deltas se anulan y el proyecto no se toca.
+
+CREATE OR REPLACE FUNCTION tareas_counters_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE proyectos p
+           SET total_tareas       = p.total_tareas + d.total,
+               tareas_pendientes  = p.tareas_pendientes + d.pendientes,
+               tareas_en_progreso = p.tareas_en_progreso + d.en_progreso,
+               tareas_completadas = p.tareas_completadas + d.completadas
+          FROM (SELECT proyecto_id, count(*) AS total,
+                       count(*) FILTER (WHERE estado = 'PENDIENTE') AS pendientes,
+                       count(*) FILTER (WHERE estado = 'EN_PROGRESO') AS en_progreso,
+                       count(*) FILTER (WHERE estado = 'COMPLETADA') AS completadas
+                  FROM nuevas GROUP BY proyecto_id) d
+         WHERE p.id = d.proyecto_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE proyectos p
+           SET total_tareas       = p.total_tareas - d.total,
+               tareas_pendientes  = p.tareas_pendientes - d.pendientes,
+               tareas_en_progreso = p.tareas_en_progreso - d.en_progreso,
+               tareas_completadas = p.tareas_completadas - d.completadas
+          FROM (SELECT proyecto_id, count(*) AS total,
+                       count(*) FILTER (WHERE estado = 'PENDIENTE') AS pendientes,
+                       count(*) FILTER (WHERE estado = 'EN_PROGRESO') AS en_progreso,
+                       count(*) FILTER (WHERE estado = 'COMPLETADA') AS completadas
+                  FROM viejas GROUP BY proyecto_id) d
+         WHERE p.id = d.proyecto_id;
+    ELSE
+        UPDATE proyectos p
+           SET total_tareas       = p.total_tareas + d.total,
+               tareas_pendientes  = p.tareas_pendientes + d.pendientes,
+               tareas_en_progreso = p.tareas_en_progreso + d.en_progreso,
+               tareas_completadas = p.tareas_completadas + d.completadas
+          FROM (SELECT proyecto_id, sum(s) AS total,
+                       sum(CASE WHEN estado = 'PENDIENTE' THEN s ELSE 0 END) AS pendientes,
+                       sum(CASE WHEN estado = 'EN_PROGRESO' THEN s ELSE 0 END) AS en_progreso,
+                       sum(CASE WHEN estado = 'COMPLETADA' THEN s ELSE 0 END) AS completadas
+                  FROM (SELECT proyecto_id, estado, 1 AS s FROM nuevas
+                        UNION ALL
+                        SELECT proyecto_id, estado, -1 AS s FROM viejas) m
+                 GROUP BY proyecto_id) d
+         WHERE p.id = d.proyecto_id
+           AND (d.total, d.pendientes, d.en_progreso, d.completadas) <> (0, 0, 0, 0);
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS tareas_counters_ins ON tareas;
+CREATE TRIGGER tareas_counters_ins AFTER INSERT ON tareas
+    REFERENCING NEW TABLE AS nuevas FOR EACH STATEMENT EXECUTE FUNCTION tareas_counters_trg();
+DROP TRIGGER IF EXISTS tareas_counters_del ON tareas;
+CREATE TRIGGER tareas_counters_del AFTER DELETE ON tareas
+    REFERENCING OLD TABLE AS viejas FOR EACH STATEMENT EXECUTE FUNCTION tareas_counters_trg();
+DROP TRIGGER IF EXISTS tareas_counters_upd ON tareas;
+CREATE TRIGGER tareas_counters_upd AFTER UPDATE ON tareas
+    REFERENCING NEW TABLE AS nuevas OLD TABLE AS viejas FOR EACH STATEMENT EXECUTE FUNCTION tareas_counters_trg();
+
+-- ---------- Hitos y comentarios: total por proyecto. TG_ARGV[0]: columna contador en proyectos ----------
+
+CREATE OR REPLACE FUNCTION proyecto_children_counter_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        EXECUTE format('UPDATE proyectos p SET %1$I = p.%1$I + d.n
+                          FROM (SELECT proyecto_id, count(*) AS n FROM nuevas GROUP BY proyecto_id) d
+                         WHERE p.id = d.proyecto_id', TG_ARGV[0]);
+    ELSIF TG_OP = 'DELETE' THEN
+        EXECUTE format('UPDATE proyectos p SET %1$I = p.%1$I - d.n
+                          FROM (SELECT proyecto_id, count(*) AS n FROM viejas GROUP BY proyecto_id) d
+                         WHERE p.id = d.proyecto_id', TG_ARGV[0]);
+    ELSE
+        -- Solo cuenta el cambio de proyecto
+        EXECUTE format('UPDATE proyectos p SET %1$I = p.%1$I + d.n
+                          FROM (SELECT proyecto_id, sum(s) AS n
+                                  FROM (SELECT n.proyecto_id, 1 AS s FROM nuevas n JOIN viejas o ON o.id = n.id
+                                         WHERE n.proyecto_id <> o.proyecto_id
+                                        UNION ALL
+                                        SELECT o.proyecto_id, -1 AS s FROM nuevas n JOIN viejas o ON o.id = n.id
+                                         WHERE n.proyecto_id <> o.proyecto_id) m
+                                 GROUP BY proyecto_id) d
+                         WHERE p.id = d.proyecto_id AND d.n <> 0', TG_ARGV[0]);
+    END IF;
+    RETURN NULL;
+END $$;
+
+DO $$
+DECLARE
+    hijo record;
+BEGIN
+    FOR hijo IN SELECT * FROM (VALUES ('hitos', 'total_hitos'), ('comentarios', 'total_comentarios')) AS v(tabla, columna)
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %1$s_counters_ins ON %1$I', hijo.tabla);
+        EXECUTE format('CREATE TRIGGER %1$s_counters_ins AFTER INSERT ON %1$I
+                            REFERENCING NEW TABLE AS nuevas FOR EACH STATEMENT
+                            EXECUTE FUNCTION proyecto_children_counter_trg(%2$L)', hijo.tabla, hijo.columna);
+        EXECUTE format('DROP TRIGGER IF EXISTS %1$s_counters_del ON %1$I', hijo.tabla);
+        EXECUTE format('CREATE TRIGGER %1$s_counters_del AFTER DELETE ON %1$I
+                            REFERENCING OLD TABLE AS viejas FOR EACH STATEMENT
+                            EXECUTE FUNCTION proyecto_children_counter_trg(%2$L)', hijo.tabla, hijo.columna);
+        EXECUTE format('DROP TRIGGER IF EXISTS %1$s_counters_upd ON %1$I', hijo.tabla);
+        EXECUTE format('CREATE TRIGGER %1$s_counters_upd AFTER UPDATE ON %1$I
+                            REFERENCING NEW TABLE AS nuevas OLD TABLE AS viejas FOR EACH STATEMENT
+                            EXECUTE FUNCTION proyecto_children_counter_trg(%2$L)', hijo.tabla, hijo.columna);
+    END LOOP;
+END $$;
+
+-- ---------- Índices para filtros por mínimo (una búsqueda por rango) y relleno inicial ----------
+
+CREATE INDEX IF NOT EXISTS idx_proyectos_total_tareas ON proyectos (total_tareas);
+CREATE INDEX IF NOT EXISTS idx_proyectos_total_hitos ON proyectos (total_hitos);
+CREATE INDEX IF NOT EXISTS idx_proyectos_total_comentarios ON proyectos (total_comentarios);
+CREATE INDEX IF NOT EXISTS idx_proyectos_tareas_pendientes ON proyectos (tareas_pendientes);
+CREATE INDEX IF NOT EXISTS idx_proyectos_tareas_en_progreso ON proyectos (tareas_en_progreso);
+CREATE INDEX IF NOT EXISTS idx_proyectos_tareas_completadas ON proyectos (tareas_completadas);
+
+UPDATE proyectos p
+   SET total_tareas       = (SELECT count(*) FROM tareas t WHERE t.proyecto_id = p.id),
+       tareas_pendientes  = (SELECT count(*) FROM tareas t WHERE t.proyecto_id = p.id AND t.estado = 'PENDIENTE'),
+       tareas_en_progreso = (SELECT count(*) FROM tareas t WHERE t.proyecto_id = p.id AND t.estado = 'EN_PROGRESO'),
+       tareas_completadas = (SELECT count(*) FROM tareas t WHERE t.proyecto_id = p.id AND t.estado = 'COMPLETADA'),
+       total_hitos        = (SELECT count(*) FROM hitos h WHERE h.proyecto_id = p.id),
+       total_comentarios  = (SELECT count(*) FROM comentarios c WHERE c.proyecto_id = p.id)
+ WHERE p.total_tareas IS NULL;
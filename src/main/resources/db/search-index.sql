@@ -0,0 +1,178 @@
+-- Documento de búsqueda libre por proyecto y por tarea (columna search_text), mantenido por triggers
+-- e indexado con pg_trgm para que lower(search_text) LIKE '%texto%' use el índice GIN.
+-- Script idempotente: se ejecuta en cada arranque después de que Hibernate actualice el esquema.
+-- Los campos se separan con chr(31) para que una búsqueda no coincida a caballo entre dos campos.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ---------- Documento de proyecto: nombre, descripción, títulos de tareas, hitos y comentarios ----------
+
+CREATE OR REPLACE FUNCTION proyecto_search_document(pid bigint, p_nombre text, p_descripcion text)
+RETURNS text LANGUAGE sql STABLE AS $$
+    SELECT lower(concat_ws(chr(31), p_nombre, p_descripcion,
+        (SELECT string_agg(t.titulo, chr(31)) FROM tareas t WHERE t.proyecto_id = pid),
+        (SELECT string_agg(h.nombre, chr(31)) FROM hitos h WHERE h.proyecto_id = pid),
+        (SELECT string_agg(c.contenido, chr(31)) FROM comentarios c WHERE c.proyecto_id = pid)))
+$$;
+
+-- Los triggers por sentencia se disparan también con 0 filas: sin la guarda de array vacío se encadenarían
+-- proyectos -> tareas -> proyectos indefinidamente
+CREATE OR REPLACE FUNCTION proyecto_search_refresh(pids bigint[])
+RETURNS void LANGUAGE plpgsql AS $$
+BEGIN
+    IF cardinality(pids) > 0 THEN
+        UPDATE proyectos p SET search_text = proyecto_search_document(p.id, p.nombre, p.descripcion)
+        WHERE p.id = ANY(pids);
+    END IF;
+END $$;
+
+CREATE OR REPLACE FUNCTION proyectos_search_row_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_text := proyecto_search_document(NEW.id, NEW.nombre, NEW.descripcion);
+    RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS proyectos_search_row ON proyectos;
+CREATE TRIGGER proyectos_search_row BEFORE INSERT OR UPDATE OF nombre, descripcion ON proyectos
+    FOR EACH ROW EXECUTE FUNCTION proyectos_search_row_trg();
+
+-- Hijos del proyecto: se recalcula una vez por proyecto afectado y sentencia (bulk incluido)
+CREATE OR REPLACE FUNCTION proyecto_children_search_ins_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM proyecto_search_refresh(ARRAY(SELECT DISTINCT proyecto_id FROM nuevas));
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION proyecto_children_search_del_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM proyecto_search_refresh(ARRAY(SELECT DISTINCT proyecto_id FROM viejas));
+    RETURN NULL;
+END $$;
+
+-- TG_ARGV[0]: columna de texto del hijo que forma parte del documento
+CREATE OR REPLACE FUNCTION proyecto_children_search_upd_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    EXECUTE format(
+        'SELECT proyecto_search_refresh(ARRAY(
+             SELECT n.proyecto_id FROM nuevas n JOIN viejas o ON o.id = n.id
+              WHERE n.%1$I IS DISTINCT FROM o.%1$I OR n.proyecto_id IS DISTINCT FROM o.proyecto_id
+             UNION
+             SELECT o.proyecto_id FROM nuevas n JOIN viejas o ON o.id = n.id
+              WHERE n.proyecto_id IS DISTINCT FROM o.proyecto_id))', TG_ARGV[0]);
+    RETURN NULL;
+END $$;
+
+DO $$
+DECLARE
+    hijo record;
+BEGIN
+    FOR hijo IN SELECT * FROM (VALUES ('tareas', 'titulo'), ('hitos', 'nombre'), ('comentarios', 'contenido')) AS v(tabla, columna)
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %1$s_proyecto_search_ins ON %1$I', hijo.tabla);
+        EXECUTE format('CREATE TRIGGER %1$s_proyecto_search_ins AFTER INSERT ON %1$I
+                            REFERENCING NEW TABLE AS nuevas FOR EACH STATEMENT
+                            EXECUTE FUNCTION proyecto_children_search_ins_trg()', hijo.tabla);
+        EXECUTE format('DROP TRIGGER IF EXISTS %1$s_proyecto_search_del ON %1$I', hijo.tabla);
+        EXECUTE format('CREATE TRIGGER %1$s_proyecto_search_del AFTER DELETE ON %1$I
+                            REFERENCING OLD TABLE AS viejas FOR EACH STATEMENT
+                            EXECUTE FUNCTION proyecto_children_search_del_trg()', hijo.tabla);
+        EXECUTE format('DROP TRIGGER IF EXISTS %1$s_proyecto_search_upd ON %1$I', hijo.tabla);
+        EXECUTE format('CREATE TRIGGER %1$s_proyecto_search_upd AFTER UPDATE ON %1$I
+                            REFERENCING NEW TABLE AS nuevas OLD TABLE AS viejas FOR EACH STATEMENT
+                            EXECUTE FUNCTION proyecto_children_search_upd_trg(%2$L)', hijo.tabla, hijo.columna);
+    END LOOP;
+END $$;
+
+-- ---------- Documento de tarea: título, descripción, nombre del proyecto, email del asignado y etiquetas ----------
+
+CREATE OR REPLACE FUNCTION tarea_search_document(tid bigint, t_titulo text, t_descripcion text, pid bigint, uid bigint)
+RETURNS text LANGUAGE sql STABLE AS $$
+    SELECT lower(concat_ws(chr(31), t_titulo, t_descripcion,
+        (SELECT p.nombre FROM proyectos p WHERE p.id = pid),
+        (SELECT u.email FROM usuarios u WHERE u.id = uid),
+        (SELECT string_agg(e.nombre, chr(31)) FROM tarea_etiqueta te JOIN etiquetas e ON e.id = te.etiqueta_id
+          WHERE te.tarea_id = tid)))
+$$;
+
+CREATE OR REPLACE FUNCTION tarea_search_refresh(tids bigint[])
+RETURNS void LANGUAGE plpgsql AS $$
+BEGIN
+    IF cardinality(tids) > 0 THEN
+        UPDATE tareas t SET search_text = tarea_search_document(t.id, t.titulo, t.descripcion, t.proyecto_id, t.usuario_asignado_id)
+        WHERE t.id = ANY(tids);
+    END IF;
+END $$;
+
+CREATE OR REPLACE FUNCTION tareas_search_row_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_text := tarea_search_document(NEW.id, NEW.titulo, NEW.descripcion, NEW.proyecto_id, NEW.usuario_asignado_id);
+    RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS tareas_search_row ON tareas;
+CREATE TRIGGER tareas_search_row BEFORE INSERT OR UPDATE OF titulo, descripcion, proyecto_id, usuario_asignado_id ON tareas
+    FOR EACH ROW EXECUTE FUNCTION tareas_search_row_trg();
+
+CREATE OR REPLACE FUNCTION tarea_etiqueta_search_ins_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM tarea_search_refresh(ARRAY(SELECT DISTINCT tarea_id FROM nuevas));
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION tarea_etiqueta_search_del_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM tarea_search_refresh(ARRAY(SELECT DISTINCT tarea_id FROM viejas));
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS tarea_etiqueta_search_ins ON tarea_etiqueta;
+CREATE TRIGGER tarea_etiqueta_search_ins AFTER INSERT ON tarea_etiqueta
+    REFERENCING NEW TABLE AS nuevas FOR EACH STATEMENT EXECUTE FUNCTION tarea_etiqueta_search_ins_trg();
+DROP TRIGGER IF EXISTS tarea_etiqueta_search_del ON tarea_etiqueta;
+CREATE TRIGGER tarea_etiqueta_search_del AFTER DELETE ON tarea_etiqueta
+    REFERENCING OLD TABLE AS viejas FOR EACH STATEMENT EXECUTE FUNCTION tarea_etiqueta_search_del_trg();
+
+-- Cambios en entidades referenciadas por el documento de tarea (nombre de proyecto, email, nombre de etiqueta)
+CREATE OR REPLACE FUNCTION proyectos_tarea_search_upd_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM tarea_search_refresh(ARRAY(
+        SELECT t.id FROM tareas t JOIN nuevas n ON n.id = t.proyecto_id JOIN viejas o ON o.id = n.id
+         WHERE n.nombre IS DISTINCT FROM o.nombre));
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION usuarios_tarea_search_upd_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM tarea_search_refresh(ARRAY(
+        SELECT t.id FROM tareas t JOIN nuevas n ON n.id = t.usuario_asignado_id JOIN viejas o ON o.id = n.id
+         WHERE n.email IS DISTINCT FROM o.email));
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION etiquetas_tarea_search_upd_trg() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM tarea_search_refresh(ARRAY(
+        SELECT te.tarea_id FROM tarea_etiqueta te JOIN nuevas n ON n.id = te.etiqueta_id JOIN viejas o ON o.id = n.id
+         WHERE n.nombre IS DISTINCT FROM o.nombre));
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS proyectos_tarea_search_upd ON proyectos;
+CREATE TRIGGER proyectos_tarea_search_upd AFTER UPDATE ON proyectos
+    REFERENCING NEW TABLE AS nuevas OLD TABLE AS viejas FOR EACH STATEMENT EXECUTE FUNCTION proyectos_tarea_search_upd_trg();
+DROP TRIGGER IF EXISTS usuarios_tarea_search_upd ON usuarios;
+CREATE TRIGGER usuarios_tarea_search_upd AFTER UPDATE ON usuarios
+    REFERENCING NEW TABLE AS nuevas OLD TABLE AS viejas FOR EACH STATEMENT EXECUTE FUNCTION usuarios_tarea_search_upd_trg();
+DROP TRIGGER IF EXISTS etiquetas_tarea_search_upd ON etiquetas;
+CREATE TRIGGER etiquetas_tarea_search_upd AFTER UPDATE ON etiquetas
+    REFERENCING NEW TABLE AS nuevas OLD TABLE AS viejas FOR EACH STATEMENT EXECUTE FUNCTION etiquetas_tarea_search_upd_trg();
+
+-- ---------- Índices y relleno inicial de filas anteriores a la columna ----------
+
+CREATE INDEX IF NOT EXISTS idx_proyectos_search_trgm ON proyectos USING gin (lower(search_text) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_tareas_search_trgm ON tareas USING gin (lower(search_text) gin_trgm_ops);
+-- proyecto_search_document agrega los hijos por proyecto_id con los índices de db/foreign-key-indexes.sql
+
+UPDATE proyectos p SET search_text = proyecto_search_document(p.id, p.nombre, p.descripcion) WHERE p.search_text IS NULL;
+UPDATE tareas t SET search_text = tarea_search_document(t.id, t.titulo, t.descripcion, t.proyecto_id, t.usuario_asignado_id)
+    WHERE t.search_text IS NULL;
@@ -0,0 +1,279 @@
+package com.alejandro.manageprojects.config.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caché en dos niveles contra el Redis de la aplicación, con nodos montados como en CacheConfig: invalidación de
+ * la copia local entre dos nodos, una sola carga por clave con peticiones concurrentes, nivel local y evicciones
+ * pendientes con Redis caído (y su aplicación al volver), y evicción por el índice de dependencias.
+ * Cada test usa su propia caché y su propio canal de invalidación.
+ */
+@SpringBootTest
+class TwoLevelCacheTests {
+
+    private static final Duration ESPERA = Duration.ofSeconds(5);
+
+    record Hijo(Long id) implements Serializable {}
+
+    record Padre(Long id, List<Hijo> hijos) implements Serializable {}
+
+    // Un nodo de la caché: su circuito y su manager
+    private record Nodo(TwoLevelCacheManager manager, RedisCircuitBreaker circuito) {}
+
+    @Autowired
+    private RedisConnectionFactory redis;
+
+    private final List<Runnable> cierres = new ArrayList<>();
+    private String nombre;
+
+    @BeforeEach
+    void setUp() {
+        nombre = "cachetest-" + System.nanoTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cierres.forEach(Runnable::run);
+        try (RedisConnection connection = redis.getConnection()) {
+            connection.keyCommands().del(RedisCacheStore.key(nombre, "1"), RedisCacheStore.key(nombre, "2"));
+        }
+    }
+
+    @Test
+    void laEscrituraEnUnNodoInvalidaLaCopiaLocalDelOtro() {
+        CacheSettings settings = settings();
+        Cache a = nodo(redis, settings, new CacheDependencies()).manager().getCache(nombre);
+        Cache b = nodo(redis, settings, new CacheDependencies()).manager().getCache(nombre);
+
+        a.put("1", "v1");
+        // b la lee de Redis y se queda la copia local
+        assertThat(b.get("1").get()).isEqualTo("v1");
+
+        a.put("1", "v2");
+        esperar(() -> "v2".equals(b.get("1").get()));
+
+        a.evict("1");
+        esperar(() -> b.get("1") == null);
+    }
+
+    @Test
+    void lasLecturasConcurrentesDeUnaClaveHacenUnaSolaCarga() throws Exception {
+        Cache cache = nodo(redis, settings(), new CacheDependencies()).manager().getCache(nombre);
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch cargando = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        Callable<String> carga = () -> {
+            cargas.incrementAndGet();
+            cargando.countDown();
+            soltar.await(ESPERA.toMillis(), TimeUnit.MILLISECONDS);
+            return "valor";
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> lecturas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lecturas.add(pool.submit(() -> cache.get("1", carga)));
+            }
+            assertThat(cargando.await(ESPERA.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+            // El resto de lecturas llega mientras la primera sigue cargando
+            Thread.sleep(200);
+            soltar.countDown();
+            for (Future<String> lectura : lecturas) {
+                assertThat(lectura.get(ESPERA.toMillis(), TimeUnit.MILLISECONDS)).isEqualTo("valor");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(cargas).hasValue(1);
+    }
+
+    @Test
+    void conRedisCaidoSirveDelNivelLocalYAplicaLasEviccionesAlVolver() {
+        RedisIntermitente intermitente = new RedisIntermitente(redis);
+        CacheSettings settings = settings();
+        settings.getCircuitBreaker().setFailureThreshold(2);
+        settings.getCircuitBreaker().setProbeInterval(Duration.ofMillis(50));
+        Nodo nodo = nodo(intermitente, settings, new CacheDependencies());
+        Cache cache = nodo.manager().getCache(nombre);
+        cache.put("1", "v1");
+
+        intermitente.caido = true;
+        // El DEL no llega a Redis: la evicción queda pendiente y la copia de Redis sigue ahí
+        cache.evict("1");
+        AtomicInteger cargas = new AtomicInteger();
+        Callable<String> carga = () -> {
+            cargas.incrementAndGet();
+            return "cargado";
+        };
+        assertThat(cache.get("2", carga)).isEqualTo("cargado");
+        assertThat(cache.get("2", carga)).isEqualTo("cargado");
+
+        assertThat(nodo.circuito().getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        // La segunda lectura sale del nivel local, sin tocar Redis ni la base de datos
+        assertThat(cargas).hasValue(1);
+        assertThat(enRedis("1")).isNotNull();
+
+        intermitente.caido = false;
+        esperar(() -> nodo.circuito().getState() == RedisCircuitBreaker.State.CLOSED);
+        assertThat(enRedis("1")).isNull();
+    }
+
+    @Test
+    void elCambioDeUnaEntidadEvictaLasEntradasQueLaContienen() {
+        CacheDependencies dependencias = new CacheDependencies();
+        dependencias.track(Padre.class, "padre", Padre::id, Padre::hijos);
+        dependencias.track(Hijo.class, "hijo", Hijo::id, h -> null);
+        TwoLevelCacheManager manager = nodo(redis, settings(), dependencias).manager();
+        Cache padres = manager.getCache(nombre);
+        // Ids de hijo únicos: el índice de dependencias (cachedeps:hijo:<id>) es común a toda la base de Redis
+        long hijo = System.nanoTime();
+        padres.put("1", new Padre(1L, List.of(new Hijo(hijo))));
+        padres.put("2", new Padre(2L, List.of(new Hijo(hijo + 1))));
+
+        manager.evictDependents("hijo", List.of(hijo));
+
+        assertThat(padres.get("1")).isNull();
+        assertThat(enRedis("1")).isNull();
+        assertThat(padres.get("2")).isNotNull();
+    }
+
+    @Test
+    void lasListasCompletasSeIndexanPorTipoYNoPorId() {
+        nombre = nombre + "_all";
+        CacheDependencies dependencias = new CacheDependencies();
+        // Tipo propio del test: el índice por tipo (cachedeps:<entidad>) es común a toda la base de Redis
+        String entidad = "hijo" + System.nanoTime();
+        dependencias.track(Hijo.class, entidad, Hijo::id, h -> null);
+        TwoLevelCacheManager manager = nodo(redis, settings(), dependencias).manager();
+        Cache lista = manager.getCache(nombre);
+        lista.put("1", new ArrayList<>(List.of(new Hijo(1L), new Hijo(2L))));
+
+        try (RedisConnection connection = redis.getConnection()) {
+            assertThat(connection.keyCommands().exists(CacheDependencies.key(entidad, 1L))).isFalse();
+            assertThat(connection.setCommands().sCard(CacheDependencies.typeKey(entidad))).isEqualTo(1L);
+            // TTL de la caché (10 minutos por defecto), no el mayor de todas
+            assertThat(connection.keyCommands().pTtl(CacheDependencies.typeKey(entidad))).isBetween(1L, Duration.ofMinutes(10).toMillis());
+        }
+
+        manager.evictDependents(entidad, List.of(99L));
+
+        assertThat(lista.get("1")).isNull();
+        assertThat(enRedis("1")).isNull();
+    }
+
+    private CacheSettings settings() {
+        CacheSettings settings = new CacheSettings();
+        settings.setInvalidationChannel("cachetest:" + nombre);
+        return settings;
+    }
+
+    // Circuito, store, bus suscrito a su canal y manager, como en CacheConfig
+    private Nodo nodo(RedisConnectionFactory factory, CacheSettings settings, CacheDependencies dependencias) {
+        RedisCircuitBreaker circuito = new RedisCircuitBreaker(factory, settings, new SimpleMeterRegistry());
+        RedisCacheStore store = new RedisCacheStore(factory, circuito);
+        CacheInvalidationBus bus = new CacheInvalidationBus(store, settings.getInvalidationChannel());
+        CacheRefresher refresher = new CacheRefresher(null, settings);
+        RedisMessageListenerContainer listener = new RedisMessageListenerContainer();
+        listener.setConnectionFactory(redis);
+        listener.addMessageListener(bus, new ChannelTopic(bus.getChannel()));
+        listener.afterPropertiesSet();
+        listener.start();
+        cierres.add(() -> {
+            listener.stop();
+            circuito.destroy();
+            refresher.destroy();
+        });
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(store, n -> new JdkSerializationRedisSerializer(),
+                settings, bus, refresher, new CacheMetrics(new SimpleMeterRegistry()), dependencias);
+        return new Nodo(manager, circuito);
+    }
+
+    private byte[] enRedis(String clave) {
+        try (RedisConnection connection = redis.getConnection()) {
+            return connection.stringCommands().get(RedisCacheStore.key(nombre, clave));
+        }
+    }
+
+    private static void esperar(BooleanSupplier condicion) {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condición no cumplida en %s", ESPERA).isLessThan(limite);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Conexiones a Redis que fallan mientras está "caído"
+    private static final class RedisIntermitente implements RedisConnectionFactory {
+
+        private final RedisConnectionFactory delegate;
+        private volatile boolean caido;
+
+        RedisIntermitente(RedisConnectionFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public RedisConnection getConnection() {
+            if (caido) {
+                throw new RedisConnectionFailureException("Redis caído (test)");
+            }
+            return delegate.getConnection();
+        }
+
+        @Override
+        public RedisClusterConnection getClusterConnection() {
+            return delegate.getClusterConnection();
+        }
+
+        @Override
+        public boolean getConvertPipelineAndTxResults() {
+            return delegate.getConvertPipelineAndTxResults();
+        }
+
+        @Override
+        public RedisSentinelConnection getSentinelConnection() {
+            return delegate.getSentinelConnection();
+        }
+
+        @Override
+        public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+            return delegate.translateExceptionIfPossible(ex);
+        }
+    }
+}
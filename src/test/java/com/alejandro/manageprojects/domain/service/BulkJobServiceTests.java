@@ -0,0 +1,171 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.BulkJobDto;
+import com.alejandro.manageprojects.domain.service.impl.BulkJobServiceImpl;
+import com.alejandro.manageprojects.web.error.NotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Jobs en segundo plano sobre una operación en memoria (ids 1..n): bloques por rango de id, cancelación entre
+ * bloques y consulta y cancelación desde otra instancia a través de Redis. La segunda instancia se monta a mano
+ * con la misma configuración que el bean.
+ */
+@SpringBootTest(properties = {"app.jobs.chunk-size=10", "app.jobs.pause=0ms"})
+class BulkJobServiceTests {
+
+    private static final Duration ESPERA = Duration.ofSeconds(5);
+
+    @Autowired
+    private BulkJobService jobs;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private StringRedisTemplate redis;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private BulkJobServiceImpl otraInstancia;
+    private final CountDownLatch enBloque = new CountDownLatch(1);
+    private final CountDownLatch soltar = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        otraInstancia = new BulkJobServiceImpl(transactionManager, redis, objectMapper, 1);
+        ReflectionTestUtils.setField(otraInstancia, "chunkSize", 10);
+        ReflectionTestUtils.setField(otraInstancia, "pause", Duration.ZERO);
+        ReflectionTestUtils.setField(otraInstancia, "retention", Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        soltar.countDown();
+        otraInstancia.destroy();
+    }
+
+    @Test
+    void recorreLasFilasEnBloquesDeRangoDeId() {
+        Filas filas = new Filas(25, false);
+
+        BulkJobDto job = jobs.submit("test.bloques", filas);
+        BulkJobDto fin = esperarFin(() -> jobs.get(job.getId()));
+
+        assertThat(fin.getEstado()).isEqualTo(BulkJobDto.Estado.COMPLETADO);
+        assertThat(fin.getTotal()).isEqualTo(25);
+        assertThat(fin.getProcesados()).isEqualTo(25);
+        assertThat(fin.getBloques()).isEqualTo(3);
+        assertThat(fin.getUltimoId()).isEqualTo(25);
+        // Cada bloque empieza tras el último id del anterior
+        assertThat(filas.desde).containsExactly(0L, 10L, 20L, 25L);
+    }
+
+    @Test
+    void laCancelacionDetieneElJobAntesDelSiguienteBloque() throws InterruptedException {
+        Filas filas = new Filas(100, true);
+        BulkJobDto job = jobs.submit("test.cancelar", filas);
+        assertThat(enBloque.await(ESPERA.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+
+        assertThat(jobs.cancel(job.getId()).getEstado()).isEqualTo(BulkJobDto.Estado.EN_CURSO);
+        soltar.countDown();
+        BulkJobDto fin = esperarFin(() -> jobs.get(job.getId()));
+
+        assertThat(fin.getEstado()).isEqualTo(BulkJobDto.Estado.CANCELADO);
+        // El bloque en curso se confirma; no empieza ninguno más
+        assertThat(fin.getBloques()).isEqualTo(1);
+        assertThat(fin.getProcesados()).isEqualTo(10);
+        assertThat(filas.desde).containsExactly(0L);
+    }
+
+    @Test
+    void otraInstanciaConsultaYCancelaElJobPorRedis() throws InterruptedException {
+        Filas filas = new Filas(100, true);
+        BulkJobDto job = jobs.submit("test.remoto", filas);
+        assertThat(enBloque.await(ESPERA.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+
+        assertThat(otraInstancia.get(job.getId()).getEstado()).isEqualTo(BulkJobDto.Estado.EN_CURSO);
+        otraInstancia.cancel(job.getId());
+        soltar.countDown();
+        BulkJobDto fin = esperarFin(() -> otraInstancia.get(job.getId()));
+
+        assertThat(fin.getEstado()).isEqualTo(BulkJobDto.Estado.CANCELADO);
+        assertThat(fin.getBloques()).isEqualTo(1);
+        assertThat(filas.desde).containsExactly(0L);
+    }
+
+    @Test
+    void unJobDesconocidoDevuelveNotFound() {
+        assertThatThrownBy(() -> otraInstancia.get("no-existe"))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("no-existe");
+    }
+
+    // Espera a que el job salga de EN_COLA/EN_CURSO
+    private static BulkJobDto esperarFin(Supplier<BulkJobDto> estado) {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        BulkJobDto actual = estado.get();
+        while (actual.getEstado() == BulkJobDto.Estado.EN_COLA || actual.getEstado() == BulkJobDto.Estado.EN_CURSO) {
+            assertThat(System.nanoTime()).as("job sin terminar en %s: %s", ESPERA, actual).isLessThan(limite);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            actual = estado.get();
+        }
+        return actual;
+    }
+
+    // Filas con ids 1..n; con parar, el primer bloque espera a que el test lo suelte
+    private final class Filas implements BulkJobService.ChunkedOperation {
+
+        final List<Long> desde = new CopyOnWriteArrayList<>();
+        private final long n;
+        private final boolean parar;
+
+        Filas(long n, boolean parar) {
+            this.n = n;
+            this.parar = parar;
+        }
+
+        @Override
+        public long total() {
+            return n;
+        }
+
+        @Override
+        public BulkJobService.Chunk process(long afterId, int chunkSize) {
+            desde.add(afterId);
+            if (afterId >= n) {
+                return new BulkJobService.Chunk(null, 0);
+            }
+            if (parar && afterId == 0) {
+                enBloque.countDown();
+                try {
+                    soltar.await(ESPERA.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            long last = Math.min(afterId + chunkSize, n);
+            return new BulkJobService.Chunk(last, last - afterId);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.entity.*;
+import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import com.alejandro.manageprojects.domain.filter.TareaFilter;
+import com.alejandro.manageprojects.domain.mapper.ProyectoMapper;
+import com.alejandro.manageprojects.domain.repository.ProyectoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que los planes de carga (entity graphs + batch fetching) mantienen acotado el número de sentencias SQL
+ * al mapear una página completa de DTOs, independientemente del número de filas.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class FetchPlanQueryCountTests {
+
+    private static final int PROYECTOS = 50;
+    private static final int TAREAS_POR_PROYECTO = 4;
+    // Página + count + presupuesto (join) + tareas, comentarios, hitos, asignados (con perfil), roles y etiquetas por lotes
+    private static final long MAX_SENTENCIAS_PAGINA = 12;
+
+    @Autowired
+    private ProyectoService proyectoService;
+    @Autowired
+    private TareaService tareaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private ProyectoMapper proyectoMapper;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String prefijo;
+    private Long primerProyectoId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TestData datos = new TestData(entityManager, "fetchplan");
+        prefijo = datos.prefijo;
+
+        Rol rol = new Rol();
+        rol.setNombre(prefijo + "rol");
+        entityManager.persist(rol);
+
+        List<Etiqueta> etiquetas = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            etiquetas.add(datos.etiqueta("etq" + i));
+        }
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Usuario usuario = datos.usuario(String.valueOf(i));
+            usuario.getRoles().add(rol);
+            Perfil perfil = new Perfil();
+            perfil.setTelefono("600000" + i);
+            perfil.setUsuario(usuario);
+            entityManager.persist(perfil);
+            usuarios.add(usuario);
+        }
+
+        for (int i = 0; i < PROYECTOS; i++) {
+            Proyecto proyecto = datos.proyecto("proyecto" + i);
+            proyecto.setFechaInicio(LocalDateTime.now());
+            if (primerProyectoId == null) {
+                primerProyectoId = proyecto.getId();
+            }
+
+            Presupuesto presupuesto = new Presupuesto();
+            presupuesto.setMontoTotal(BigDecimal.valueOf(1000));
+            presupuesto.setProyecto(proyecto);
+            entityManager.persist(presupuesto);
+
+            Hito hito = new Hito();
+            hito.setNombre("hito" + i);
+            hito.setProyecto(proyecto);
+            entityManager.persist(hito);
+
+            Comentario comentario = new Comentario();
+            comentario.setContenido("comentario" + i);
+            comentario.setProyecto(proyecto);
+            comentario.setAutor(usuarios.get(i % usuarios.size()));
+            entityManager.persist(comentario);
+
+            for (int j = 0; j < TAREAS_POR_PROYECTO; j++) {
+                Usuario asignado = usuarios.get((i + j) % usuarios.size());
+                Etiqueta etiqueta = etiquetas.get(j % etiquetas.size());
+                datos.tarea(proyecto, "tarea" + i + "-" + j, t -> {
+                    t.setAsignadoA(asignado);
+                    t.getEtiquetas().add(etiqueta);
+                });
+            }
+        }
+        datos.flushAndClear();
+        statistics.clear();
+    }
+
+    @Test
+    void paginaDeProyectosEnNumeroAcotadoDeConsultas() {
+        ProyectoFilter filter = new ProyectoFilter();
+        filter.setNombre(prefijo);
+
+        Page<ProyectoDto> page = proyectoService.getProyectos(PageRequest.of(0, PROYECTOS), filter);
+
+        assertThat(page.getContent()).hasSize(PROYECTOS);
+        assertThat(page.getContent()).allSatisfy(p -> {
+            assertThat(p.getPresupuesto()).isNotNull();
+            assertThat(p.getTareas()).hasSize(TAREAS_POR_PROYECTO)
+                    .allSatisfy(t -> assertThat(t.getAsignadoA().getPerfil()).isNotNull());
+        });
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_SENTENCIAS_PAGINA);
+    }
+
+    @Test
+    void paginaKeysetDeProyectosEnNumeroAcotadoDeConsultas() {
+        ProyectoFilter filter = new ProyectoFilter();
+        filter.setNombre(prefijo);
+
+        CursorPageDto<ProyectoDto> page = proyectoService.getProyectosKeyset("", PageRequest.of(0, PROYECTOS), filter);
+
+        assertThat(page.getContent()).hasSize(PROYECTOS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_SENTENCIAS_PAGINA);
+    }
+
+    @Test
+    void paginaDeTareasEnNumeroAcotadoDeConsultas() {
+        TareaFilter filter = new TareaFilter();
+        filter.setTitulo(prefijo);
+
+        Page<TareaDto> page = tareaService.getTareas(PageRequest.of(0, PROYECTOS), filter);
+
+        assertThat(page.getContent()).hasSize(PROYECTOS);
+        assertThat(page.getContent()).allSatisfy(t -> {
+            assertThat(t.getAsignadoA().getPerfil()).isNotNull();
+            assertThat(t.getAsignadoA().getRoles()).isNotEmpty();
+            assertThat(t.getEtiquetas()).isNotEmpty();
+        });
+        // Página + count + roles y etiquetas por lotes (asignado y perfil van en la consulta principal)
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void detalleDeProyectoEnNumeroAcotadoDeConsultas() {
+        // Se usa el repositorio directamente para medir el plan de detalle sin pasar por la caché de getById
+        ProyectoDto dto = proyectoRepository.findById(primerProyectoId).map(proyectoMapper::toDto).orElseThrow();
+
+        assertThat(dto.getTareas()).hasSize(TAREAS_POR_PROYECTO);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(7);
+    }
+}
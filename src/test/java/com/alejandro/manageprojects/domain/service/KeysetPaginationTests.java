@@ -0,0 +1,100 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.CursorPageDto;
+import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.alejandro.manageprojects.domain.filter.TareaFilter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recorre todas las páginas del modo cursor y comprueba que salen todas las filas, una sola vez y en el orden
+ * (clave, id), con los nulos al final, tanto en claves NOT NULL como en claves con nulos.
+ */
+@SpringBootTest
+@Transactional
+class KeysetPaginationTests {
+
+    private static final int TAREAS = 23;
+    private static final int PAGINA = 4;
+
+    @Autowired
+    private TareaService tareaService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private String prefijo;
+    private final List<Tarea> tareas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestData datos = new TestData(entityManager, "keyset");
+        prefijo = datos.prefijo;
+        Proyecto proyecto = datos.proyecto("proyecto");
+
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+        for (int i = 0; i < TAREAS; i++) {
+            int n = i;
+            // Títulos y fechas repetidos para que desempate el id; una de cada cuatro sin fecha (cola de nulos)
+            tareas.add(datos.tarea(proyecto, String.valueOf((char) ('a' + n % 5)), t -> {
+                t.setFechaLimite(n % 4 == 0 ? null : base.plusDays(n % 3));
+                t.setEstado(Tarea.Estado.values()[n % Tarea.Estado.values().length]);
+            }));
+        }
+        datos.flushAndClear();
+    }
+
+    @Test
+    void recorreTodasLasPaginasPorClaveNotNull() {
+        assertRecorrido("titulo", Sort.Direction.ASC, Tarea::getTitulo);
+        assertRecorrido("titulo", Sort.Direction.DESC, Tarea::getTitulo);
+        // estado se guarda como texto: la base ordena por nombre, no por ordinal
+        assertRecorrido("estado", Sort.Direction.ASC, t -> t.getEstado().name());
+    }
+
+    @Test
+    void recorreTodasLasPaginasPorClaveConNulos() {
+        assertRecorrido("fechaLimite", Sort.Direction.ASC, Tarea::getFechaLimite);
+        assertRecorrido("fechaLimite", Sort.Direction.DESC, Tarea::getFechaLimite);
+    }
+
+    private <K extends Comparable<? super K>> void assertRecorrido(String propiedad, Sort.Direction direccion, Function<Tarea, K> clave) {
+        Comparator<K> porClave = direccion.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        Comparator<Long> porId = direccion.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        List<Long> esperado = tareas.stream()
+                .sorted(Comparator.comparing(clave, Comparator.nullsLast(porClave)).thenComparing(Tarea::getId, porId))
+                .map(Tarea::getId)
+                .toList();
+
+        TareaFilter filter = new TareaFilter();
+        filter.setTitulo(prefijo);
+        List<Long> recorrido = new ArrayList<>();
+        String cursor = "";
+        int paginas = 0;
+        while (cursor != null) {
+            CursorPageDto<TareaDto> page = tareaService.getTareasKeyset(cursor,
+                    PageRequest.of(0, PAGINA, Sort.by(direccion, propiedad)), filter);
+            assertThat(page.getContent()).hasSizeLessThanOrEqualTo(PAGINA);
+            page.getContent().forEach(t -> recorrido.add(t.getId()));
+            cursor = page.getNextCursor();
+            assertThat(++paginas).isLessThanOrEqualTo(TAREAS);
+        }
+
+        assertThat(recorrido).as("%s %s", propiedad, direccion).containsExactlyElementsOf(esperado);
+    }
+}
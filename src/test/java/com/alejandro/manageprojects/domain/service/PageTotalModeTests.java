@@ -0,0 +1,88 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.PageResultDto;
+import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import com.alejandro.manageprojects.domain.filter.TotalMode;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Modos de total de /proyectos/page con umbral 4: recuento exacto justo en el umbral, "al menos 4" al superarlo,
+ * sin total y estimación del planificador con filtros. Cada caso filtra su propio grupo de proyectos por nombre.
+ */
+@SpringBootTest(properties = "app.pagination.total-cap=" + PageTotalModeTests.UMBRAL)
+@Transactional
+class PageTotalModeTests {
+
+    static final int UMBRAL = 4;
+
+    @Autowired
+    private ProyectoService proyectoService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData datos;
+
+    @BeforeEach
+    void setUp() {
+        datos = new TestData(entityManager, "total");
+        for (int i = 0; i < UMBRAL; i++) {
+            datos.proyecto("en-umbral-" + i);
+        }
+        for (int i = 0; i <= UMBRAL; i++) {
+            datos.proyecto("sobre-umbral-" + i);
+        }
+        datos.flushAndClear();
+    }
+
+    @Test
+    void elRecuentoEsExactoHastaElUmbral() {
+        PageResultDto<ProyectoDto> page = pagina("en-umbral-", TotalMode.CAPPED);
+
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(UMBRAL);
+        assertThat(page.isTotalExact()).isTrue();
+        assertThat(page.getTotalMode()).isEqualTo("CAPPED");
+    }
+
+    @Test
+    void porEncimaDelUmbralSeInformaComoMinimo() {
+        PageResultDto<ProyectoDto> page = pagina("sobre-umbral-", TotalMode.CAPPED);
+
+        assertThat(page.getTotalElements()).isEqualTo(UMBRAL);
+        assertThat(page.isTotalExact()).isFalse();
+        assertThat(page.getContent()).hasSize(2);
+    }
+
+    @Test
+    void sinTotalSoloInformaDeLaSiguientePagina() {
+        PageResultDto<ProyectoDto> page = pagina("sobre-umbral-", TotalMode.NONE);
+
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getTotalElements()).isNull();
+    }
+
+    @Test
+    void conFiltrosLaEstimacionSaleDelPlanificador() {
+        PageResultDto<ProyectoDto> page = pagina("sobre-umbral-", TotalMode.ESTIMATE);
+
+        // El valor depende de las estadísticas; nunca es menor que lo ya visto (2 filas y la siguiente)
+        assertThat(page.getTotalMode()).isEqualTo("ESTIMATE");
+        assertThat(page.isTotalExact()).isFalse();
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+    }
+
+    private PageResultDto<ProyectoDto> pagina(String grupo, TotalMode mode) {
+        ProyectoFilter filter = new ProyectoFilter();
+        filter.setNombre(datos.prefijo + grupo);
+        return proyectoService.getProyectos(PageRequest.of(0, 2), filter, mode);
+    }
+}
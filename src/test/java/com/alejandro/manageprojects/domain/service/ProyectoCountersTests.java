@@ -0,0 +1,104 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.entity.Hito;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contadores de hijos por proyecto (db/proyecto-counters.sql): los triggers los mantienen en altas, cambios de
+ * estado y bajas por JPA y por las sentencias masivas, y los filtros minTareas/minHitos de getProyectos los usan.
+ */
+@SpringBootTest
+@Transactional
+class ProyectoCountersTests {
+
+    @Autowired
+    private ProyectoService proyectoService;
+    @Autowired
+    private TareaService tareaService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData datos;
+    private Long proyectoId;
+    private final List<Long> tareaIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        datos = new TestData(entityManager, "counters");
+        Proyecto proyecto = datos.proyecto("proyecto");
+        proyectoId = proyecto.getId();
+        tareaIds.add(datos.tarea(proyecto, "a").getId());
+        tareaIds.add(datos.tarea(proyecto, "b").getId());
+        tareaIds.add(datos.tarea(proyecto, "c", t -> t.setEstado(Tarea.Estado.EN_PROGRESO)).getId());
+        Hito hito = new Hito();
+        hito.setNombre("hito");
+        hito.setProyecto(proyecto);
+        entityManager.persist(hito);
+        datos.flushAndClear();
+    }
+
+    @Test
+    void siguenLasAltasCambiosDeEstadoYBajas() {
+        // total, pendientes, en progreso, completadas, hitos
+        assertThat(contadores()).containsExactly(3, 2, 1, 0, 1);
+
+        entityManager.find(Tarea.class, tareaIds.get(0)).setEstado(Tarea.Estado.COMPLETADA);
+        datos.flushAndClear();
+        assertThat(contadores()).containsExactly(3, 1, 1, 1, 1);
+
+        entityManager.remove(entityManager.find(Tarea.class, tareaIds.get(2)));
+        datos.flushAndClear();
+        assertThat(contadores()).containsExactly(2, 1, 0, 1, 1);
+
+        // UPDATE masivo en SQL nativo: los triggers son de sentencia y lo cubren igual
+        assertThat(tareaService.actualizarEstadoPorProyectoYFecha("PENDIENTE", "COMPLETADA", proyectoId, null)).isEqualTo(1);
+        assertThat(contadores()).containsExactly(2, 0, 0, 2, 1);
+    }
+
+    @Test
+    void losFiltrosMinimosUsanLosContadores() {
+        assertThat(ids(filtro(3, 1))).containsExactly(proyectoId);
+        assertThat(ids(filtro(4, null))).isEmpty();
+        assertThat(ids(filtro(null, 2))).isEmpty();
+    }
+
+    private List<Integer> contadores() {
+        Object[] row = (Object[]) entityManager.createNativeQuery("""
+                        SELECT total_tareas, tareas_pendientes, tareas_en_progreso, tareas_completadas, total_hitos
+                        FROM proyectos WHERE id = :id""")
+                .setParameter("id", proyectoId)
+                .getSingleResult();
+        List<Integer> valores = new ArrayList<>();
+        for (Object valor : row) {
+            valores.add(((Number) valor).intValue());
+        }
+        return valores;
+    }
+
+    private ProyectoFilter filtro(Integer minTareas, Integer minHitos) {
+        ProyectoFilter filter = new ProyectoFilter();
+        filter.setNombre(datos.prefijo);
+        filter.setMinTareas(minTareas);
+        filter.setMinHitos(minHitos);
+        return filter;
+    }
+
+    private List<Long> ids(ProyectoFilter filter) {
+        return proyectoService.getProyectos(PageRequest.of(0, 10), filter).map(ProyectoDto::getId).getContent();
+    }
+}
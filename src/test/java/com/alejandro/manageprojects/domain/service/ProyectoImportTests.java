@@ -0,0 +1,92 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.ImportResultDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Importación con un registro erróneo en medio: se informa con su línea y el resto se importa. Los bloques del
+ * servicio se unen a la transacción del test, que lo deshace todo al terminar.
+ */
+@SpringBootTest
+@Transactional
+class ProyectoImportTests {
+
+    @Autowired
+    private ProyectoImportService importService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private String prefijo;
+
+    @BeforeEach
+    void setUp() {
+        prefijo = new TestData(entityManager, "import").prefijo;
+    }
+
+    @Test
+    void ndjsonConUnaLineaIlegible() {
+        String body = """
+                {"nombre": "%1$sa", "tareas": [{"titulo": "t1", "estado": "en_progreso"}], "hitos": [{"nombre": "h1"}]}
+                {"nombre": "%1$sb", "tareas": [
+                {"nombre": "%1$sc", "presupuesto": {"montoTotal": 100}}
+                """.formatted(prefijo);
+
+        ImportResultDto result = importar(body, ProyectoImportService.Format.NDJSON);
+
+        assertThat(result.getProcesados()).isEqualTo(3);
+        assertThat(result.getImportados()).isEqualTo(2);
+        assertThat(result.getTareas()).isEqualTo(1);
+        assertThat(result.getHitos()).isEqualTo(1);
+        assertThat(result.getFallidos()).isEqualTo(1);
+        assertThat(result.getErrores()).singleElement().satisfies(error -> {
+            assertThat(error.getLinea()).isEqualTo(2);
+            assertThat(error.getMensaje()).startsWith("JSON inválido");
+        });
+        assertThat(importados()).isEqualTo(2);
+    }
+
+    @Test
+    void csvConUnaFilaErronea() {
+        // La cabecera es la línea 1; el proyecto b empieza en la 4 y su fecha no se puede leer
+        String body = """
+                proyecto,nombre,fechaInicio,tipo,titulo,estado
+                1,%1$sa,2024-01-01,TAREA,t1,PENDIENTE
+                1,%1$sa,,HITO,h1,
+                2,%1$sb,ayer,TAREA,t2,
+                3,%1$sc,,,,
+                """.formatted(prefijo);
+
+        ImportResultDto result = importar(body, ProyectoImportService.Format.CSV);
+
+        assertThat(result.getProcesados()).isEqualTo(3);
+        assertThat(result.getImportados()).isEqualTo(2);
+        assertThat(result.getTareas()).isEqualTo(1);
+        assertThat(result.getHitos()).isEqualTo(1);
+        assertThat(result.getFallidos()).isEqualTo(1);
+        assertThat(result.getErrores()).singleElement().satisfies(error -> {
+            assertThat(error.getLinea()).isEqualTo(4);
+            assertThat(error.getMensaje()).contains("fecha inválida: ayer");
+        });
+        assertThat(importados()).isEqualTo(2);
+    }
+
+    private ImportResultDto importar(String body, ProyectoImportService.Format format) {
+        return importService.importProyectos(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private long importados() {
+        return ((Number) entityManager.createNativeQuery("SELECT count(*) FROM proyectos WHERE nombre LIKE :prefijo")
+                .setParameter("prefijo", prefijo + "%")
+                .getSingleResult()).longValue();
+    }
+}
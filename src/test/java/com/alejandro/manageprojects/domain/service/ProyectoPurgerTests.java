@@ -0,0 +1,119 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.entity.*;
+import com.alejandro.manageprojects.domain.service.impl.ProyectoPurger;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Purga por bloques: los proyectos se borran con tareas, etiquetas de tarea, hitos y miembros, y cada tabla deja sus
+ * revisiones de borrado (revtype 2). Sin @Transactional: la purga confirma cada bloque en su propia transacción.
+ */
+@SpringBootTest(properties = "app.purge.chunk-size=2")
+class ProyectoPurgerTests {
+
+    private static final int PROYECTOS = 3;
+    private static final int TAREAS_POR_PROYECTO = 2;
+
+    @Autowired
+    private ProyectoPurger purger;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private String prefijo;
+    private final List<Long> proyectoIds = new ArrayList<>();
+    private final List<Long> tareaIds = new ArrayList<>();
+    private Long usuarioId;
+    private Long etiquetaId;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        TestData datos = new TestData(entityManager, "purge");
+        prefijo = datos.prefijo;
+        tx.executeWithoutResult(status -> {
+            Usuario usuario = datos.usuario("usuario");
+            usuarioId = usuario.getId();
+            Etiqueta etiqueta = datos.etiqueta("etq");
+            etiquetaId = etiqueta.getId();
+
+            for (int i = 0; i < PROYECTOS; i++) {
+                Proyecto proyecto = datos.proyecto(String.valueOf(i));
+                proyectoIds.add(proyecto.getId());
+
+                Hito hito = new Hito();
+                hito.setNombre("hito" + i);
+                hito.setProyecto(proyecto);
+                entityManager.persist(hito);
+
+                MiembroProyecto miembro = new MiembroProyecto();
+                miembro.setUsuario(usuario);
+                miembro.setProyecto(proyecto);
+                miembro.setRolEnProyecto("OWNER");
+                entityManager.persist(miembro);
+
+                for (int j = 0; j < TAREAS_POR_PROYECTO; j++) {
+                    Tarea tarea = datos.tarea(proyecto, i + "-" + j, t -> t.getEtiquetas().add(etiqueta));
+                    tareaIds.add(tarea.getId());
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            entityManager.remove(entityManager.find(Usuario.class, usuarioId));
+            entityManager.remove(entityManager.find(Etiqueta.class, etiquetaId));
+        });
+    }
+
+    @Test
+    void borraLosProyectosConSusDependientesYRegistraLosBorrados() {
+        long borrados = purger.purge(QProyecto.proyecto.nombre.startsWith(prefijo));
+
+        assertThat(borrados).isEqualTo(PROYECTOS);
+        assertThat(contar("SELECT count(*) FROM proyectos WHERE id IN (:ids)", proyectoIds)).isZero();
+        assertThat(contar("SELECT count(*) FROM tareas WHERE proyecto_id IN (:ids)", proyectoIds)).isZero();
+        assertThat(contar("SELECT count(*) FROM tarea_etiqueta WHERE tarea_id IN (:ids)", tareaIds)).isZero();
+        assertThat(contar("SELECT count(*) FROM hitos WHERE proyecto_id IN (:ids)", proyectoIds)).isZero();
+        assertThat(contar("SELECT count(*) FROM miembros_proyecto WHERE proyecto_id IN (:ids)", proyectoIds)).isZero();
+
+        int tareas = PROYECTOS * TAREAS_POR_PROYECTO;
+        assertThat(contar("SELECT count(*) FROM proyectos_aud WHERE revtype = 2 AND id IN (:ids)", proyectoIds))
+                .isEqualTo(PROYECTOS);
+        assertThat(contar("SELECT count(*) FROM tareas_aud WHERE revtype = 2 AND id IN (:ids)", tareaIds))
+                .isEqualTo(tareas);
+        assertThat(contar("SELECT count(*) FROM tarea_etiqueta_aud WHERE revtype = 2 AND tarea_id IN (:ids)", tareaIds))
+                .isEqualTo(tareas);
+        assertThat(contar("SELECT count(*) FROM hitos_aud h WHERE h.revtype = 2 AND h.id IN "
+                + "(SELECT a.id FROM hitos_aud a WHERE a.revtype = 0 AND a.proyecto_id IN (:ids))", proyectoIds))
+                .isEqualTo(PROYECTOS);
+        assertThat(contar("SELECT count(*) FROM miembros_proyecto_aud m WHERE m.revtype = 2 AND m.id IN "
+                + "(SELECT a.id FROM miembros_proyecto_aud a WHERE a.revtype = 0 AND a.proyecto_id IN (:ids))", proyectoIds))
+                .isEqualTo(PROYECTOS);
+        // Un bloque de 2 y otro de 1: cada uno en su revisión
+        assertThat(contar("SELECT count(DISTINCT rev) FROM proyectos_aud WHERE revtype = 2 AND id IN (:ids)", proyectoIds))
+                .isEqualTo(2);
+    }
+
+    private long contar(String sql, List<Long> ids) {
+        return tx.execute(status -> ((Number) entityManager.createNativeQuery(sql)
+                .setParameter("ids", ids)
+                .getSingleResult()).longValue());
+    }
+}
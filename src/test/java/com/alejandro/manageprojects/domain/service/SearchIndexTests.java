@@ -0,0 +1,82 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.ProyectoDto;
+import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.alejandro.manageprojects.domain.filter.ProyectoFilter;
+import com.alejandro.manageprojects.domain.filter.TareaFilter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Búsqueda libre sobre el documento indexado (db/search-index.sql): un proyecto se encuentra por el título de sus
+ * tareas y una tarea por el nombre de su proyecto; los triggers rehacen el documento al cambiar un hijo.
+ * Los textos llevan el prefijo único de TestData, así que solo pueden coincidir con las filas del test.
+ */
+@SpringBootTest(properties = "app.search.indexed=true")
+@Transactional
+class SearchIndexTests {
+
+    @Autowired
+    private ProyectoService proyectoService;
+    @Autowired
+    private TareaService tareaService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData datos;
+    private Long proyectoId;
+    private Long tareaId;
+
+    @BeforeEach
+    void setUp() {
+        datos = new TestData(entityManager, "search");
+        Proyecto proyecto = datos.proyecto("huerto");
+        proyectoId = proyecto.getId();
+        tareaId = datos.tarea(proyecto, "zanahorias").getId();
+        datos.flushAndClear();
+    }
+
+    @Test
+    void encuentraElProyectoPorElTituloDeSusTareas() {
+        assertThat(proyectos(datos.prefijo + "ZANAHORIA")).containsExactly(proyectoId);
+        assertThat(proyectos(datos.prefijo + "patatas")).isEmpty();
+    }
+
+    @Test
+    void elDocumentoSigueAlCambiarUnaTarea() {
+        entityManager.find(Tarea.class, tareaId).setTitulo(datos.prefijo + "calabazas");
+        datos.flushAndClear();
+
+        assertThat(proyectos(datos.prefijo + "calabaza")).containsExactly(proyectoId);
+        assertThat(proyectos(datos.prefijo + "zanahoria")).isEmpty();
+    }
+
+    @Test
+    void encuentraLaTareaPorElNombreDeSuProyecto() {
+        assertThat(tareas(datos.prefijo + "huerto")).containsExactly(tareaId);
+        assertThat(tareas(datos.prefijo + "granja")).isEmpty();
+    }
+
+    private List<Long> proyectos(String texto) {
+        ProyectoFilter filter = new ProyectoFilter();
+        filter.setSearchText(texto);
+        return proyectoService.getProyectos(PageRequest.of(0, 10), filter).map(ProyectoDto::getId).getContent();
+    }
+
+    private List<Long> tareas(String texto) {
+        TareaFilter filter = new TareaFilter();
+        filter.setSearchText(texto);
+        return tareaService.getTareas(PageRequest.of(0, 10), filter).map(TareaDto::getId).getContent();
+    }
+}
@@ -0,0 +1,85 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.alejandro.manageprojects.web.error.ConflictException;
+import com.alejandro.manageprojects.web.error.NotFoundException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PUT con If-Match: la versión coincidente actualiza solo lo que cambia y deja revisión de auditoría; una versión
+ * antigua da 409 y una tarea inexistente 404.
+ */
+@SpringBootTest
+@Transactional
+class TareaIfMatchUpdateTests {
+
+    @Autowired
+    private TareaService tareaService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Tarea tarea;
+
+    @BeforeEach
+    void setUp() {
+        TestData datos = new TestData(entityManager, "ifmatch");
+        tarea = datos.tarea(datos.proyecto("proyecto"), "tarea", t -> t.setDescripcion("original"));
+        datos.flushAndClear();
+    }
+
+    @Test
+    void actualizaConVersionVigenteYRegistraLaRevision() {
+        TareaDto actualizada = tareaService.update(tarea.getId(), tarea.getVersion(), cambio("modificada"));
+
+        assertThat(actualizada.getVersion()).isEqualTo(tarea.getVersion() + 1);
+        assertThat(actualizada.getDescripcion()).isEqualTo("modificada");
+        entityManager.clear();
+        Tarea leida = entityManager.find(Tarea.class, tarea.getId());
+        assertThat(leida.getDescripcion()).isEqualTo("modificada");
+        assertThat(leida.getVersion()).isEqualTo(actualizada.getVersion());
+        Number revisiones = (Number) entityManager.createNativeQuery(
+                        "SELECT count(*) FROM tareas_aud WHERE revtype = 1 AND id = :id AND descripcion = 'modificada'")
+                .setParameter("id", tarea.getId())
+                .getSingleResult();
+        assertThat(revisiones.longValue()).isEqualTo(1);
+    }
+
+    @Test
+    void sinCambiosNoSubeLaVersion() {
+        TareaDto igual = tareaService.update(tarea.getId(), tarea.getVersion(), cambio("original"));
+
+        assertThat(igual.getVersion()).isEqualTo(tarea.getVersion());
+    }
+
+    @Test
+    void versionAntiguaDaConflicto() {
+        tareaService.update(tarea.getId(), tarea.getVersion(), cambio("primera"));
+
+        assertThatThrownBy(() -> tareaService.update(tarea.getId(), tarea.getVersion(), cambio("segunda")))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void tareaInexistenteDaNotFound() {
+        assertThatThrownBy(() -> tareaService.update(tarea.getId() + 1_000_000, 0, cambio("nada")))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private TareaDto cambio(String descripcion) {
+        TareaDto dto = new TareaDto();
+        dto.setTitulo(tarea.getTitulo());
+        dto.setDescripcion(descripcion);
+        dto.setEstado(tarea.getEstado().name());
+        dto.setFechaLimite(tarea.getFechaLimite());
+        return dto;
+    }
+}
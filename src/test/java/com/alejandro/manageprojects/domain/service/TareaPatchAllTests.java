@@ -0,0 +1,112 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.dto.TareaDto;
+import com.alejandro.manageprojects.domain.dto.TareaPatchDto;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.alejandro.manageprojects.web.error.NotFoundException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PATCH por lotes de tareas: valores distintos por id (CASE) en un mismo UPDATE, null explícito que borra un campo
+ * opcional, 404 si falta alguna tarea y revisión de auditoría de las filas modificadas.
+ */
+@SpringBootTest
+@Transactional
+class TareaPatchAllTests {
+
+    @Autowired
+    private TareaService tareaService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private String prefijo;
+    private final List<Tarea> tareas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestData datos = new TestData(entityManager, "patch");
+        prefijo = datos.prefijo;
+        Proyecto proyecto = datos.proyecto("proyecto");
+        for (int i = 0; i < 3; i++) {
+            int dia = 1 + i;
+            String descripcion = "descripcion " + i;
+            tareas.add(datos.tarea(proyecto, String.valueOf(i), t -> {
+                t.setDescripcion(descripcion);
+                t.setFechaLimite(LocalDateTime.of(2030, 1, dia, 0, 0));
+            }));
+        }
+        datos.flushAndClear();
+    }
+
+    @Test
+    void aplicaValoresDistintosPorTareaYBorraConNullExplicito() {
+        // Misma forma (titulo + fechaLimite) con títulos distintos: CASE por id; la fecha nula es común
+        List<TareaPatchDto> cambios = List.of(
+                cambio(tareas.get(0).getId(), prefijo + "uno", Optional.empty()),
+                cambio(tareas.get(1).getId(), prefijo + "dos", Optional.empty()));
+        TareaPatchDto estado = new TareaPatchDto();
+        estado.setId(tareas.get(2).getId());
+        estado.setEstado(Optional.of("COMPLETADA"));
+
+        List<TareaDto> resultado = tareaService.patchAll(concat(cambios, estado));
+
+        assertThat(resultado).extracting(TareaDto::getTitulo)
+                .containsExactly(prefijo + "uno", prefijo + "dos", prefijo + 2);
+        assertThat(resultado).extracting(TareaDto::getFechaLimite)
+                .containsExactly(null, null, tareas.get(2).getFechaLimite());
+        // Los campos ausentes no se tocan
+        assertThat(resultado).extracting(TareaDto::getDescripcion)
+                .containsExactly("descripcion 0", "descripcion 1", "descripcion 2");
+        assertThat(resultado).extracting(TareaDto::getEstado)
+                .containsExactly("PENDIENTE", "PENDIENTE", "COMPLETADA");
+        assertThat(resultado).extracting(TareaDto::getVersion).containsOnly(1L);
+
+        Number auditadas = (Number) entityManager.createNativeQuery(
+                        "SELECT count(*) FROM tareas_aud WHERE revtype = 1 AND id IN (:ids)")
+                .setParameter("ids", tareas.stream().map(Tarea::getId).toList())
+                .getSingleResult();
+        assertThat(auditadas.longValue()).isEqualTo(3);
+    }
+
+    @Test
+    void fallaConNotFoundSiAlgunaTareaNoExiste() {
+        Long inexistente = tareas.get(2).getId() + 1_000_000;
+        List<TareaPatchDto> cambios = List.of(
+                cambio(tareas.get(0).getId(), prefijo + "uno", Optional.empty()),
+                cambio(inexistente, prefijo + "dos", Optional.empty()));
+
+        assertThatThrownBy(() -> tareaService.patchAll(cambios))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining(inexistente.toString());
+        entityManager.clear();
+        assertThat(entityManager.find(Tarea.class, tareas.get(0).getId()).getTitulo()).isEqualTo(prefijo + 0);
+    }
+
+    private static TareaPatchDto cambio(Long id, String titulo, Optional<LocalDateTime> fechaLimite) {
+        TareaPatchDto cambio = new TareaPatchDto();
+        cambio.setId(id);
+        cambio.setTitulo(Optional.of(titulo));
+        cambio.setFechaLimite(fechaLimite);
+        return cambio;
+    }
+
+    private static List<TareaPatchDto> concat(List<TareaPatchDto> cambios, TareaPatchDto otro) {
+        List<TareaPatchDto> todos = new ArrayList<>(cambios);
+        todos.add(otro);
+        return todos;
+    }
+}
@@ -0,0 +1,70 @@
+package com.alejandro.manageprojects.domain.service;
+
+import com.alejandro.manageprojects.domain.entity.Etiqueta;
+import com.alejandro.manageprojects.domain.entity.Proyecto;
+import com.alejandro.manageprojects.domain.entity.Tarea;
+import com.alejandro.manageprojects.domain.entity.Usuario;
+import jakarta.persistence.EntityManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Datos de prueba persistidos con un prefijo único por ejecución: los tests comparten la base (y la caché de
+ * Redis), así que filtran por el prefijo y no chocan con otras filas. Persiste en la transacción en curso.
+ */
+final class TestData {
+
+    final String prefijo;
+    private final EntityManager entityManager;
+
+    TestData(EntityManager entityManager, String nombre) {
+        this.entityManager = entityManager;
+        this.prefijo = nombre + "-" + System.nanoTime() + "-";
+    }
+
+    Proyecto proyecto(String nombre) {
+        Proyecto proyecto = new Proyecto();
+        proyecto.setNombre(prefijo + nombre);
+        entityManager.persist(proyecto);
+        return proyecto;
+    }
+
+    /**
+     * Tarea PENDIENTE del proyecto con el título prefijado; el consumidor ajusta el resto antes de persistir.
+     */
+    Tarea tarea(Proyecto proyecto, String titulo, Consumer<Tarea> datos) {
+        Tarea tarea = new Tarea();
+        tarea.setTitulo(prefijo + titulo);
+        tarea.setEstado(Tarea.Estado.PENDIENTE);
+        tarea.setProyecto(proyecto);
+        datos.accept(tarea);
+        entityManager.persist(tarea);
+        return tarea;
+    }
+
+    Tarea tarea(Proyecto proyecto, String titulo) {
+        return tarea(proyecto, titulo, t -> {});
+    }
+
+    Usuario usuario(String nombre) {
+        Usuario usuario = new Usuario();
+        usuario.setEmail(prefijo + nombre + "@test.com");
+        usuario.setNombre("Nombre");
+        usuario.setApellido("Apellido");
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    Etiqueta etiqueta(String nombre) {
+        Etiqueta etiqueta = new Etiqueta();
+        etiqueta.setNombre(prefijo + nombre);
+        entityManager.persist(etiqueta);
+        return etiqueta;
+    }
+
+    // Envía los inserts y vacía el contexto: el código probado lee de la base, no de entidades ya gestionadas
+    void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}